@@ -0,0 +1,69 @@
+package net.team33.building.bench;
+
+import net.team33.building.Branchable;
+import net.team33.building.mapping.EnumMapped;
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData.Property;
+
+/**
+ * A {@link Branchable} counterpart to the test's {@code MappedData}, sharing its {@link Property} schema.
+ * <p/>
+ * Needed where a benchmark exercises the {@link #branch()} -> {@link Builder#build()} round trip or a
+ * {@link net.team33.building.mapping.Combiner}.
+ */
+public class Address extends EnumMapped<Property> implements Branchable<Address, Address.Builder> {
+
+    private Address(final Mapper<Property, ?> mapper) {
+        super(mapper);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public final String getName() {
+        return get(Property.NAME);
+    }
+
+    public final String getFirstName() {
+        return get(Property.FIRST_NAME);
+    }
+
+    public final Country getCountry() {
+        return get(Property.COUNTRY);
+    }
+
+    @Override
+    public final Builder branch() {
+        return new Builder(this);
+    }
+
+    @SuppressWarnings({"PublicInnerClass", "ClassNameSameAsAncestorName"})
+    public static class Builder extends Mapper<Property, Builder> implements net.team33.building.Builder<Address> {
+
+        private Builder() {
+            super(Property.class);
+        }
+
+        private Builder(final Address origin) {
+            super(origin);
+        }
+
+        @Override
+        public final Address build() {
+            return new Address(this);
+        }
+
+        public final Builder setName(final String name) {
+            return set(Property.NAME, name);
+        }
+
+        public final Builder setFirstName(final String firstName) {
+            return set(Property.FIRST_NAME, firstName);
+        }
+
+        public final Builder setCountry(final Country country) {
+            return set(Property.COUNTRY, country);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package net.team33.building.bench;
+
+import net.team33.building.Builder;
+import net.team33.building.mapping.CombIterator;
+import net.team33.building.mapping.Combiner;
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData.Property;
+import net.team33.building.mapping.jaxb.PlainData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Measures the throughput of a complete enumeration by {@link CombIterator} and {@link Combiner} against the
+ * {@link PlainData} baseline of plain nested loops.
+ * <p/>
+ * The space consists of {@code width} names x {@code width} first names x each {@link Country}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CombinationBenchmark {
+
+    @Param({"4", "16"})
+    private int width;
+
+    private Set<String> names;
+    private Set<String> firstNames;
+    private Set<Country> countries;
+    private Map<Property, Set<?>> origin;
+
+    private static Set<String> strings(final String prefix, final int count) {
+        final Set<String> result = new LinkedHashSet<>(count);
+        for (int index = 0; index < count; ++index) {
+            result.add(prefix + index);
+        }
+        return unmodifiableSet(result);
+    }
+
+    private static <T> Builder<Set<?>> builder(final Set<T> values) {
+        return new Builder<Set<?>>() {
+            @Override
+            public Set<?> build() {
+                return values;
+            }
+        };
+    }
+
+    @Setup
+    public final void setup() {
+        names = strings("name", width);
+        firstNames = strings("firstName", width);
+        countries = unmodifiableSet(new LinkedHashSet<>(asList(Country.values())));
+        origin = new EnumMap<>(Property.class);
+        origin.put(Property.NAME, names);
+        origin.put(Property.FIRST_NAME, firstNames);
+        origin.put(Property.COUNTRY, countries);
+    }
+
+    @Benchmark
+    public final void enumerate_CombIterator(final Blackhole blackhole) {
+        final Iterator<Map<Property, Object>> iterator = new CombIterator<>(origin);
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    @Benchmark
+    public final void enumerate_Combiner(final Blackhole blackhole) {
+        final AddressCombiner combiner = new AddressCombiner()
+                .set(Property.NAME, builder(names))
+                .set(Property.FIRST_NAME, builder(firstNames))
+                .set(Property.COUNTRY, builder(countries));
+        for (final Address address : combiner) {
+            blackhole.consume(address);
+        }
+    }
+
+    @Benchmark
+    public final void enumerate_PlainData(final Blackhole blackhole) {
+        for (final Country country : countries) {
+            for (final String firstName : firstNames) {
+                for (final String name : names) {
+                    blackhole.consume(new PlainData(name, firstName, country));
+                }
+            }
+        }
+    }
+
+    private static class AddressCombiner extends Combiner<Property, Address.Builder, Address, AddressCombiner> {
+        private AddressCombiner() {
+            super(Property.class, Address.builder().build());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package net.team33.building.bench;
+
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData;
+import net.team33.building.mapping.jaxb.PlainData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures single property access, construction and the {@code branch()} -> {@code build()} round trip of
+ * {@link net.team33.building.mapping.Mapped} derivatives, each against the {@link PlainData} baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MappingBenchmark {
+
+    private static final String NAME = "Doe";
+    private static final String FIRST_NAME = "Jane";
+    private static final String OTHER_NAME = "Roe";
+
+    private MappedData mapped;
+    private MappedData.Builder mapper;
+    private Address address;
+    private PlainData plain;
+
+    @Setup
+    public final void setup() {
+        mapped = MappedData.builder().setName(NAME).setFirstName(FIRST_NAME).setCountry(Country.AUT).build();
+        mapper = MappedData.builder();
+        address = Address.builder().setName(NAME).setFirstName(FIRST_NAME).setCountry(Country.AUT).build();
+        plain = new PlainData(NAME, FIRST_NAME, Country.AUT);
+    }
+
+    @Benchmark
+    public final String get_Mapped() {
+        return mapped.getName();
+    }
+
+    @Benchmark
+    public final String get_PlainData() {
+        return plain.getName();
+    }
+
+    @Benchmark
+    public final Object set_Mutable() {
+        return mapper.setName(OTHER_NAME);
+    }
+
+    @Benchmark
+    public final Object set_PlainData() {
+        plain.setName(OTHER_NAME);
+        return plain;
+    }
+
+    @Benchmark
+    public final Object construct_EnumMapped() {
+        return MappedData.builder().setName(NAME).setFirstName(FIRST_NAME).setCountry(Country.AUT).build();
+    }
+
+    @Benchmark
+    public final Object construct_PlainData() {
+        return new PlainData(NAME, FIRST_NAME, Country.AUT);
+    }
+
+    @Benchmark
+    public final Object branch_build_EnumMapped() {
+        return address.branch().setName(OTHER_NAME).build();
+    }
+
+    @Benchmark
+    public final Object branch_build_PlainData() {
+        return new PlainData(OTHER_NAME, plain.getFirstName(), plain.getCountry());
+    }
+}
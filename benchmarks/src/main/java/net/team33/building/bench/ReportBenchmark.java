@@ -0,0 +1,67 @@
+package net.team33.building.bench;
+
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData;
+import net.team33.building.mapping.jaxb.PlainData;
+import net.team33.building.test.Report;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rendering of a {@link Report} over {@code size} entries of {@link MappedData}
+ * (rendered as nested maps) against the {@link PlainData} baseline (rendered by its own {@code toString()}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReportBenchmark {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    private Report mapped;
+    private Report plain;
+
+    @Setup
+    public final void setup() {
+        final List<Object> mappedEntries = new ArrayList<>(size);
+        final List<Object> plainEntries = new ArrayList<>(size);
+        final Country[] countries = Country.values();
+        for (int index = 0; index < size; ++index) {
+            final String name = "name" + index;
+            final String firstName = "firstName" + index;
+            final Country country = countries[index % countries.length];
+            mappedEntries.add(MappedData.builder().setName(name).setFirstName(firstName).setCountry(country)
+                                      .build().asMap());
+            plainEntries.add(new PlainData(name, firstName, country));
+        }
+        mapped = new Report(mappedEntries);
+        plain = new Report(plainEntries);
+    }
+
+    @Benchmark
+    public final String render_Mapped() {
+        return mapped.toString();
+    }
+
+    @Benchmark
+    public final String render_PlainData() {
+        return plain.toString();
+    }
+}
@@ -0,0 +1,329 @@
+package net.team33.building.mapping;
+
+import net.team33.building.Builder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Converts between records of a specific {@linkplain Key schema} and plain beans of a specific class.
+ * <p/>
+ * A key is bound to a bean property whose name is the {@linkplain Names#camelCase(String) camel case} form of the
+ * key's name (e.g. {@code FIRST_NAME} to {@code firstName}): preferably to its public getter ({@code getFirstName()}
+ * or {@code isFirstName()}) and setter ({@code setFirstName(...)}), otherwise to a non-static field of that name.
+ * A getter or field is bound only if its type is compatible with the {@linkplain Key#getValueClass() value class} of
+ * the key, a setter or field only if the value class is compatible with its type. Keys without a matching bean
+ * property and bean properties without a matching key are ignored.
+ * <p/>
+ * The bindings are resolved once and held as {@link MethodHandle}s adapted to a uniform signature, so a conversion
+ * needs no further reflection or lookup. A binder is immutable and thread-safe and is intended to be created once
+ * (e.g. as a constant) and used for many conversions.
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ * @param <T> The type of the beans.
+ */
+public final class BeanBinder<K extends Enum<K> & Key, T> {
+
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType FACTORY = MethodType.methodType(Object.class);
+
+    private static final String NO_CONSTRUCTOR = "%s has no accessible constructor without parameters";
+    private static final String NOT_ACCESSIBLE = "cannot access %s";
+    private static final String FAILED = "failed to invoke %s";
+
+    private final Class<K> keyClass;
+    private final Class<T> beanClass;
+    private final MethodHandle factory;
+    private final Set<K> keySet;
+    private final K[] readKeys;
+    private final MethodHandle[] getters;
+    private final boolean[] primitive;
+    private final K[] writeKeys;
+    private final MethodHandle[] setters;
+
+    private BeanBinder(final Class<K> keyClass, final Class<T> beanClass) {
+        final K[] universe = keyClass.getEnumConstants();
+        final EnumSet<K> bound = EnumSet.noneOf(keyClass);
+        final List<K> gettable = new ArrayList<>(universe.length);
+        final List<MethodHandle> getterList = new ArrayList<>(universe.length);
+        final List<K> settable = new ArrayList<>(universe.length);
+        final List<MethodHandle> setterList = new ArrayList<>(universe.length);
+        final List<Boolean> primitiveList = new ArrayList<>(universe.length);
+        for (final K key : universe) {
+            if (!KeySchema.isDerivedKey(key)) {
+                final String name = Names.camelCase(key.name());
+                final MethodHandle getter = getter(beanClass, name, key.getValueClass());
+                if (null != getter) {
+                    gettable.add(key);
+                    getterList.add(getter.asType(GETTER));
+                    bound.add(key);
+                }
+                final MethodHandle setter = setter(beanClass, name, key.getValueClass());
+                if (null != setter) {
+                    settable.add(key);
+                    setterList.add(setter.asType(SETTER));
+                    primitiveList.add(setter.type().parameterType(1).isPrimitive());
+                    bound.add(key);
+                }
+            }
+        }
+        this.keyClass = keyClass;
+        this.beanClass = beanClass;
+        this.factory = factory(beanClass);
+        this.keySet = unmodifiableSet(bound);
+        this.readKeys = gettable.toArray(Arrays.copyOf(universe, 0));
+        this.getters = getterList.toArray(new MethodHandle[getterList.size()]);
+        this.writeKeys = settable.toArray(Arrays.copyOf(universe, 0));
+        this.setters = setterList.toArray(new MethodHandle[setterList.size()]);
+        this.primitive = new boolean[primitiveList.size()];
+        for (int index = 0; index < primitive.length; ++index) {
+            primitive[index] = primitiveList.get(index);
+        }
+    }
+
+    /**
+     * Supplies a binder between records of a given {@code keyClass} and beans of a given {@code beanClass}.
+     *
+     * @throws NullPointerException     if {@code keyClass} or {@code beanClass} is {@code null}.
+     * @throws IllegalArgumentException if a bound member is not accessible.
+     */
+    public static <K extends Enum<K> & Key, T> BeanBinder<K, T> of(final Class<K> keyClass,
+                                                                  final Class<T> beanClass) {
+        return new BeanBinder<>(keyClass, beanClass);
+    }
+
+    private static MethodHandle factory(final Class<?> beanClass) {
+        try {
+            return MethodHandles.publicLookup()
+                    .findConstructor(beanClass, MethodType.methodType(void.class))
+                    .asType(FACTORY);
+        } catch (final NoSuchMethodException | IllegalAccessException ignored) {
+            // Beans may be converted to records anyway ...
+            return null;
+        }
+    }
+
+    private static MethodHandle getter(final Class<?> beanClass, final String name, final Class<?> valueClass) {
+        final String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (final String prefix : Arrays.asList("get", "is")) {
+            final Method method = method(beanClass, prefix + suffix, 0);
+            if ((null != method) && valueClass.isAssignableFrom(wrapped(method.getReturnType()))) {
+                return unreflect(method);
+            }
+        }
+        final Field field = field(beanClass, name);
+        if ((null != field) && valueClass.isAssignableFrom(wrapped(field.getType()))) {
+            return unreflectGetter(field);
+        }
+        return null;
+    }
+
+    private static MethodHandle setter(final Class<?> beanClass, final String name, final Class<?> valueClass) {
+        final Method method = method(beanClass, "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1), 1);
+        if ((null != method) && wrapped(method.getParameterTypes()[0]).isAssignableFrom(valueClass)) {
+            return unreflect(method);
+        }
+        final Field field = field(beanClass, name);
+        if ((null != field) && !Modifier.isFinal(field.getModifiers())
+                && wrapped(field.getType()).isAssignableFrom(valueClass)) {
+            return unreflectSetter(field);
+        }
+        return null;
+    }
+
+    private static Method method(final Class<?> beanClass, final String name, final int parameters) {
+        for (final Method method : beanClass.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers())
+                    && name.equals(method.getName())
+                    && (parameters == method.getParameterTypes().length)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static Field field(final Class<?> beanClass, final String name) {
+        for (Class<?> type = beanClass; null != type; type = type.getSuperclass()) {
+            for (final Field field : type.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && name.equals(field.getName())) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static MethodHandle unreflect(final Method method) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method);
+        } catch (final IllegalAccessException caught) {
+            throw new IllegalArgumentException(format(NOT_ACCESSIBLE, method), caught);
+        }
+    }
+
+    private static MethodHandle unreflectGetter(final Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field);
+        } catch (final IllegalAccessException | SecurityException caught) {
+            throw new IllegalArgumentException(format(NOT_ACCESSIBLE, field), caught);
+        }
+    }
+
+    private static MethodHandle unreflectSetter(final Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectSetter(field);
+        } catch (final IllegalAccessException | SecurityException caught) {
+            throw new IllegalArgumentException(format(NOT_ACCESSIBLE, field), caught);
+        }
+    }
+
+    private static Class<?> wrapped(final Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    private static RuntimeException failure(final Throwable caught, final Object target) {
+        if (caught instanceof RuntimeException) {
+            return (RuntimeException) caught;
+        } else if (caught instanceof Error) {
+            throw (Error) caught;
+        } else {
+            return new IllegalStateException(format(FAILED, target), caught);
+        }
+    }
+
+    /**
+     * Supplies the keys bound to a bean property, readable or writable.
+     */
+    public Set<K> keySet() {
+        // Already is immutable ...
+        // noinspection ReturnOfCollectionOrArrayField
+        return keySet;
+    }
+
+    /**
+     * Supplies a new bean containing the values of a given {@code record}.
+     * Bean properties not covered by the {@code record} retain their initial state.
+     *
+     * @throws NullPointerException     if {@code record} is {@code null}.
+     * @throws IllegalArgumentException if the bean class has no accessible constructor without parameters.
+     */
+    public T toBean(final Mapped<K> record) {
+        if (null == factory) {
+            throw new IllegalArgumentException(format(NO_CONSTRUCTOR, beanClass));
+        }
+        final Object result;
+        try {
+            result = factory.invokeExact();
+        } catch (final Throwable caught) {
+            throw failure(caught, beanClass);
+        }
+        return toBean(record, beanClass.cast(result));
+    }
+
+    /**
+     * Copies the values of a given {@code record} to a given {@code bean}. Bean properties not covered by the
+     * {@code record} remain unchanged, as well as primitive bean properties whose value in the {@code record} is
+     * {@code null}.
+     *
+     * @return The {@code bean}.
+     * @throws NullPointerException if {@code record} or {@code bean} is {@code null}.
+     */
+    public T toBean(final Mapped<K> record, final T bean) {
+        final Map<K, Object> values = record.asMap();
+        for (int index = 0; index < writeKeys.length; ++index) {
+            final K key = writeKeys[index];
+            final Object value = values.get(key);
+            // A primitive bean property cannot take null, a missing entry is no null ...
+            if ((null != value) || (!primitive[index] && values.containsKey(key))) {
+                try {
+                    setters[index].invokeExact((Object) bean, value);
+                } catch (final Throwable caught) {
+                    throw failure(caught, key);
+                }
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Copies the values of a given {@code bean} to a given {@code target}, validated as by
+     * {@link Mapped.Mutable#set(Key, Object)}. Bound keys that are not part of the intended key set of the
+     * {@code target} are ignored.
+     *
+     * @return The {@code target}.
+     * @throws NullPointerException if {@code bean} or {@code target} is {@code null} or if a bean property is
+     *                              {@code null} while its key is not {@linkplain Key#isNullable() nullable}.
+     * @throws ClassCastException   if a bean property is not an instance of the value class of its key.
+     */
+    public <B extends Mapped.Mutable<K, B>> B toMapped(final T bean, final B target) {
+        final Map<K, Object> values = target.asMap();
+        for (int index = 0; index < readKeys.length; ++index) {
+            final K key = readKeys[index];
+            if (values.containsKey(key)) {
+                final Object value;
+                try {
+                    value = getters[index].invokeExact((Object) bean);
+                } catch (final Throwable caught) {
+                    throw failure(caught, key);
+                }
+                target.set(key, value);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Supplies new beans containing the values of given {@code records}, in the same order.
+     *
+     * @throws NullPointerException     if {@code records} is or contains {@code null}.
+     * @throws IllegalArgumentException if the bean class has no accessible constructor without parameters.
+     */
+    public List<T> toBeans(final Collection<? extends Mapped<K>> records) {
+        final List<T> result = new ArrayList<>(records.size());
+        for (final Mapped<K> record : records) {
+            result.add(toBean(record));
+        }
+        return result;
+    }
+
+    /**
+     * Supplies new records containing the values of given {@code beans}, in the same order, each
+     * {@linkplain Builder#build() built} by a single given {@code buffer}, which is
+     * {@linkplain EnumMapped.Mapper#reset() reset} and reused for all the {@code beans}. So the resulting records
+     * are of the type the {@code buffer} builds and contain its intended keys.
+     *
+     * @throws NullPointerException if {@code beans} or {@code buffer} is {@code null} or if a bean property is
+     *                              {@code null} while its key is not {@linkplain Key#isNullable() nullable}.
+     * @throws ClassCastException   if a bean property is not an instance of the value class of its key.
+     */
+    public <B extends EnumMapped.Mapper<K, B> & Builder<R>, R> List<R> toMapped(final Collection<? extends T> beans,
+                                                                              final B buffer) {
+        final List<R> result = new ArrayList<>(beans.size());
+        for (final T bean : beans) {
+            result.add(toMapped(bean, buffer.reset()).build());
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return format("BeanBinder(%s, %s)%s", keyClass.getSimpleName(), beanClass.getSimpleName(), keySet);
+    }
+}
@@ -0,0 +1,147 @@
+package net.team33.building.mapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Iterates the combinations of the values of some domains in non-increasing order of their scores, where the score
+ * of a combination is the sum of the {@linkplain Combiner.Weigher weights} of its values.
+ * <p/>
+ * The values of each domain are sorted by their weights once. Beyond that, only a frontier of candidates is kept in
+ * a priority queue: the best combination is taken from the frontier and replaced by its successors. A successor
+ * takes the next worse value in a single domain. To reach any combination exactly once, only the domains
+ * from the one last changed onwards are advanced. So the frontier grows by at most the number of domains per step,
+ * and the first {@code n} results are supplied at a cost of {@code O(n * d * log(n * d))} for {@code d} domains,
+ * independently of the size of the whole product.
+ *
+ * @param <K> The type of the keys identifying the domains.
+ */
+final class BestFirst<K extends Enum<K>> implements Iterator<Map<K, Object>> {
+
+    private final Class<K> keyClass;
+    private final List<K> keys;
+    private final Object[][] values;
+    private final double[][] weights;
+    private final PriorityQueue<Node> frontier;
+    private long sequence = 0;
+
+    /**
+     * Initiates a new instance for some given {@code domains} and {@code weighers}. Values of domains without
+     * weigher weigh {@code 0}.
+     */
+    BestFirst(final Class<K> keyClass, final Map<K, ? extends Iterable<?>> domains,
+              final Map<K, Combiner.Weigher> weighers) {
+        this.keyClass = keyClass;
+        this.keys = new ArrayList<>(domains.keySet());
+        this.values = new Object[keys.size()][];
+        this.weights = new double[keys.size()][];
+        this.frontier = new PriorityQueue<>(11, new Comparator<Node>() {
+            @Override
+            public int compare(final Node left, final Node right) {
+                final int result = Double.compare(right.score, left.score);
+                return (0 == result) ? Long.compare(left.sequence, right.sequence) : result;
+            }
+        });
+        boolean empty = keys.isEmpty();
+        double score = 0;
+        for (int dimension = 0; dimension < keys.size(); ++dimension) {
+            final K key = keys.get(dimension);
+            sort(dimension, domains.get(key), weighers.get(key));
+            if (0 == values[dimension].length) {
+                empty = true;
+            } else {
+                score += weights[dimension][0];
+            }
+        }
+        if (!empty) {
+            frontier.add(new Node(new int[keys.size()], 0, score));
+        }
+    }
+
+    private void sort(final int dimension, final Iterable<?> domain, final Combiner.Weigher weigher) {
+        final List<Weighted> sorted = new ArrayList<>(0);
+        for (final Object value : domain) {
+            sorted.add(new Weighted(value, (null == weigher) ? 0.0 : weigher.weigh(value)));
+        }
+        // Stable, so values of the same weight keep the order of the domain ...
+        Collections.sort(sorted);
+        values[dimension] = new Object[sorted.size()];
+        weights[dimension] = new double[sorted.size()];
+        for (int index = 0; index < sorted.size(); ++index) {
+            values[dimension][index] = sorted.get(index).value;
+            weights[dimension][index] = sorted.get(index).weight;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !frontier.isEmpty();
+    }
+
+    @Override
+    public Map<K, Object> next() {
+        final Node node = frontier.poll();
+        if (null == node) {
+            throw new NoSuchElementException("There is no next element available");
+        }
+        for (int dimension = node.pivot; dimension < keys.size(); ++dimension) {
+            final int index = node.indexes[dimension];
+            if ((index + 1) < values[dimension].length) {
+                final int[] indexes = Arrays.copyOf(node.indexes, node.indexes.length);
+                indexes[dimension] = index + 1;
+                final double score = node.score - weights[dimension][index] + weights[dimension][index + 1];
+                frontier.add(new Node(indexes, dimension, score));
+            }
+        }
+        final Map<K, Object> result = new EnumMap<>(keyClass);
+        for (int dimension = 0; dimension < keys.size(); ++dimension) {
+            result.put(keys.get(dimension), values[dimension][node.indexes[dimension]]);
+        }
+        return result;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Unsupported operation");
+    }
+
+    private static final class Weighted implements Comparable<Weighted> {
+
+        private final Object value;
+        private final double weight;
+
+        private Weighted(final Object value, final double weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+
+        @Override
+        public int compareTo(final Weighted other) {
+            return Double.compare(other.weight, weight);
+        }
+    }
+
+    @SuppressWarnings("NonStaticInnerClassInSecureContext")
+    private final class Node {
+
+        private final int[] indexes;
+        private final int pivot;
+        private final double score;
+        private final long sequence;
+
+        private Node(final int[] indexes, final int pivot, final double score) {
+            this.indexes = indexes;
+            this.pivot = pivot;
+            this.score = score;
+            this.sequence = BestFirst.this.sequence++;
+        }
+    }
+}
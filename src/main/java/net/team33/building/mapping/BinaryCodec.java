@@ -0,0 +1,239 @@
+package net.team33.building.mapping;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Encodes {@link Mapped} instances into a compact binary form and decodes them back, driven by the
+ * {@linkplain Key schema} of their keys.
+ * <p/>
+ * A record consists of
+ * <ul>
+ * <li>the {@linkplain #getFingerprint() fingerprint} of the schema (8 bytes),</li>
+ * <li>a bitmap indicating which keys (by ordinal) are present,</li>
+ * <li>a tagged value for each present key in the order of their ordinals.</li>
+ * </ul>
+ * Integral values are written as variable length integers, strings in UTF-8 and enum values by their ordinal.
+ * <p/>
+ * Supported value classes are the primitive wrappers, {@link String}, any {@link Enum} and {@link java.util.Date}.
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ */
+public class BinaryCodec<K extends Enum<K> & Key> {
+
+    private static final int NULL_TAG = 0;
+    private static final String ILLEGAL_FINGERPRINT = "fingerprint <%016x> does not match schema <%s> (%016x)";
+    private static final String ILLEGAL_TAG = "illegal tag <%d> for key <%s>";
+
+    private final K[] keys;
+    private final ValueType[] types;
+    private final Object[][] constants;
+    private final long fingerprint;
+    private final KeySchema<K> schema;
+
+    /**
+     * Initiates a new instance for a given {@code keyClass}.
+     *
+     * @throws NullPointerException     if {@code keyClass} is {@code null}.
+     * @throws IllegalArgumentException if the value class of a key is not supported.
+     */
+    public BinaryCodec(final Class<K> keyClass) {
+        keys = keyClass.getEnumConstants();
+        types = new ValueType[keys.length];
+        constants = new Object[keys.length][];
+        for (final K key : keys) {
+            types[key.ordinal()] = ValueType.of(key);
+            constants[key.ordinal()] = ValueType.constants(key);
+        }
+        fingerprint = fingerprint(keys);
+        schema = KeySchema.of(keyClass);
+    }
+
+    /**
+     * Determines the fingerprint of the schema represented by the given {@code keys}, depending on their names
+     * and order.
+     */
+    static long fingerprint(final Enum<?>[] keys) {
+        long result = Hash64.SEED;
+        for (final Enum<?> key : keys) {
+            result = Hash64.of(Hash64.of(result, key.name()), 0);
+        }
+        return result;
+    }
+
+    /**
+     * Supplies the fingerprint of the schema. An encoded record can only be decoded by a codec having the same
+     * fingerprint.
+     */
+    public final long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Determines the number of bytes needed to {@linkplain #encode(Mapped, ByteBuffer) encode} a given
+     * {@code origin}.
+     *
+     * @throws NullPointerException if {@code origin} is {@code null}.
+     */
+    public final int sizeOf(final Mapped<K> origin) {
+        return sizeOf(origin.asMap());
+    }
+
+    final int sizeOf(final Map<K, ?> map) {
+        int result = minSize();
+        for (final K key : keys) {
+            if (isStored(map, key)) {
+                final Object value = map.get(key);
+                result += 1;
+                if (null != value) {
+                    result += types[key.ordinal()].sizeOf(value);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Supplies the size of the smallest possible record: the fingerprint and the bitmap of an empty record.
+     */
+    final int minSize() {
+        return 8 + bitmapLength();
+    }
+
+    private int bitmapLength() {
+        return (keys.length + 7) / 8;
+    }
+
+    /**
+     * Encodes a given {@code origin} into a given {@code target}, starting at its current position.
+     * The position is advanced accordingly.
+     *
+     * @return The {@code target}.
+     * @throws NullPointerException            if {@code origin} or {@code target} is {@code null}.
+     * @throws java.nio.BufferOverflowException if the {@code target} has not enough space remaining,
+     *                                         see {@link #sizeOf(Mapped)}.
+     */
+    public final ByteBuffer encode(final Mapped<K> origin, final ByteBuffer target) {
+        return encode(origin.asMap(), target);
+    }
+
+    final ByteBuffer encode(final Map<K, ?> map, final ByteBuffer target) {
+        target.putLong(fingerprint);
+        int bits = 0;
+        for (final K key : keys) {
+            if (isStored(map, key)) {
+                bits |= 1 << (key.ordinal() & 7);
+            }
+            if (7 == (key.ordinal() & 7)) {
+                target.put((byte) bits);
+                bits = 0;
+            }
+        }
+        if (0 != (keys.length & 7)) {
+            target.put((byte) bits);
+        }
+        for (final K key : keys) {
+            if (isStored(map, key)) {
+                final Object value = map.get(key);
+                if (null == value) {
+                    target.put((byte) NULL_TAG);
+                } else {
+                    final ValueType type = types[key.ordinal()];
+                    target.put((byte) (type.ordinal() + 1));
+                    type.write(target, value);
+                }
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Indicates weather or not the value of a given {@code key} is to be stored, which is the case if it is
+     * present in the given {@code map} and not {@linkplain Key.Derivable derived} (derived values are derived anew
+     * when needed).
+     */
+    private boolean isStored(final Map<K, ?> map, final K key) {
+        return map.containsKey(key) && !schema.isDerived(key);
+    }
+
+    /**
+     * Decodes a record from a given {@code source}, starting at its current position, directly into a given
+     * {@code target}. The position is advanced accordingly.
+     * <p/>
+     * Values associated with keys not present in the record will remain as is. Values of
+     * {@linkplain Key.Derivable derived} keys (not written by this codec) are ignored.
+     *
+     * @return The {@code target}.
+     * @throws NullPointerException              if {@code source} or {@code target} is {@code null} or the
+     *                                           record contains {@code null} for a key that is not
+     *                                           {@linkplain Key#isNullable() nullable}.
+     * @throws IllegalArgumentException          if the record does not match the schema or
+     *                                           contains a key that is not part of the {@code target}.
+     * @throws java.nio.BufferUnderflowException if the record is truncated.
+     */
+    public final <B extends Mapped.Mutable<K, B>> B decode(final ByteBuffer source, final B target) {
+        final int start = bitmap(source);
+        for (final K key : keys) {
+            if (isPresent(source, start, key)) {
+                final Object value = read(source, key);
+                if (!schema.isDerived(key)) {
+                    target.set(key, value);
+                }
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Decodes a record like {@link #decode(ByteBuffer, Mapped.Mutable)} but directly into a plain {@code target}
+     * map, e.g. one backing an immutable instance. The values are validated anyway, according to the
+     * {@linkplain Validation#getDefault(Class) policy} of the schema.
+     */
+    final Map<K, Object> decode(final ByteBuffer source, final Map<K, Object> target) {
+        final int start = bitmap(source);
+        final Validation validation = schema.validation();
+        for (final K key : keys) {
+            if (isPresent(source, start, key)) {
+                final Object value = read(source, key);
+                if (!schema.isDerived(key)) {
+                    target.put(key, Mapped.valid(validation, key, value));
+                }
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Checks the fingerprint, skips the bitmap and supplies its start index.
+     */
+    private int bitmap(final ByteBuffer source) {
+        final long actual = source.getLong();
+        if (fingerprint != actual) {
+            throw new IllegalArgumentException(format(ILLEGAL_FINGERPRINT, actual,
+                                                      keys[0].getDeclaringClass().getName(), fingerprint));
+        }
+        final int result = source.position();
+        ((Buffer) source).position(result + bitmapLength());
+        return result;
+    }
+
+    private static boolean isPresent(final ByteBuffer source, final int start, final Enum<?> key) {
+        final int ordinal = key.ordinal();
+        return 0 != (source.get(start + (ordinal >>> 3)) & (1 << (ordinal & 7)));
+    }
+
+    private Object read(final ByteBuffer source, final K key) {
+        final int tag = source.get() & 0xFF;
+        final ValueType type = types[key.ordinal()];
+        if (NULL_TAG == tag) {
+            return null;
+        } else if ((type.ordinal() + 1) == tag) {
+            return type.read(source, constants[key.ordinal()]);
+        } else {
+            throw new IllegalArgumentException(format(ILLEGAL_TAG, tag, key));
+        }
+    }
+}
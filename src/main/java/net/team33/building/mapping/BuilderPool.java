@@ -0,0 +1,130 @@
+package net.team33.building.mapping;
+
+import net.team33.building.Builder;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A pool of reusable {@linkplain EnumMapped.Mapper builders} of a specific type, intended to avoid the allocation
+ * of a new builder (and its underlying map) per record in hot loops.
+ * <p/>
+ * Builders are handed out as {@linkplain Lease leases}, which should be used in a try-with-resources statement:
+ * <pre>
+ * try (final BuilderPool.Lease&lt;MyData.Builder&gt; lease = POOL.acquire()) {
+ *     return lease.get().setName(name).build();
+ * }
+ * </pre>
+ * Any thread has its own set of idle builders, so acquiring and releasing a builder needs no synchronization.
+ * A builder is {@linkplain EnumMapped.Mapper#reset() reset} when released. If it turns out to be modified again
+ * when acquired the next time (e.g. because a reference to it was kept beyond its lease), it is reset once more, so
+ * a reused builder never passes on any former state. An instance built from a builder does not share any state with
+ * the builder anyway.
+ *
+ * @param <B> The type of the pooled builders.
+ */
+public final class BuilderPool<B extends EnumMapped.Mapper<?, B>> {
+
+    /**
+     * The number of idle builders kept per thread by default.
+     */
+    public static final int DEFAULT_CAPACITY = 4;
+
+    private static final String NOT_LEASED = "builder is not leased (released twice?)";
+
+    private final Builder<? extends B> factory;
+    private final int capacity;
+    private final ThreadLocal<Deque<B>> idle = new ThreadLocal<Deque<B>>() {
+        @Override
+        protected Deque<B> initialValue() {
+            return new ArrayDeque<>(capacity);
+        }
+    };
+
+    /**
+     * Initiates a new pool using a given {@code factory} to create new builders if necessary.
+     */
+    public BuilderPool(final Builder<? extends B> factory) {
+        this(factory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Initiates a new pool using a given {@code factory} to create new builders if necessary, keeping up to
+     * {@code capacity} idle builders per thread.
+     */
+    public BuilderPool(final Builder<? extends B> factory, final int capacity) {
+        this.factory = factory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Hands out a builder in its initial state, either an idle one of the current thread or a new one, by a new
+     * lease.
+     */
+    public Lease<B> acquire() {
+        final B builder = idle.get().pollFirst();
+        if (null == builder) {
+            return new Lease<>(this, factory.build());
+        } else {
+            if (builder.isModified()) {
+                builder.reset();
+            }
+            return new Lease<>(this, builder);
+        }
+    }
+
+    private void release(final B builder) {
+        builder.reset();
+        final Deque<B> deque = idle.get();
+        if (deque.size() < capacity) {
+            deque.addFirst(builder);
+        }
+    }
+
+    /**
+     * Grants the use of a pooled builder until it is {@linkplain #close() closed}. A lease is never reused, so a
+     * closed lease keeps failing even if its builder is leased again.
+     *
+     * @param <B> The type of the pooled builder.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    public static final class Lease<B extends EnumMapped.Mapper<?, B>> implements AutoCloseable {
+
+        private final BuilderPool<B> pool;
+        private final B builder;
+        private boolean leased = true;
+
+        private Lease(final BuilderPool<B> pool, final B builder) {
+            this.pool = pool;
+            this.builder = builder;
+        }
+
+        /**
+         * Supplies the leased builder.
+         *
+         * @throws IllegalStateException if this lease is already closed.
+         */
+        public B get() {
+            if (leased) {
+                return builder;
+            } else {
+                throw new IllegalStateException(NOT_LEASED);
+            }
+        }
+
+        /**
+         * Returns the builder to the pool. The builder must not be used any longer.
+         *
+         * @throws IllegalStateException if this lease is already closed.
+         */
+        @Override
+        public void close() {
+            if (leased) {
+                leased = false;
+                pool.release(builder);
+            } else {
+                throw new IllegalStateException(NOT_LEASED);
+            }
+        }
+    }
+}
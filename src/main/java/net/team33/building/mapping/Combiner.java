@@ -3,11 +3,18 @@ package net.team33.building.mapping;
 import net.team33.building.Branchable;
 import net.team33.building.Builder;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
+import static java.lang.String.format;
+
 @SuppressWarnings("ReturnOfThis")
 public class Combiner<
         K extends Enum<K> & Key,
@@ -16,16 +23,150 @@ public class Combiner<
         C extends Combiner<K, B, R, C>>
         implements Iterable<R> {
 
-    private final EnumMap<K, Set<?>> backing;
+    private static final String NEGATIVE_BUDGET = "memory budget must not be negative but was %d";
+    private static final String SIZE_OVERFLOW = "the number of combinations exceeds %d";
+    private static final int SHARED_LIMIT = 1024;
+    private static final String NOT_WEIGHABLE = "best-first iteration does not support dependent values (keys %s)";
+
+    private final Class<K> keyClass;
+    private final EnumMap<K, Domain> backing;
+    private final EnumMap<K, Weigher> weighers;
+    private final EnumMap<K, Dependent<K>> dependents;
     private final R template;
+    private long memoryBudget = -1;
+    private Progress.Listener listener = null;
 
     public Combiner(final Class<K> keyClass, final R template) {
+        this.keyClass = keyClass;
         this.backing = new EnumMap<>(keyClass);
+        this.weighers = new EnumMap<>(keyClass);
+        this.dependents = new EnumMap<>(keyClass);
         this.template = template;
     }
 
     public final C set(final K key, final Builder<? extends Set<?>> builder) {
-        backing.put(key, builder.build());
+        weighers.remove(key);
+        dependents.remove(key);
+        backing.put(key, new Flat(builder.build()));
+        // <this> must be an instance of <C> ...
+        // noinspection unchecked
+        return (C) this;
+    }
+
+    /**
+     * Sets the results of an {@code inner} combiner as the values for a specific {@code key}.
+     * <p/>
+     * The inner results are not materialized in advance but expanded lazily during the outer iteration. If the
+     * inner combiner supplies up to 1024 results, they are kept for the rest of a single outer
+     * iteration, so that each inner result is built only once and shared by all the outer results that contain it.
+     * Otherwise no inner result is kept and the inner combiner is iterated anew whenever the outer iteration wraps
+     * around its values, so the memory needed does not depend on the size of the inner combiner, at the cost of
+     * building equal inner results repeatedly. The {@code inner} combiner is evaluated anew by each outer
+     * iteration, so it should not be modified while being in use.
+     */
+    public final C set(final K key, final Combiner<?, ?, ?, ?> inner) {
+        weighers.remove(key);
+        dependents.remove(key);
+        backing.put(key, new Nested(inner));
+        // <this> must be an instance of <C> ...
+        // noinspection unchecked
+        return (C) this;
+    }
+
+    /**
+     * Sets values for a specific {@code key} that depend on the values chosen for other keys, its
+     * {@linkplain Dependent#getInputs() inputs}. An iteration then supplies consistent combinations only.
+     * <p/>
+     * The keys are ordered by their dependencies when iterated, so that the inputs of a key are bound before
+     * the key itself. The values are determined lazily and only once per iteration for each distinct binding of the
+     * inputs.
+     * <p/>
+     * The inputs must be set as well when iterating, and the dependencies must not be cyclic, otherwise the
+     * iteration fails with an {@link IllegalStateException}.
+     */
+    public final C set(final K key, final Dependent<K> dependent) {
+        weighers.remove(key);
+        backing.remove(key);
+        dependents.put(key, dependent);
+        // <this> must be an instance of <C> ...
+        // noinspection unchecked
+        return (C) this;
+    }
+
+    /**
+     * Sets the values for a specific {@code key} along with a {@code weigher} that determines their weights for a
+     * {@linkplain #bestFirst() best-first} iteration.
+     */
+    public final C set(final K key, final Builder<? extends Set<?>> builder, final Weigher weigher) {
+        set(key, builder);
+        weighers.put(key, weigher);
+        // <this> must be an instance of <C> ...
+        // noinspection unchecked
+        return (C) this;
+    }
+
+    /**
+     * Supplies the number of combinations: the product of the numbers of values per key, where the number of values
+     * of a {@linkplain #set(Enum, Combiner) nested} combiner is its own size. Does not take
+     * {@linkplain #distinct(long) deduplication} into account, so it is an upper bound of the number of results.
+     * <p/>
+     * If there are {@linkplain #set(Enum, Dependent) dependent} values, the consistent combinations are counted by
+     * traversing them (without building any result), which may take a while.
+     *
+     * @throws ArithmeticException   if the number exceeds {@link Long#MAX_VALUE}.
+     * @throws IllegalStateException if there are inconsistent dependencies.
+     */
+    public final long size() {
+        if (!dependents.isEmpty()) {
+            final Map<K, Long> sizes = new EnumMap<>(keyClass);
+            for (final Map.Entry<K, Domain> entry : backing.entrySet()) {
+                sizes.put(entry.getKey(), entry.getValue().size());
+            }
+            return DependentIterator.count(keyClass, domains(), sizes, dependents);
+        }
+        long result = backing.isEmpty() ? 0 : 1;
+        for (final Domain domain : backing.values()) {
+            final long size = domain.size();
+            if ((0 < size) && ((Long.MAX_VALUE / size) < result)) {
+                throw new ArithmeticException(format(SIZE_OVERFLOW, Long.MAX_VALUE));
+            }
+            result *= size;
+        }
+        return result;
+    }
+
+    /**
+     * Causes the iteration to skip any result that equals a result supplied before, detected within a given
+     * {@code memoryBudget} in bytes: exactly as long as the (estimated) memory needed to keep the results supplied so
+     * far fits the budget, approximately by a Bloom filter of the size of the budget beyond that. In approximate
+     * mode, a new result may be skipped as a supposed duplicate with a probability that depends on the budget and the
+     * number of results, see {@link Distinct}.
+     *
+     * @throws IllegalArgumentException if {@code memoryBudget} is negative.
+     */
+    public final C distinct(final long memoryBudget) {
+        if (0 > memoryBudget) {
+            throw new IllegalArgumentException(format(NEGATIVE_BUDGET, memoryBudget));
+        }
+        this.memoryBudget = memoryBudget;
+        // <this> must be an instance of <C> ...
+        // noinspection unchecked
+        return (C) this;
+    }
+
+    /**
+     * Sets a {@code listener} to be notified about the {@link Progress} of subsequent iterations, or removes it if
+     * {@code null}. The steps of an iteration are the results supplied, so the size of a run is the
+     * {@linkplain #size() number of combinations} (unknown if there are {@linkplain #set(Enum, Dependent) dependent}
+     * values), the build latency is the time taken to supply a result from the start of looking for it, including
+     * any candidates built and skipped as duplicates if {@linkplain #distinct(long) distinct}, and a failure is an
+     * exception thrown while doing so.
+     * <p/>
+     * Without a listener, iterations are tracked only if {@linkplain Progress#isRecording() recorded} by the Flight
+     * Recorder.
+     */
+    public final C progress(final Progress.Listener listener) {
+        this.listener = listener;
         // <this> must be an instance of <C> ...
         // noinspection unchecked
         return (C) this;
@@ -33,13 +174,191 @@ public class Combiner<
 
     @Override
     public final Iterator<R> iterator() {
-        return new Converter();
+        return tracked(distinct(new Converter(dependents.isEmpty()
+                                                      ? new CombIterator<>(domains())
+                                                      : new DependentIterator<>(keyClass, domains(), dependents))));
+    }
+
+    /**
+     * Supplies the combinations in non-increasing order of their scores, where the score of a combination is the sum
+     * of the weights of its values, determined by the {@link Weigher}s {@linkplain #set(Enum, Builder, Weigher)
+     * set} along with the values. Values set without a weigher weigh {@code 0}.
+     * <p/>
+     * The combinations are produced lazily from a frontier of candidates, without producing the whole product, so
+     * e.g. the top {@code n} combinations of a huge space may be retrieved by breaking off the iteration after
+     * {@code n} results. The order of combinations of the same score is not specified. The values of each key,
+     * including the results of a {@linkplain #set(Enum, Combiner) nested} combiner, are materialized once per
+     * iteration to be sorted by their weights.
+     *
+     * @throws IllegalStateException if there are {@linkplain #set(Enum, Dependent) dependent} values.
+     */
+    public final Iterable<R> bestFirst() {
+        if (!dependents.isEmpty()) {
+            throw new IllegalStateException(format(NOT_WEIGHABLE, dependents.keySet()));
+        }
+        return new Iterable<R>() {
+            @Override
+            public Iterator<R> iterator() {
+                return tracked(distinct(new Converter(new BestFirst<>(keyClass, domains(), weighers))));
+            }
+        };
+    }
+
+    private Iterator<R> distinct(final Iterator<R> converter) {
+        return (0 > memoryBudget) ? converter : new Deduplicator(converter, combinations());
+    }
+
+    private Iterator<R> tracked(final Iterator<R> inner) {
+        if (Progress.isTracked(listener)) {
+            final long size = dependents.isEmpty() ? combinations() : -1;
+            return new Tracker<>(inner, Progress.start(keyClass.getSimpleName(), size, Progress.DEFAULT_BATCH,
+                                                     listener));
+        } else {
+            return inner;
+        }
+    }
+
+    private long combinations() {
+        try {
+            return size();
+        } catch (final ArithmeticException ignored) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Supplies the values per key for a single iteration.
+     */
+    private Map<K, Iterable<?>> domains() {
+        final Map<K, Iterable<?>> result = new EnumMap<>(keyClass);
+        for (final Map.Entry<K, Domain> entry : backing.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().values());
+        }
+        return result;
+    }
+
+    /**
+     * The values for a key.
+     */
+    private interface Domain {
+
+        long size();
+
+        /**
+         * Supplies the values for a single iteration, which may iterate them several times.
+         */
+        Iterable<?> values();
+    }
+
+    private static final class Flat implements Domain {
+
+        private final Set<?> values;
+
+        private Flat(final Set<?> values) {
+            this.values = values;
+        }
+
+        @Override
+        public long size() {
+            return values.size();
+        }
+
+        @Override
+        public Iterable<?> values() {
+            // Already is immutable (as far as intended) ...
+            // noinspection ReturnOfCollectionOrArrayField
+            return values;
+        }
+    }
+
+    private static final class Nested implements Domain {
+
+        private final Combiner<?, ?, ?, ?> inner;
+
+        private Nested(final Combiner<?, ?, ?, ?> inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public long size() {
+            return inner.size();
+        }
+
+        @Override
+        public Iterable<?> values() {
+            return new Shared(inner);
+        }
+    }
+
+    /**
+     * Iterates the results of an origin lazily. As long as the origin supplies no more than {@value #SHARED_LIMIT}
+     * results, they are kept by the first iteration, so that subsequent iterations share them. Beyond that, no
+     * result is kept and any iteration iterates the origin anew.
+     */
+    private static final class Shared implements Iterable<Object> {
+
+        private final Iterable<?> origin;
+        private List<Object> results = new ArrayList<>(0);
+        private boolean complete = false;
+        private boolean filling = false;
+
+        private Shared(final Iterable<?> origin) {
+            this.origin = origin;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            if (complete) {
+                // Not modified any longer ...
+                // noinspection ReturnOfCollectionOrArrayField
+                return Collections.unmodifiableList(results).iterator();
+            }
+            final Iterator<?> source = origin.iterator();
+            final boolean isFilling = (null != results) && !filling;
+            filling = filling || isFilling;
+            return new Iterator<Object>() {
+                private boolean keeping = isFilling;
+
+                @Override
+                public boolean hasNext() {
+                    final boolean result = source.hasNext();
+                    if (keeping && !result) {
+                        keeping = false;
+                        complete = true;
+                    }
+                    return result;
+                }
+
+                @Override
+                public Object next() {
+                    final Object result = source.next();
+                    if (keeping) {
+                        if (results.size() < SHARED_LIMIT) {
+                            results.add(result);
+                        } else {
+                            keeping = false;
+                            results = null;
+                        }
+                    }
+                    return result;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("Unsupported operation");
+                }
+            };
+        }
     }
 
     @SuppressWarnings("NonStaticInnerClassInSecureContext")
     private class Converter implements Iterator<R> {
 
-        private final Iterator<Map<K, Object>> inner = new CombIterator<>(backing);
+        private final Iterator<Map<K, Object>> inner;
+
+        private Converter(final Iterator<Map<K, Object>> inner) {
+            this.inner = inner;
+        }
 
         @Override
         public final boolean hasNext() {
@@ -56,4 +375,140 @@ public class Combiner<
             inner.remove(); // --> UnsupportedOperationException (OK)
         }
     }
+
+    @SuppressWarnings("NonStaticInnerClassInSecureContext")
+    private class Deduplicator implements Iterator<R> {
+
+        private final Iterator<R> inner;
+        private final Distinct<R> distinct;
+        private R next = null;
+
+        private Deduplicator(final Iterator<R> inner, final long expected) {
+            this.inner = inner;
+            this.distinct = new Distinct<>(memoryBudget, expected);
+        }
+
+        @Override
+        public final boolean hasNext() {
+            while ((null == next) && inner.hasNext()) {
+                final R candidate = inner.next();
+                if (distinct.add(candidate)) {
+                    next = candidate;
+                } else if (Metrics.ENABLED) {
+                    Metrics.count(candidate.asMap().keySet(), Metrics.Counter.DUPLICATES);
+                }
+            }
+            return null != next;
+        }
+
+        @Override
+        public final R next() {
+            if (hasNext()) {
+                final R result = next;
+                next = null;
+                return result;
+            } else {
+                throw new NoSuchElementException("There is no next element available");
+            }
+        }
+
+        @Override
+        public final void remove() {
+            inner.remove(); // --> UnsupportedOperationException (OK)
+        }
+    }
+
+    /**
+     * Tracks the time from the start of looking for a result (by {@link #hasNext()}, which e.g. builds and
+     * deduplicates candidates if {@linkplain #distinct(long) distinct}) to the end of supplying it by {@link #next()}.
+     */
+    private static final class Tracker<R> implements Iterator<R> {
+
+        private final Iterator<R> inner;
+        private final Progress progress;
+        private long start = 0;
+        private boolean timing = false;
+
+        private Tracker(final Iterator<R> inner, final Progress progress) {
+            this.inner = inner;
+            this.progress = progress;
+        }
+
+        private void started() {
+            if (!timing) {
+                start = System.nanoTime();
+                timing = true;
+            }
+        }
+
+        @Override
+        public final boolean hasNext() {
+            started();
+            try {
+                final boolean result = inner.hasNext();
+                if (!result) {
+                    progress.finish();
+                }
+                return result;
+            } catch (final RuntimeException caught) {
+                timing = false;
+                progress.fail(caught);
+                throw caught;
+            }
+        }
+
+        @Override
+        public final R next() {
+            started();
+            try {
+                final R result = inner.next();
+                progress.step(System.nanoTime() - start);
+                return result;
+            } catch (final NoSuchElementException caught) {
+                throw caught;
+            } catch (final RuntimeException caught) {
+                progress.fail(caught);
+                throw caught;
+            } finally {
+                timing = false;
+            }
+        }
+
+        @Override
+        public final void remove() {
+            inner.remove(); // --> UnsupportedOperationException (OK)
+        }
+    }
+
+    /**
+     * Determines the values for a key depending on the values chosen for other keys, see
+     * {@link #set(Enum, Dependent)}.
+     *
+     * @param <K> The type of the keys.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    public interface Dependent<K> {
+
+        /**
+         * Supplies the keys whose values are needed to determine the values.
+         */
+        Collection<? extends K> getInputs();
+
+        /**
+         * Supplies the values for given values of the {@linkplain #getInputs() inputs}.
+         */
+        Collection<?> getValues(Map<K, Object> inputs);
+    }
+
+    /**
+     * Determines the weight of a value, see {@link #bestFirst()}. Must not supply {@link Double#NaN}.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    public interface Weigher {
+
+        /**
+         * Supplies the weight of a given {@code value}.
+         */
+        double weigh(Object value);
+    }
 }
@@ -0,0 +1,237 @@
+package net.team33.building.mapping;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.EnumSet.allOf;
+
+/**
+ * A thread-safe mutable {@link Mapped} whose values are held in an {@link AtomicReferenceArray} indexed by the
+ * ordinals of the keys. Intended as shared state where many threads update (different) properties without locks.
+ * <p/>
+ * Single values are {@linkplain #set(Key, Object) set}, {@linkplain #compareAndSet(Enum, Object, Object) compared
+ * and set} or {@linkplain #updateAndGet(Enum, Update) updated} atomically, always validated by
+ * {@link Mapped#valid(Key, Object)}. Bulk operations like {@link #set(Map)} set their values one by one, they are not
+ * atomic as a whole.
+ * <p/>
+ * A {@linkplain #snapshot() snapshot} is consistent: it never reflects only a part of the values written by
+ * concurrent single value operations.
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ */
+public class ConcurrentMapped<K extends Enum<K> & Key> extends Mapped.Mutable<K, ConcurrentMapped<K>> {
+
+    private static final String ILLEGAL_KEY = "illegal key: %s";
+    private static final int SPINS = 64;
+
+    private final Class<K> keyClass;
+    private final Set<K> keySet;
+    private final AtomicReferenceArray<Object> values;
+    // Striped by thread, so that concurrent writers do not contend on the bookkeeping for snapshots ...
+    private final StripedCounter writers = new StripedCounter();
+    private final StripedCounter version = new StripedCounter();
+    private final Map<K, Object> map;
+
+    /**
+     * Initiates a new instance by a given {@code keyClass} that will contain any possible key,
+     * associated with their {@linkplain Key#getInitial() default values}.
+     *
+     * @throws NullPointerException if {@code keyClass} is {@code null}.
+     */
+    public ConcurrentMapped(final Class<K> keyClass) {
+        this(keyClass, allOf(keyClass));
+    }
+
+    /**
+     * Initiates a new instance by a given {@code keySet}, associated with their
+     * {@linkplain Key#getInitial() default values}.
+     *
+     * @throws NullPointerException     if {@code keySet} is or contains {@code null}.
+     * @throws IllegalArgumentException if {@code keySet} is empty.
+     */
+    public ConcurrentMapped(final Collection<K> keySet) {
+        this(keySet.iterator().next().getDeclaringClass(), keySet);
+    }
+
+    private ConcurrentMapped(final Class<K> keyClass, final Collection<K> keys) {
+        final K[] universe = keyClass.getEnumConstants();
+        final boolean[] contained = new boolean[universe.length];
+        this.keyClass = keyClass;
+        this.keySet = unmodifiableSet(KeySchema.of(keyClass).base(keys));
+        this.values = new AtomicReferenceArray<>(universe.length);
+        for (final K key : keySet) {
+            contained[key.ordinal()] = true;
+            values.set(key.ordinal(), valid(key, KeySchema.initial(key)));
+        }
+        this.map = new ConcurrentView(keySet.toArray(Arrays.copyOf(universe, 0)), contained);
+        if (Metrics.ENABLED) {
+            Metrics.count(keyClass, Metrics.Counter.BUILDERS);
+        }
+    }
+
+    @Override
+    protected final Set<K> keySet() {
+        // Already is immutable ...
+        // noinspection ReturnOfCollectionOrArrayField
+        return keySet;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Supplies a thread-safe view that reflects the current values and supports {@link Map#put(Object, Object)}
+     * for the keys of the {@linkplain #keySet() intended key set} only. Iterations are weakly consistent.
+     */
+    @Override
+    public final Map<K, Object> asMap() {
+        // Intended to be modifiable ...
+        // noinspection ReturnOfCollectionOrArrayField
+        return map;
+    }
+
+    private int index(final K key) {
+        if (keySet.contains(key)) {
+            return key.ordinal();
+        } else {
+            throw new IllegalArgumentException(format(ILLEGAL_KEY, key));
+        }
+    }
+
+    /**
+     * Atomically sets the value for a specific {@code key} to a given {@code update}, if the current value
+     * {@linkplain Object#equals(Object) equals} an {@code expected} value.
+     *
+     * @return {@code true} if successful.
+     * @throws NullPointerException     if {@code update} is {@code null} and {@code key} is not
+     *                                  {@linkplain Key#isNullable() nullable}.
+     * @throws ClassCastException       if {@code update} is not an instance of the value class of {@code key}.
+     * @throws IllegalArgumentException if {@code key} is not part of the {@linkplain #keySet() intended key set}.
+     */
+    public final boolean compareAndSet(final K key, final Object expected, final Object update) {
+        final int index = index(key);
+        final Object valid = valid(key, update);
+        while (true) {
+            final Object current = values.get(index);
+            if (!equal(expected, current)) {
+                return false;
+            } else if (write(index, current, valid)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically updates the value for a specific {@code key} by a given {@code update} function, which may be
+     * applied several times under contention and therefore should be free of side effects.
+     *
+     * @return The updated value.
+     * @throws NullPointerException     if the function results in {@code null} and {@code key} is not
+     *                                  {@linkplain Key#isNullable() nullable}.
+     * @throws ClassCastException       if the function results in a value that is not an instance of the value
+     *                                  class of {@code key}, or if {@code T} does not match that value class.
+     * @throws IllegalArgumentException if {@code key} is not part of the {@linkplain #keySet() intended key set}.
+     */
+    public final <T> T updateAndGet(final K key, final Update<T> update) {
+        final int index = index(key);
+        while (true) {
+            final Object current = values.get(index);
+            // The caller is responsible for <T> matching the value class of <key> ...
+            // noinspection unchecked
+            final Object result = valid(key, update.apply((T) current));
+            if (write(index, current, result)) {
+                // <result> is the validated result of <update> ...
+                // noinspection unchecked
+                return (T) result;
+            }
+        }
+    }
+
+    private boolean write(final int index, final Object expected, final Object update) {
+        writers.add(1);
+        try {
+            return values.compareAndSet(index, expected, update);
+        } finally {
+            version.add(1);
+            writers.add(-1);
+        }
+    }
+
+    private Object exchange(final int index, final Object update) {
+        writers.add(1);
+        try {
+            return values.getAndSet(index, update);
+        } finally {
+            version.add(1);
+            writers.add(-1);
+        }
+    }
+
+    private static boolean equal(final Object expected, final Object current) {
+        return (null == expected) ? (null == current) : expected.equals(current);
+    }
+
+    /**
+     * Supplies a consistent, immutable copy of the current values.
+     * <p/>
+     * Does not block any writer, but retries while writes are in progress, so it may take a while under heavy
+     * contention.
+     */
+    public final EnumMapped<K> snapshot() {
+        final EnumMap<K, Object> result = new EnumMap<>(keyClass);
+        // Any writer increments <writers> before and <version> after writing (in its own stripe), so values read
+        // while no writer was active and no write was completed in between are consistent ...
+        for (int attempt = 1; ; ++attempt) {
+            final long before = version.sum();
+            if (0 == writers.sum()) {
+                for (final K key : keySet) {
+                    result.put(key, values.get(key.ordinal()));
+                }
+                if ((0 == writers.sum()) && (before == version.sum())) {
+                    return new EnumMapped<>(result);
+                }
+            }
+            if (0 == (attempt % SPINS)) {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Represents a function to update a single value, see {@link #updateAndGet(Enum, Update)}.
+     *
+     * @param <T> The value class of the updated property.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    public interface Update<T> {
+
+        /**
+         * Supplies the updated value for a given {@code current} value.
+         */
+        T apply(T current);
+    }
+
+    @SuppressWarnings("NonStaticInnerClassInSecureContext")
+    private class ConcurrentView extends EnumView<K> {
+
+        private ConcurrentView(final K[] keys, final boolean[] contained) {
+            super(keys, contained);
+        }
+
+        @Override
+        final Object value(final K key) {
+            return values.get(key.ordinal());
+        }
+
+        @Override
+        public final Object put(final K key, final Object value) {
+            final int index = index(key);
+            return exchange(index, valid(key, value));
+        }
+    }
+}
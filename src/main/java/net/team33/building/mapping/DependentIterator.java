@@ -0,0 +1,240 @@
+package net.team33.building.mapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static java.lang.String.format;
+
+/**
+ * Iterates the consistent combinations of values for some keys, where the values of a key may
+ * {@linkplain Combiner.Dependent depend} on the values chosen for other keys.
+ * <p/>
+ * The keys are ordered so that any key follows its inputs (and otherwise by their ordinals). The combinations are
+ * enumerated depth-first, the last key varying fastest, so a dependent domain is evaluated only for bindings of its
+ * inputs that actually occur. Within an iteration, a dependent domain is evaluated only once per distinct binding of
+ * its inputs, the result is cached.
+ *
+ * @param <K> The type of the keys.
+ */
+final class DependentIterator<K extends Enum<K>> implements Iterator<Map<K, Object>> {
+
+    private static final String UNDEFINED_INPUT = "input <%s> of key <%s> has no values";
+    private static final String CYCLE = "cyclic dependencies between keys %s";
+    private static final String OVERFLOW = "the number of combinations exceeds %d";
+
+    private final Class<K> keyClass;
+    private final Level<K>[] levels;
+    private final Iterator<?>[] iterators;
+    private final Object[] bound;
+    private boolean available;
+
+    /**
+     * Initiates a new instance for some {@code fixed} domains (each to be iterated several times) and some
+     * {@code dependent} domains.
+     *
+     * @throws IllegalStateException if an input of a dependent domain is undefined or if the dependencies are cyclic.
+     */
+    DependentIterator(final Class<K> keyClass, final Map<K, ? extends Iterable<?>> fixed,
+                      final Map<K, ? extends Combiner.Dependent<K>> dependent) {
+        this.keyClass = keyClass;
+        this.levels = levels(keyClass, fixed, dependent);
+        this.iterators = new Iterator<?>[levels.length];
+        this.bound = new Object[keyClass.getEnumConstants().length];
+        if (0 < levels.length) {
+            iterators[0] = domain(0).iterator();
+            available = fill(0);
+        } else {
+            available = false;
+        }
+    }
+
+    /**
+     * Counts the consistent combinations without building them. Trailing keys of fixed domains are counted by
+     * multiplying their given {@code sizes}, without iterating them.
+     *
+     * @throws IllegalStateException if an input of a dependent domain is undefined or if the dependencies are cyclic.
+     * @throws ArithmeticException   if the number exceeds {@link Long#MAX_VALUE}.
+     */
+    static <K extends Enum<K>> long count(final Class<K> keyClass, final Map<K, ? extends Iterable<?>> fixed,
+                                          final Map<K, Long> sizes,
+                                          final Map<K, ? extends Combiner.Dependent<K>> dependent) {
+        final DependentIterator<K> counter = new DependentIterator<>(keyClass, fixed, dependent);
+        return (0 == counter.levels.length) ? 0 : counter.count(0, sizes);
+    }
+
+    private long count(final int level, final Map<K, Long> sizes) {
+        if (level == levels.length) {
+            return 1;
+        }
+        if (levels[level].isFixedFromHere) {
+            long result = 1;
+            for (int index = level; index < levels.length; ++index) {
+                result = multiplied(result, sizes.get(levels[index].key));
+            }
+            return result;
+        }
+        long result = 0;
+        for (final Object value : domain(level)) {
+            bound[levels[level].key.ordinal()] = value;
+            result = added(result, count(level + 1, sizes));
+        }
+        return result;
+    }
+
+    private static long multiplied(final long left, final long right) {
+        if ((0 < right) && ((Long.MAX_VALUE / right) < left)) {
+            throw new ArithmeticException(format(OVERFLOW, Long.MAX_VALUE));
+        }
+        return left * right;
+    }
+
+    private static long added(final long left, final long right) {
+        if ((Long.MAX_VALUE - right) < left) {
+            throw new ArithmeticException(format(OVERFLOW, Long.MAX_VALUE));
+        }
+        return left + right;
+    }
+
+    private static <K extends Enum<K>> Level<K>[] levels(
+            final Class<K> keyClass, final Map<K, ? extends Iterable<?>> fixed,
+            final Map<K, ? extends Combiner.Dependent<K>> dependent) {
+
+        final EnumSet<K> remaining = EnumSet.noneOf(keyClass);
+        remaining.addAll(fixed.keySet());
+        remaining.addAll(dependent.keySet());
+        for (final Map.Entry<K, ? extends Combiner.Dependent<K>> entry : dependent.entrySet()) {
+            for (final K input : entry.getValue().getInputs()) {
+                if (!remaining.contains(input)) {
+                    throw new IllegalStateException(format(UNDEFINED_INPUT, input, entry.getKey()));
+                }
+            }
+        }
+        final List<Level<K>> result = new ArrayList<>(remaining.size());
+        final EnumSet<K> placed = EnumSet.noneOf(keyClass);
+        while (!remaining.isEmpty()) {
+            final K next = nextPlaceable(remaining, placed, dependent);
+            if (null == next) {
+                throw new IllegalStateException(format(CYCLE, remaining));
+            }
+            remaining.remove(next);
+            placed.add(next);
+            result.add(new Level<>(next, fixed.get(next), dependent.get(next)));
+        }
+        boolean fixedFromHere = true;
+        for (int index = result.size() - 1; 0 <= index; --index) {
+            fixedFromHere = fixedFromHere && (null == result.get(index).dependent);
+            result.get(index).isFixedFromHere = fixedFromHere;
+        }
+        // The erasure of Level<K> is Level, the array will contain instances of Level<K> only ...
+        // noinspection unchecked
+        return result.toArray(new Level[result.size()]);
+    }
+
+    private static <K extends Enum<K>> K nextPlaceable(final EnumSet<K> remaining, final EnumSet<K> placed,
+                                                       final Map<K, ? extends Combiner.Dependent<K>> dependent) {
+        for (final K key : remaining) {
+            final Combiner.Dependent<K> domain = dependent.get(key);
+            if ((null == domain) || placed.containsAll(domain.getInputs())) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private Iterable<?> domain(final int level) {
+        final Level<K> subject = levels[level];
+        if (null == subject.dependent) {
+            return subject.fixed;
+        }
+        final Object[] binding = new Object[subject.inputs.length];
+        for (int index = 0; index < binding.length; ++index) {
+            binding[index] = bound[subject.inputs[index].ordinal()];
+        }
+        final List<Object> cacheKey = Arrays.asList(binding);
+        List<Object> result = subject.cache.get(cacheKey);
+        if (null == result) {
+            final Map<K, Object> inputs = new EnumMap<>(keyClass);
+            for (int index = 0; index < binding.length; ++index) {
+                inputs.put(subject.inputs[index], binding[index]);
+            }
+            result = new ArrayList<Object>(subject.dependent.getValues(Collections.unmodifiableMap(inputs)));
+            subject.cache.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * Binds values from the given {@code level} onwards, backtracking as needed.
+     *
+     * @return {@code true} if all levels are bound, {@code false} if there is no further combination.
+     */
+    private boolean fill(final int start) {
+        int level = start;
+        while ((0 <= level) && (level < levels.length)) {
+            if (iterators[level].hasNext()) {
+                bound[levels[level].key.ordinal()] = iterators[level].next();
+                level += 1;
+                if (level < levels.length) {
+                    iterators[level] = domain(level).iterator();
+                }
+            } else {
+                level -= 1;
+            }
+        }
+        return level == levels.length;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return available;
+    }
+
+    @Override
+    public Map<K, Object> next() {
+        if (!available) {
+            throw new NoSuchElementException("There is no next element available");
+        }
+        final Map<K, Object> result = new EnumMap<>(keyClass);
+        for (final Level<K> level : levels) {
+            result.put(level.key, bound[level.key.ordinal()]);
+        }
+        available = fill(levels.length - 1);
+        return result;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Unsupported operation");
+    }
+
+    private static final class Level<K extends Enum<K>> {
+
+        private final K key;
+        private final Iterable<?> fixed;
+        private final Combiner.Dependent<K> dependent;
+        private final K[] inputs;
+        private final Map<List<Object>, List<Object>> cache = new HashMap<>(0);
+        private boolean isFixedFromHere = false;
+
+        private Level(final K key, final Iterable<?> fixed, final Combiner.Dependent<K> dependent) {
+            this.key = key;
+            this.fixed = fixed;
+            this.dependent = dependent;
+            if (null == dependent) {
+                this.inputs = Arrays.copyOf(key.getDeclaringClass().getEnumConstants(), 0);
+            } else {
+                final EnumSet<K> keys = EnumSet.noneOf(key.getDeclaringClass());
+                keys.addAll(dependent.getInputs());
+                this.inputs = keys.toArray(Arrays.copyOf(key.getDeclaringClass().getEnumConstants(), 0));
+            }
+        }
+    }
+}
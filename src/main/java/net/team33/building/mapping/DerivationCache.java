@@ -0,0 +1,211 @@
+package net.team33.building.mapping;
+
+import net.team33.building.Branchable;
+import net.team33.building.Builder;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * An opt-in cache of modified copies ('derivations') of immutable base instances, as built by
+ * {@code base.branch().set(...).build()}. Intended to turn repeatedly needed derivations into lookups.
+ * <p/>
+ * A derivation is identified by the identity of its base and its changes: a single key and value or a small map of
+ * changes. Bases are referenced weakly, so caching does not keep a base alive, and derivations of collected bases are
+ * purged on subsequent accesses. Derivations themselves are referenced strongly and evicted by size, the least
+ * recently used first.
+ * <p/>
+ * The cache is thread-safe. It is divided into segments, each locked separately, and the least recently used order
+ * and the size limit apply per segment, so the eviction order is only approximately global.
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ * @param <B> The type of the builders.
+ * @param <R> The type of the base instances and derivations.
+ */
+public final class DerivationCache<
+        K extends Enum<K> & Key,
+        B extends Mapped.Mutable<K, B> & Builder<R>,
+        R extends Mapped<K> & Branchable<R, B>> {
+
+    private static final String ILLEGAL_SIZE = "maximum size must be positive but was %d";
+    private static final int SEGMENTS = 16;
+
+    private final Segment<R>[] segments;
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private final StripedCounter hits = new StripedCounter();
+    private final StripedCounter misses = new StripedCounter();
+
+    /**
+     * Initiates a new, empty cache holding up to (about) {@code maxSize} derivations.
+     *
+     * @throws IllegalArgumentException if {@code maxSize} is not positive.
+     */
+    public DerivationCache(final int maxSize) {
+        if (0 >= maxSize) {
+            throw new IllegalArgumentException(format(ILLEGAL_SIZE, maxSize));
+        }
+        final int count = Math.min(SEGMENTS, maxSize);
+        // The erasure of Segment<R> is Segment, the array will contain instances of Segment<R> only ...
+        // noinspection unchecked
+        segments = new Segment[count];
+        for (int index = 0; index < count; ++index) {
+            segments[index] = new Segment<>((maxSize / count) + ((index < (maxSize % count)) ? 1 : 0));
+        }
+    }
+
+    /**
+     * Supplies a copy of a given {@code base} that differs in the value for a given {@code key}, either from the
+     * cache or newly built (and cached).
+     *
+     * @throws NullPointerException     if {@code base} is {@code null} or if {@code value} is {@code null} while the
+     *                                  {@code key} is not {@linkplain Key#isNullable() nullable}.
+     * @throws ClassCastException       if {@code value} is not an instance of the value class of the {@code key}.
+     * @throws IllegalArgumentException if the {@code key} is not part of the base's key set.
+     */
+    public R derive(final R base, final K key, final Object value) {
+        return derive(base, Collections.singletonMap(key, value));
+    }
+
+    /**
+     * Supplies a copy of a given {@code base} that differs in the given {@code changes}, either from the cache or
+     * newly built (and cached). The {@code changes} are copied, so they may be reused by the caller.
+     *
+     * @throws NullPointerException     if {@code base} or {@code changes} is {@code null} or if a value is
+     *                                  {@code null} while its key is not {@linkplain Key#isNullable() nullable}.
+     * @throws ClassCastException       if a value is not an instance of the value class of its key.
+     * @throws IllegalArgumentException if a key is not part of the base's key set.
+     */
+    public R derive(final R base, final Map<K, ?> changes) {
+        purge();
+        final Derivation derivation = new Derivation(base, new HashMap<>(changes), collected);
+        final Segment<R> segment = segments[derivation.segment];
+        final R cached = segment.get(derivation);
+        if (null != cached) {
+            hits.add(1);
+            return cached;
+        }
+        misses.add(1);
+        final R result = base.branch().set(changes).build();
+        segment.put(derivation, result);
+        return result;
+    }
+
+    private void purge() {
+        for (Reference<?> reference = collected.poll(); null != reference; reference = collected.poll()) {
+            final Derivation derivation = (Derivation) reference;
+            segments[derivation.segment].remove(derivation);
+        }
+    }
+
+    /**
+     * Supplies the current number of cached derivations.
+     */
+    public int size() {
+        int result = 0;
+        for (final Segment<R> segment : segments) {
+            result += segment.size();
+        }
+        return result;
+    }
+
+    /**
+     * Supplies the number of derivations supplied from the cache so far.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Supplies the number of derivations built so far.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Removes all cached derivations.
+     */
+    public void clear() {
+        for (final Segment<R> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Identifies a derivation by the identity of its base and its changes.
+     */
+    @SuppressWarnings({"NonStaticInnerClassInSecureContext", "EqualsAndHashcode"})
+    private final class Derivation extends WeakReference<Object> {
+
+        private final Map<?, ?> changes;
+        private final int hash;
+        private final int segment;
+
+        private Derivation(final Object base, final Map<?, ?> changes, final ReferenceQueue<Object> queue) {
+            super(base, queue);
+            this.changes = changes;
+            this.hash = (31 * System.identityHashCode(base)) + changes.hashCode();
+            this.segment = (int) ((Hash64.mix(hash) >>> 1) % segments.length);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (obj instanceof DerivationCache<?, ?, ?>.Derivation) {
+                final DerivationCache<?, ?, ?>.Derivation other = (DerivationCache<?, ?, ?>.Derivation) obj;
+                final Object base = get();
+                // A collected base equals no other derivation but itself ...
+                return (null != base) && (base == other.get()) && changes.equals(other.changes);
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Segment<R> {
+
+        private final Map<Object, R> map;
+
+        private Segment(final int maxSize) {
+            this.map = new LinkedHashMap<Object, R>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Object, R> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        private synchronized R get(final Object key) {
+            return map.get(key);
+        }
+
+        private synchronized void put(final Object key, final R value) {
+            map.put(key, value);
+        }
+
+        private synchronized void remove(final Object key) {
+            map.remove(key);
+        }
+
+        private synchronized int size() {
+            return map.size();
+        }
+
+        private synchronized void clear() {
+            map.clear();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package net.team33.building.mapping;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Detects duplicate records within a bounded amount of memory.
+ * <p/>
+ * As long as the estimated memory needed to keep the records seen so far does not exceed a given budget, duplicates
+ * are detected exactly by a {@link HashSet}. Beyond that, the records seen so far are transferred into a Bloom filter
+ * that takes (almost) the whole budget and the set is released. From then on, a record that was not seen before is
+ * taken for a duplicate with a probability (false positive rate) of about {@code (1 - e^(-k * n / m))^k}, where
+ * {@code m} is the number of bits of the filter ({@code 8 * budget}), {@code n} is the number of distinct records
+ * seen so far and {@code k} is the number of hash functions, chosen as {@code m / expected * ln(2)} (1 to 16).
+ * E.g. a budget of 1 MiB and 1 million expected records result in {@code k = 6} and a rate of about 2% after 1
+ * million distinct records. A duplicate is never taken for a new record.
+ * <p/>
+ * In approximate mode, records are identified by their {@linkplain Mapped#fingerprint() fingerprints}.
+ *
+ * @param <R> The type of the records.
+ */
+final class Distinct<R extends Mapped<?>> {
+
+    // Estimated bytes for an entry of a HashSet plus a record, excluding its values, and per value of a record ...
+    private static final long ENTRY_BYTES = 96;
+    private static final long VALUE_BYTES = 8;
+    private static final int MAX_HASHES = 16;
+
+    private final long budget;
+    private final long expected;
+    private Set<R> exact = new HashSet<>();
+    private long used = 0;
+    private long[] bits = null;
+    private long width = 0;
+    private int hashes = 0;
+
+    /**
+     * Initiates a new instance with a memory {@code budget} in bytes and the {@code expected} number of records,
+     * which is used to size the Bloom filter if needed.
+     */
+    Distinct(final long budget, final long expected) {
+        this.budget = budget;
+        this.expected = Math.max(1, expected);
+    }
+
+    /**
+     * Indicates weather or not duplicates are (still) detected exactly.
+     */
+    boolean isExact() {
+        return null == bits;
+    }
+
+    /**
+     * Registers a given {@code record}.
+     *
+     * @return {@code true} if the {@code record} is (probably) new, {@code false} if it is a duplicate.
+     */
+    boolean add(final R record) {
+        if (null == bits) {
+            final boolean result = exact.add(record);
+            if (result) {
+                used += ENTRY_BYTES + (VALUE_BYTES * record.asMap().size());
+                if (used > budget) {
+                    toApproximate();
+                }
+            }
+            return result;
+        } else {
+            return addHash(record.fingerprint());
+        }
+    }
+
+    private void toApproximate() {
+        final long words = Math.max(1, Math.min(budget >>> 3, Integer.MAX_VALUE - 8));
+        bits = new long[(int) words];
+        width = words << 6;
+        hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(((double) width / expected) * Math.log(2))));
+        for (final R record : exact) {
+            addHash(record.fingerprint());
+        }
+        exact = null;
+    }
+
+    private boolean addHash(final long hash) {
+        final long first = Hash64.mix(hash);
+        // Double hashing: the probed bits are derived from two independent hashes ...
+        final long second = Hash64.mix(hash ^ Hash64.SEED) | 1;
+        boolean result = false;
+        for (int index = 0; index < hashes; ++index) {
+            final long bit = ((first + (index * second)) >>> 1) % width;
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+            if (0 == (bits[word] & mask)) {
+                bits[word] |= mask;
+                result = true;
+            }
+        }
+        return result;
+    }
+}
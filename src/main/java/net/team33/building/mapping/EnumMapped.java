@@ -1,11 +1,14 @@
 package net.team33.building.mapping;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
@@ -17,6 +20,9 @@ import static java.util.EnumSet.copyOf;
  */
 public class EnumMapped<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
 
+    private static final String NO_VALIDATION = "<validation> must not be <null>";
+
+    private final EnumMap<K, Object> values;
     private final Map<K, Object> backing;
 
     /**
@@ -30,12 +36,28 @@ public class EnumMapped<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
 
     /**
      * Initiates a new instance backed by an immutable copy of a given {@link Map}.
+     * <p/>
+     * Values of {@linkplain Key.Derivable derived} keys are ignored, they will be derived anew when needed.
      *
      * @throws IllegalArgumentException if {@code origin} is empty and not an instance of {@link EnumMap}.
      * @throws NullPointerException     if {@code origin} is {@code null}.
      */
     protected EnumMapped(final Map<K, ?> origin) {
-        backing = unmodifiableMap(new EnumMap<>(origin));
+        values = new EnumMap<>(origin);
+        backing = values.isEmpty() ? unmodifiableMap(values) : backing(values);
+        if (Metrics.ENABLED) {
+            Metrics.count(values.keySet(), Metrics.Counter.BUILDS);
+        }
+    }
+
+    private static <K extends Enum<K> & Key> Map<K, Object> backing(final EnumMap<K, Object> values) {
+        final KeySchema<K> schema = KeySchema.of(values.keySet().iterator().next().getDeclaringClass());
+        if (0 == schema.derived().length) {
+            return unmodifiableMap(values);
+        } else {
+            values.keySet().removeAll(Arrays.asList(schema.derived()));
+            return new DerivedView<>(schema, values);
+        }
     }
 
     @Override
@@ -45,6 +67,48 @@ public class EnumMapped<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
         return backing;
     }
 
+    /**
+     * An immutable view on the values of an {@link EnumMapped} plus the values of its {@linkplain Key.Derivable
+     * derived} keys, which are derived and memoized on first access.
+     */
+    private static final class DerivedView<K extends Enum<K> & Key> extends EnumView<K> {
+
+        private static final Object NULL = new Object();
+
+        private final KeySchema<K> schema;
+        private final EnumMap<K, Object> values;
+        private final AtomicReferenceArray<Object> derived;
+
+        private DerivedView(final KeySchema<K> schema, final EnumMap<K, Object> values) {
+            this(schema, values, schema.extent(values.keySet()));
+        }
+
+        private DerivedView(final KeySchema<K> schema, final EnumMap<K, Object> values,
+                            final KeySchema.Extent<K> extent) {
+            super(extent.keys, extent.contained);
+            this.schema = schema;
+            this.values = values;
+            this.derived = new AtomicReferenceArray<>(extent.contained.length);
+        }
+
+        @Override
+        Object value(final K key) {
+            if (schema.isDerived(key)) {
+                final Object stored = derived.get(key.ordinal());
+                if (null == stored) {
+                    final Object result = valid(key, ((Key.Derivable) key).getDerivation().derive(this));
+                    // Concurrent threads may derive the value more than once, but will share the first one ...
+                    derived.compareAndSet(key.ordinal(), null, (null == result) ? NULL : result);
+                    return value(key);
+                } else {
+                    return (NULL == stored) ? null : stored;
+                }
+            } else {
+                return values.get(key);
+            }
+        }
+    }
+
     /**
      * Provides basic implementations of a mutable counterpart to a {@link EnumMapped}
      * intended to be derived as a Builder for a derivation of {@link EnumMapped}.
@@ -56,12 +120,15 @@ public class EnumMapped<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
     public abstract static class Mapper<K extends Enum<K> & Key, B extends Mapper<K, B>>
             extends Mutable<K, B> {
 
+        private final K[] universe;
         private final Set<K> keySet;
-        private final EnumMap<K, Object> backing;
+        private final Tracked<K> backing;
+        private Validation validation;
 
         /**
-         * Initiates a new instance by a given {@code keyClass} that will contain any possible key but {@code null},
-         * associated with their {@linkplain Key#getInitial() default values}.
+         * Initiates a new instance by a given {@code keyClass} that will contain any possible key but {@code null}
+         * and {@linkplain Key.Derivable derived} keys, associated with their {@linkplain Key#getInitial() default
+         * values}.
          *
          * @param keyClass The {@linkplain Class class representation} of the intended keys, not {@code null}.
          * @throws NullPointerException if {@code keyClass} is {@code null}.
@@ -71,8 +138,9 @@ public class EnumMapped<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
         }
 
         /**
-         * Initiates a new instance by a given {@code keySet} that will contain any possible key but {@code null},
-         * associated with their {@linkplain Key#getInitial() default values}.
+         * Initiates a new instance by a given {@code keySet} that will contain any possible key but {@code null}
+         * and {@linkplain Key.Derivable derived} keys, associated with their {@linkplain Key#getInitial() default
+         * values}.
          *
          * @param keySet The {@linkplain Class class representation} of the intended keySet, not {@code null}.
          * @throws NullPointerException     if {@code keySet} is or contains {@code null}.
@@ -82,13 +150,40 @@ public class EnumMapped<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
             this(keySet.iterator().next().getDeclaringClass(), keySet);
         }
 
+        /**
+         * Initiates a new instance that 'inherits' the keys and values of a given {@code origin}.
+         * <p/>
+         * Intended to implement {@link net.team33.building.Branchable#branch()}: In opposite to
+         * {@code set(origin.asMap())} the values are not validated again, as the {@code origin} already contains
+         * valid values only.
+         *
+         * @throws NullPointerException     if {@code origin} is {@code null}.
+         * @throws IllegalArgumentException if {@code origin} is empty.
+         */
+        protected Mapper(final EnumMapped<K> origin) {
+            keySet = unmodifiableSet(copyOf(origin.values.keySet()));
+            universe = keySet.iterator().next().getDeclaringClass().getEnumConstants();
+            backing = new Tracked<>(origin.values);
+            validation = KeySchema.of(universe[0].getDeclaringClass()).validation();
+            if (Metrics.ENABLED) {
+                Metrics.count(keySet, Metrics.Counter.BUILDERS);
+                Metrics.count(keySet, Metrics.Counter.BRANCHES);
+            }
+        }
+
         /**
          * @throws NullPointerException     if {@code keyClass} or {@code keys} is or contains {@code null}.
          * @throws IllegalArgumentException if {@code keys} is empty and not an instance of {@link EnumSet}.
          */
         private Mapper(final Class<K> keyClass, final Collection<K> keys) {
-            keySet = unmodifiableSet(copyOf(keys));
-            backing = copy(Collections.<K, Object>emptyMap(), keySet, true, true, new EnumMap<>(keyClass));
+            keySet = unmodifiableSet(KeySchema.of(keyClass).base(keys));
+            universe = keyClass.getEnumConstants();
+            validation = KeySchema.of(keyClass).validation();
+            backing = copy(Collections.<K, Object>emptyMap(), keySet, true, true, new Tracked<>(keyClass));
+            backing.modified.clear();
+            if (Metrics.ENABLED) {
+                Metrics.count(keyClass, Metrics.Counter.BUILDERS);
+            }
         }
 
         @Override
@@ -105,5 +200,186 @@ public class EnumMapped<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
             // noinspection ReturnOfCollectionOrArrayField
             return backing;
         }
+
+        @Override
+        final Validation validation() {
+            return validation;
+        }
+
+        /**
+         * Supplies the {@linkplain Validation policy} to validate the values set into this builder, initially the
+         * {@linkplain Validation#getDefault(Class) default} of the schema.
+         */
+        public final Validation getValidation() {
+            return validation;
+        }
+
+        /**
+         * Sets the {@linkplain Validation policy} to validate the values set into this builder from now on.
+         *
+         * @return {@code this} in its final representation.
+         * @throws NullPointerException if {@code validation} is {@code null}.
+         */
+        public final B setValidation(final Validation validation) {
+            if (null == validation) {
+                throw new NullPointerException(NO_VALIDATION);
+            }
+            this.validation = validation;
+            // <this> must be an instance of <B> ...
+            // noinspection unchecked
+            return (B) this;
+        }
+
+        /**
+         * Sets the values according to an origin map whose values are known to be valid (e.g. because they
+         * were retrieved from another instance of the same schema), so they are not validated regardless of the
+         * {@linkplain #getValidation() policy}. Keys of the origin that are not part of the {@linkplain #keySet()
+         * intended key set} are ignored.
+         * <p/>
+         * Values associated with keys not covered by the origin map will remain as is.
+         *
+         * @return {@code this} in its final representation.
+         */
+        public final B setValidated(final Map<? extends K, ?> origin) {
+            copy(origin, keySet, false, true, Validation.TRUSTED, backing);
+            // <this> must be an instance of <B> ...
+            // noinspection unchecked
+            return (B) this;
+        }
+
+        /**
+         * Resets any value of the {@linkplain #keySet() intended key set} to its {@linkplain Key#getInitial()
+         * default}, forgets about any {@linkplain #modified() modifications} and restores the
+         * {@linkplain #getValidation() validation policy} of the schema, so that this is in the same state as a new
+         * instance for the same key set. Intended to reuse a builder, e.g. by a {@link BuilderPool}.
+         *
+         * @return {@code this} in its final representation.
+         */
+        public final B reset() {
+            copy(Collections.<K, Object>emptyMap(), keySet, true, true, backing);
+            validation = KeySchema.of(universe[0].getDeclaringClass()).validation();
+            return clearModified();
+        }
+
+        /**
+         * Indicates weather or not any value was {@linkplain #modified() modified}.
+         */
+        final boolean isModified() {
+            return !backing.modified.isEmpty();
+        }
+
+        /**
+         * Supplies the keys whose values were modified since this was initiated (e.g. by
+         * {@link net.team33.building.Branchable#branch()}) or since the last call to {@link #clearModified()}.
+         * <p/>
+         * Any {@code put()}, {@code remove()} or {@code clear()} on the {@linkplain #asMap() underlying map} counts as
+         * a modification, even if it does not actually change a value. Modifications through the entry set of the
+         * underlying map are not tracked.
+         *
+         * @return A new set.
+         */
+        public final Set<K> modified() {
+            final EnumSet<K> result = EnumSet.noneOf(universe[0].getDeclaringClass());
+            final BitSet modified = backing.modified;
+            for (int ordinal = modified.nextSetBit(0); 0 <= ordinal; ordinal = modified.nextSetBit(ordinal + 1)) {
+                result.add(universe[ordinal]);
+            }
+            return result;
+        }
+
+        /**
+         * Forgets about any {@linkplain #modified() modifications} so far.
+         *
+         * @return {@code this} in its final representation.
+         */
+        public final B clearModified() {
+            backing.modified.clear();
+            // <this> must be an instance of <B> ...
+            // noinspection unchecked
+            return (B) this;
+        }
+
+        /**
+         * Supplies a {@link Patch} containing the current values of the {@linkplain #modified() modified} keys that
+         * are still present.
+         */
+        public final Patch<K> patch() {
+            final BitSet present = (BitSet) backing.modified.clone();
+            for (int ordinal = present.nextSetBit(0); 0 <= ordinal; ordinal = present.nextSetBit(ordinal + 1)) {
+                if (!backing.containsKey(universe[ordinal])) {
+                    present.clear(ordinal);
+                }
+            }
+            return Patch.of(universe, backing, present);
+        }
+
+        /**
+         * Applies the changes of a given {@code patch}, at a cost that scales with the number of changes.
+         *
+         * @return {@code this} in its final representation.
+         * @throws NullPointerException     if a value is {@code null} and the corresponding {@code key}
+         *                                  is not {@linkplain Key#isNullable() nullable}.
+         * @throws ClassCastException       if a value is not assignable to the {@linkplain Key#getValueClass()
+         *                                  class} associated with the corresponding {@code key}.
+         * @throws IllegalArgumentException if a changed {@code key} is not part of the {@linkplain #keySet()
+         *                                  intended key set}.
+         */
+        public final B apply(final Patch<K> patch) {
+            for (int index = 0, size = patch.size(); index < size; ++index) {
+                set(patch.key(index), patch.value(index));
+            }
+            // <this> must be an instance of <B> ...
+            // noinspection unchecked
+            return (B) this;
+        }
+    }
+
+    /**
+     * An {@link EnumMap} that marks the ordinals of the keys passed to its modifying methods.
+     */
+    @SuppressWarnings({"CloneableClassWithoutClone", "serial"})
+    private static final class Tracked<K extends Enum<K>> extends EnumMap<K, Object> {
+
+        private final BitSet modified = new BitSet();
+
+        private Tracked(final Class<K> keyClass) {
+            super(keyClass);
+        }
+
+        private Tracked(final EnumMap<K, ?> origin) {
+            super(origin);
+        }
+
+        @Override
+        public Object put(final K key, final Object value) {
+            final Object result = super.put(key, value);
+            modified.set(key.ordinal());
+            return result;
+        }
+
+        @Override
+        public void putAll(final Map<? extends K, ?> origin) {
+            for (final Map.Entry<? extends K, ?> entry : origin.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        @Override
+        public Object remove(final Object key) {
+            final boolean contained = containsKey(key);
+            final Object result = super.remove(key);
+            if (contained) {
+                modified.set(((Enum<?>) key).ordinal());
+            }
+            return result;
+        }
+
+        @Override
+        public void clear() {
+            for (final K key : keySet()) {
+                modified.set(key.ordinal());
+            }
+            super.clear();
+        }
     }
 }
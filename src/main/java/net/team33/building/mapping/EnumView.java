@@ -0,0 +1,118 @@
+package net.team33.building.mapping;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Base of {@link Map} views that contain an entry for each of a given array of enum keys and retrieve the
+ * associated values on demand. Immutable unless a derivative supports {@link #put(Object, Object)}.
+ *
+ * @param <K> The specific type of the keys.
+ */
+abstract class EnumView<K extends Enum<K>> extends AbstractMap<K, Object> {
+
+    private final K[] keys;
+    private final boolean[] contained;
+    private Set<Entry<K, Object>> entrySet = null;
+
+    /**
+     * Initiates a view containing all constants of the key type.
+     *
+     * @param universe All constants of the key type in the order of their ordinals.
+     */
+    EnumView(final K[] universe) {
+        this(universe, null);
+    }
+
+    /**
+     * Initiates a view containing a subset of the constants of the key type.
+     *
+     * @param keys      The keys of the view in the intended order of iteration.
+     * @param contained Indicates by ordinal weather or not a key is part of the view, typically shared by many
+     *                  views. Not modified. {@code null} if the view contains all constants of the key type.
+     */
+    EnumView(final K[] keys, final boolean[] contained) {
+        this.keys = keys;
+        this.contained = contained;
+    }
+
+    /**
+     * Retrieves the value associated with a given {@code key} that is definitely part of this view.
+     */
+    abstract Object value(K key);
+
+    @Override
+    public final int size() {
+        return keys.length;
+    }
+
+    @Override
+    public final boolean containsKey(final Object key) {
+        return isKey(key);
+    }
+
+    @Override
+    public final Object get(final Object key) {
+        // isKey() ensures the type ...
+        // noinspection unchecked
+        return isKey(key) ? value((K) key) : null;
+    }
+
+    private boolean isKey(final Object key) {
+        if ((key instanceof Enum<?>) && (0 < keys.length)) {
+            final Enum<?> other = (Enum<?>) key;
+            return keys[0].getDeclaringClass().equals(other.getDeclaringClass())
+                    && ((null == contained) || contained[other.ordinal()]);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public final Set<Entry<K, Object>> entrySet() {
+        if (null == entrySet) {
+            entrySet = new AbstractSet<Entry<K, Object>>() {
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+
+                @Override
+                public Iterator<Entry<K, Object>> iterator() {
+                    return new Entries();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    @SuppressWarnings("NonStaticInnerClassInSecureContext")
+    private class Entries implements Iterator<Entry<K, Object>> {
+
+        private int index = 0;
+
+        @Override
+        public final boolean hasNext() {
+            return index < keys.length;
+        }
+
+        @Override
+        public final Entry<K, Object> next() {
+            if (hasNext()) {
+                final K key = keys[index++];
+                return new SimpleImmutableEntry<>(key, value(key));
+            } else {
+                throw new NoSuchElementException("There is no next element available");
+            }
+        }
+
+        @Override
+        public final void remove() {
+            throw new UnsupportedOperationException("Unsupported operation");
+        }
+    }
+}
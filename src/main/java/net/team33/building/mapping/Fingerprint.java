@@ -0,0 +1,140 @@
+package net.team33.building.mapping;
+
+import java.lang.reflect.Array;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes stable (run independent) 64-bit fingerprints of {@link Mapped} instances, suitable e.g. for sharding,
+ * on-disk indexes or cache keys.
+ * <p/>
+ * The fingerprint of a {@link Mapped} combines a well mixed hash per entry, computed from the
+ * {@linkplain Enum#name() name} of the key and the stable hash of the value. The entry hashes are combined
+ * independently of their order, so a fingerprint does not depend on the ordinals of the keys or the
+ * implementation of the {@linkplain Mapped#asMap() underlying map}.
+ * <p/>
+ * The stable hash of a value is derived from its content if it is {@code null}, a {@link CharSequence}, a primitive
+ * wrapper, an {@link Enum} (by its name), a {@link Date}, a nested {@link Mapped}, a {@link List}, a {@link Set}, a
+ * {@link Map} or an array (of such values), or if it implements {@link Stable}. Otherwise it is derived from its
+ * {@link Object#hashCode()}, so it is only as stable as that.
+ * <p/>
+ * Equal instances (in terms of {@link Mapped#equals(Object)}) always have the same fingerprint.
+ * <p/>
+ * If the JVM is started with the system property {@value #PROPERTY} set to {@code true},
+ * {@link Mapped#hashCode()} is derived from the fingerprint as well. The setting is evaluated once.
+ */
+public final class Fingerprint {
+
+    /**
+     * The name of the system property that causes {@link Mapped#hashCode()} to be derived from the fingerprint.
+     */
+    public static final String PROPERTY = "net.team33.building.stableHash";
+
+    static final boolean HASH_CODE = Boolean.getBoolean(PROPERTY);
+
+    private static final long NULL = 0x9E3779B97F4A7C15L;
+
+    private Fingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of a given {@code subject}.
+     *
+     * @throws NullPointerException if {@code subject} is {@code null}.
+     */
+    public static long of(final Mapped<?> subject) {
+        return of(subject.asMap());
+    }
+
+    /**
+     * Computes the fingerprint of given {@code values}, keyed by {@linkplain Enum enum constants}.
+     */
+    static long of(final Map<?, ?> values) {
+        long result = 0;
+        for (final Map.Entry<?, ?> entry : values.entrySet()) {
+            result += Hash64.mix(Hash64.of(Hash64.of(Hash64.SEED, name(entry.getKey())), stable(entry.getValue())));
+        }
+        return Hash64.mix(Hash64.of(result, values.size()));
+    }
+
+    /**
+     * Folds a fingerprint into an {@code int}, e.g. to be used as a {@link Object#hashCode()}.
+     */
+    static int fold(final long fingerprint) {
+        return (int) (fingerprint ^ (fingerprint >>> 32));
+    }
+
+    private static String name(final Object key) {
+        return (key instanceof Enum<?>) ? ((Enum<?>) key).name() : String.valueOf(key);
+    }
+
+    private static long stable(final Object value) {
+        if (null == value) {
+            return NULL;
+        } else if (value instanceof Stable) {
+            return ((Stable) value).stableHash();
+        } else if (value instanceof CharSequence) {
+            return Hash64.of(Hash64.SEED, (CharSequence) value);
+        } else if ((value instanceof Long) || (value instanceof Integer)
+                || (value instanceof Short) || (value instanceof Byte)) {
+            return Hash64.of(Hash64.SEED, ((Number) value).longValue());
+        } else if (value instanceof Double) {
+            return Hash64.of(Hash64.SEED, Double.doubleToLongBits((Double) value));
+        } else if (value instanceof Float) {
+            return Hash64.of(Hash64.SEED, Float.floatToIntBits((Float) value));
+        } else if (value instanceof Boolean) {
+            return Hash64.of(Hash64.SEED, ((Boolean) value) ? 1 : 0);
+        } else if (value instanceof Character) {
+            return Hash64.of(Hash64.SEED, (Character) value);
+        } else if (value instanceof Enum<?>) {
+            return Hash64.of(Hash64.SEED, ((Enum<?>) value).name());
+        } else if (value instanceof Date) {
+            return Hash64.of(Hash64.SEED, ((Date) value).getTime());
+        } else if (value instanceof Mapped<?>) {
+            return of((Mapped<?>) value);
+        } else if (value instanceof List<?>) {
+            long result = Hash64.SEED;
+            for (final Object element : (List<?>) value) {
+                result = Hash64.of(result, stable(element));
+            }
+            return result;
+        } else if (value instanceof Set<?>) {
+            // Order independent, just like Set.equals() ...
+            long result = 0;
+            for (final Object element : (Set<?>) value) {
+                result += Hash64.mix(stable(element));
+            }
+            return Hash64.of(result, ((Set<?>) value).size());
+        } else if (value instanceof Map<?, ?>) {
+            long result = 0;
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                result += Hash64.mix(Hash64.of(stable(entry.getKey()), stable(entry.getValue())));
+            }
+            return Hash64.of(result, ((Map<?, ?>) value).size());
+        } else if (value.getClass().isArray()) {
+            long result = Hash64.SEED;
+            final int length = Array.getLength(value);
+            for (int index = 0; index < length; ++index) {
+                result = Hash64.of(result, stable(Array.get(value, index)));
+            }
+            return result;
+        } else {
+            return Hash64.of(Hash64.SEED, value.hashCode());
+        }
+    }
+
+    /**
+     * May be implemented by value classes to supply a stable (run independent) hash of their content.
+     * The hash must be consistent with {@link Object#equals(Object)}.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    public interface Stable {
+
+        /**
+         * Supplies a stable (run independent) hash of this' content.
+         */
+        long stableHash();
+    }
+}
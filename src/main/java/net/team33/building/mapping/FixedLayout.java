@@ -0,0 +1,137 @@
+package net.team33.building.mapping;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Specifies a binary record layout of fixed width for a {@linkplain Key schema} whose values all have a
+ * {@linkplain ValueType#width() fixed width}: a bitmap marking {@code null} values (by ordinal) followed by a slot
+ * per key (in the order of their ordinals).
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ */
+final class FixedLayout<K extends Enum<K> & Key> {
+
+    private final K[] keys;
+    private final ValueType[] types;
+    private final Object[][] constants;
+    private final int[] offsets;
+    private final int width;
+
+    private FixedLayout(final K[] keys, final ValueType[] types, final int[] widths) {
+        this.keys = keys;
+        this.types = types;
+        this.constants = new Object[keys.length][];
+        this.offsets = new int[keys.length];
+        int offset = (keys.length + 7) / 8;
+        for (final K key : keys) {
+            constants[key.ordinal()] = ValueType.constants(key);
+            offsets[key.ordinal()] = offset;
+            offset += widths[key.ordinal()];
+        }
+        this.width = offset;
+    }
+
+    /**
+     * Determines the layout for a given {@code keyClass}, using the {@linkplain ValueType#width() widths} of the
+     * value types.
+     *
+     * @return {@code null} if a value class has no fixed width.
+     * @throws IllegalArgumentException if a value class is not supported at all.
+     */
+    static <K extends Enum<K> & Key> FixedLayout<K> of(final Class<K> keyClass) {
+        return of(keyClass, ValueType.VARIABLE);
+    }
+
+    /**
+     * Determines the layout for a given {@code keyClass}, using the {@linkplain ValueType#width() widths} of the
+     * value types or a given {@code variableWidth} for the slots of value types without a fixed width. The latter
+     * are intended to hold a reference to the actual value, which is up to the caller.
+     *
+     * @param variableWidth The width of the slots of value types without a fixed width or
+     *                      {@link ValueType#VARIABLE} if such value types shall not be supported.
+     * @return {@code null} if a value class has no fixed width and {@code variableWidth} is
+     * {@link ValueType#VARIABLE}.
+     * @throws IllegalArgumentException if a value class is not supported at all.
+     */
+    static <K extends Enum<K> & Key> FixedLayout<K> of(final Class<K> keyClass, final int variableWidth) {
+        final K[] keys = keyClass.getEnumConstants();
+        final ValueType[] types = new ValueType[keys.length];
+        final int[] widths = new int[keys.length];
+        for (final K key : keys) {
+            final ValueType type = ValueType.of(key);
+            final boolean variable = (ValueType.VARIABLE == type.width());
+            if (variable && (ValueType.VARIABLE == variableWidth)) {
+                return null;
+            }
+            types[key.ordinal()] = type;
+            widths[key.ordinal()] = variable ? variableWidth : type.width();
+        }
+        return new FixedLayout<>(keys, types, widths);
+    }
+
+    /**
+     * Supplies the number of bytes per record.
+     */
+    int width() {
+        return width;
+    }
+
+    /**
+     * Supplies the keys of the schema.
+     */
+    K[] keys() {
+        // Package private, the array will not be modified ...
+        // noinspection ReturnOfCollectionOrArrayField
+        return keys;
+    }
+
+    /**
+     * Supplies the value type associated with a given {@code key}.
+     */
+    ValueType type(final K key) {
+        return types[key.ordinal()];
+    }
+
+    /**
+     * Supplies the absolute index of the slot of a given {@code key} within a record starting at {@code start}.
+     */
+    int index(final int start, final K key) {
+        return start + offsets[key.ordinal()];
+    }
+
+    /**
+     * Puts a complete and valid record at a given (absolute) {@code start} index.
+     * The slots of non-null values without a fixed width are left untouched, they are up to the caller.
+     */
+    void put(final ByteBuffer target, final int start, final Map<K, ?> values) {
+        for (int index = 0; index < offsets[0]; ++index) {
+            target.put(start + index, (byte) 0);
+        }
+        for (final K key : keys) {
+            final Object value = values.get(key);
+            if (null == value) {
+                final int index = start + (key.ordinal() >>> 3);
+                target.put(index, (byte) (target.get(index) | (1 << (key.ordinal() & 7))));
+            } else if (ValueType.VARIABLE != types[key.ordinal()].width()) {
+                types[key.ordinal()].put(target, index(start, key), value);
+            }
+        }
+    }
+
+    /**
+     * Indicates weather or not the value of a given {@code key} of the record at {@code start} is {@code null}.
+     */
+    boolean isNull(final ByteBuffer source, final int start, final K key) {
+        return 0 != (source.get(start + (key.ordinal() >>> 3)) & (1 << (key.ordinal() & 7)));
+    }
+
+    /**
+     * Gets the value of a given {@code key} of the record at {@code start}, if its type has a fixed width.
+     */
+    Object get(final ByteBuffer source, final int start, final K key) {
+        return isNull(source, start, key)
+                ? null
+                : types[key.ordinal()].get(source, index(start, key), constants[key.ordinal()]);
+    }
+}
@@ -0,0 +1,167 @@
+package net.team33.building.mapping;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the {@link Progress} of runs as Java Flight Recorder events.
+ * <p/>
+ * The events are defined at runtime by {@code jdk.jfr.EventFactory}, accessed reflectively, so this library neither
+ * needs the Flight Recorder API to compile nor to run: if the API is not available, no recorder is created.
+ * <p/>
+ * The event types are named {@code net.team33.building.RunStarted}, {@code ...RunProgress}, {@code ...RunFailure}
+ * and {@code ...RunFinished}. As with any event, a recording must enable them to actually record anything.
+ */
+final class FlightRecorder implements Progress.Listener {
+
+    private static final String PREFIX = "net.team33.building.";
+    private static final String[] CATEGORY = {"team33", "Building"};
+
+    private final Api api;
+    private final Object started;
+    private final Object progress;
+    private final Object failure;
+    private final Object finished;
+
+    private FlightRecorder(final Api api) throws ReflectiveOperationException {
+        this.api = api;
+        this.started = api.factory("RunStarted", "Run Started",
+                                   api.field(String.class, "name", false),
+                                   api.field(long.class, "size", false));
+        this.progress = api.factory("RunProgress", "Run Progress",
+                                    api.field(String.class, "name", false),
+                                    api.field(long.class, "index", false),
+                                    api.field(long.class, "size", false),
+                                    api.field(double.class, "throughput", false),
+                                    api.field(long.class, "batchLatency", true),
+                                    api.field(long.class, "failures", false));
+        this.failure = api.factory("RunFailure", "Run Failure",
+                                   api.field(String.class, "name", false),
+                                   api.field(long.class, "index", false),
+                                   api.field(String.class, "cause", false));
+        this.finished = api.factory("RunFinished", "Run Finished",
+                                    api.field(String.class, "name", false),
+                                    api.field(long.class, "index", false),
+                                    api.field(long.class, "failures", false),
+                                    api.field(long.class, "elapsed", true));
+    }
+
+    /**
+     * Creates a new instance if {@code enabled} and the Flight Recorder API is available, otherwise supplies
+     * {@code null}.
+     */
+    static FlightRecorder create(final boolean enabled) {
+        if (enabled) {
+            try {
+                return new FlightRecorder(new Api());
+            } catch (final ReflectiveOperationException | RuntimeException | LinkageError ignored) {
+                // The Flight Recorder API is not available (or not as expected) ...
+                return null;
+            }
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public void started(final Progress progress) {
+        api.commit(started, progress.getName(), progress.getSize());
+    }
+
+    @Override
+    public void progressed(final Progress progress) {
+        api.commit(this.progress, progress.getName(), progress.getIndex(), progress.getSize(),
+                   progress.getThroughput(), progress.getBatchLatency(), progress.getFailures());
+    }
+
+    @Override
+    public void failed(final Progress progress, final Object cause) {
+        api.commit(failure, progress.getName(), progress.getIndex(), String.valueOf(cause));
+    }
+
+    @Override
+    public void finished(final Progress progress) {
+        api.commit(finished, progress.getName(), progress.getIndex(), progress.getFailures(),
+                   progress.getElapsedNanos());
+    }
+
+    /**
+     * The reflectively accessed parts of the Flight Recorder API.
+     */
+    private static final class Api {
+
+        private final Constructor<?> newAnnotation;
+        private final Constructor<?> newField;
+        private final Class<? extends Annotation> nameType;
+        private final Class<? extends Annotation> labelType;
+        private final Class<? extends Annotation> categoryType;
+        private final Class<? extends Annotation> timespanType;
+        private final Method create;
+        private final Method newEvent;
+        private final Method isEnabled;
+        private final Method set;
+        private final Method commit;
+
+        private Api() throws ReflectiveOperationException {
+            final Class<?> annotationClass = Class.forName("jdk.jfr.AnnotationElement");
+            final Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+            final Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            this.newAnnotation = annotationClass.getConstructor(Class.class, Object.class);
+            this.newField = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class,
+                                                                                     List.class);
+            this.nameType = Class.forName("jdk.jfr.Name").asSubclass(Annotation.class);
+            this.labelType = Class.forName("jdk.jfr.Label").asSubclass(Annotation.class);
+            this.categoryType = Class.forName("jdk.jfr.Category").asSubclass(Annotation.class);
+            this.timespanType = Class.forName("jdk.jfr.Timespan").asSubclass(Annotation.class);
+            this.create = factoryClass.getMethod("create", List.class, List.class);
+            this.newEvent = factoryClass.getMethod("newEvent");
+            this.isEnabled = eventClass.getMethod("isEnabled");
+            this.set = eventClass.getMethod("set", int.class, Object.class);
+            this.commit = eventClass.getMethod("commit");
+        }
+
+        private Object annotation(final Class<? extends Annotation> type, final Object value)
+                throws ReflectiveOperationException {
+            return newAnnotation.newInstance(type, value);
+        }
+
+        private Object field(final Class<?> type, final String name, final boolean isTimespan)
+                throws ReflectiveOperationException {
+            final List<Object> annotations = isTimespan
+                    ? Collections.singletonList(annotation(timespanType, "NANOSECONDS"))
+                    : Collections.emptyList();
+            return newField.newInstance(type, name, annotations);
+        }
+
+        private Object factory(final String name, final String label, final Object... fields)
+                throws ReflectiveOperationException {
+            final List<Object> annotations = new ArrayList<>(3);
+            annotations.add(annotation(nameType, PREFIX + name));
+            annotations.add(annotation(labelType, label));
+            annotations.add(annotation(categoryType, CATEGORY.clone()));
+            return create.invoke(null, annotations, Arrays.asList(fields));
+        }
+
+        private void commit(final Object factory, final Object... values) {
+            try {
+                final Object event = newEvent.invoke(factory);
+                if ((Boolean) isEnabled.invoke(event)) {
+                    for (int index = 0; index < values.length; ++index) {
+                        set.invoke(event, index, values[index]);
+                    }
+                    commit.invoke(event);
+                }
+            } catch (final IllegalAccessException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            } catch (final InvocationTargetException e) {
+                throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package net.team33.building.mapping;
+
+/**
+ * Provides stable (run independent) 64-bit hash functions.
+ */
+final class Hash64 {
+
+    static final long SEED = 0xCBF29CE484222325L;
+    private static final long PRIME = 0x100000001B3L;
+
+    private Hash64() {
+    }
+
+    /**
+     * Continues a FNV-1a hash with the characters of a given {@code text}.
+     */
+    static long of(final long hash, final CharSequence text) {
+        long result = hash;
+        final int length = text.length();
+        for (int index = 0; index < length; ++index) {
+            final char c = text.charAt(index);
+            result = (result ^ (c & 0xFF)) * PRIME;
+            result = (result ^ (c >>> 8)) * PRIME;
+        }
+        return result;
+    }
+
+    /**
+     * Continues a FNV-1a hash with a given {@code value}.
+     */
+    static long of(final long hash, final long value) {
+        long result = hash;
+        for (int shift = 0; shift < 64; shift += 8) {
+            result = (result ^ ((value >>> shift) & 0xFF)) * PRIME;
+        }
+        return result;
+    }
+
+    /**
+     * Spreads the bits of a given {@code value} (the finalizer of MurmurHash3).
+     */
+    static long mix(final long value) {
+        long result = value;
+        result ^= result >>> 33;
+        result *= 0xFF51AFD7ED558CCDL;
+        result ^= result >>> 33;
+        result *= 0xC4CEB9FE1A85EC53L;
+        result ^= result >>> 33;
+        return result;
+    }
+}
@@ -1,5 +1,8 @@
 package net.team33.building.mapping;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * Abstracts a key that provides information about a represented property.
  */
@@ -20,4 +23,53 @@ public interface Key {
      * Supplies a default value to be initially associated with this key.
      */
     Object getInitial();
+
+    /**
+     * A key type whose {@linkplain #getInitial() initial values} are expensive to compute.
+     * <p/>
+     * The initial value of a key (of an enum type) is not computed before it is needed the first time and then
+     * shared by all instances, so it should be immutable.
+     */
+    @SuppressWarnings({"PublicInnerClass", "MarkerInterface"})
+    interface Lazy extends Key {
+    }
+
+    /**
+     * A key type that may contain keys whose values are derived from the values of some other keys (of the same
+     * enum type).
+     * <p/>
+     * A derived key can't be set. An {@link EnumMapped} contains a derived key if it contains all of its
+     * {@linkplain Derivation#getInputs() inputs}. The value is computed when it is retrieved the first time and
+     * then memoized by the {@link EnumMapped}. A builder does not contain derived keys, so a value derived from
+     * modified inputs will be computed anew by the next {@link EnumMapped} built.
+     * <p/>
+     * The {@linkplain #getInitial() initial value} of a derived key is not used.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    interface Derivable extends Key {
+
+        /**
+         * Supplies the derivation of the value of this key or {@code null} if this key is not derived.
+         * Must always supply the same result.
+         */
+        Derivation getDerivation();
+    }
+
+    /**
+     * Specifies how to derive the value of a {@linkplain Derivable derived} key.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    interface Derivation {
+
+        /**
+         * Supplies the keys whose values are needed to {@linkplain #derive(Map) derive} the value.
+         * Must not depend on the derived key itself (directly or indirectly).
+         */
+        Collection<? extends Key> getInputs();
+
+        /**
+         * Derives the value from given {@code values}, which contain (at least) the {@linkplain #getInputs() inputs}.
+         */
+        Object derive(Map<?, ?> values);
+    }
 }
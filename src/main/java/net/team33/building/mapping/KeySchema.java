@@ -0,0 +1,191 @@
+package net.team33.building.mapping;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Supplies information derived once from the keys of an enum type, concerning {@linkplain Key.Lazy lazy} and
+ * {@linkplain Key.Derivable derived} keys.
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ */
+final class KeySchema<K extends Enum<K> & Key> {
+
+    private static final Object NULL = new Object();
+    private static final String NO_VALIDATION = "<validation> must not be <null>";
+
+    private static final ClassValue<KeySchema<?>> SCHEMAS = new ClassValue<KeySchema<?>>() {
+        @Override
+        protected KeySchema<?> computeValue(final Class<?> type) {
+            return newSchema(type);
+        }
+    };
+
+    private final Class<K> keyClass;
+    private final K[] universe;
+    private final Set<K> base;
+    private final K[] derived;
+    private final boolean[] isDerived;
+    private final AtomicReferenceArray<Object> initials;
+    private final Extent<K> full;
+    private volatile Validation validation = Validation.FULL;
+
+    private KeySchema(final Class<K> keyClass) {
+        final EnumSet<K> baseKeys = EnumSet.allOf(keyClass);
+        final EnumSet<K> derivedKeys = EnumSet.noneOf(keyClass);
+        this.keyClass = keyClass;
+        this.universe = keyClass.getEnumConstants();
+        this.isDerived = new boolean[universe.length];
+        for (final K key : universe) {
+            if (isDerivedKey(key)) {
+                isDerived[key.ordinal()] = true;
+                baseKeys.remove(key);
+                derivedKeys.add(key);
+            }
+        }
+        this.base = unmodifiableSet(baseKeys);
+        this.derived = derivedKeys.toArray(Arrays.copyOf(universe, 0));
+        this.initials = new AtomicReferenceArray<>(universe.length);
+        this.full = newExtent(base);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static KeySchema<?> newSchema(final Class<?> type) {
+        return new KeySchema(type);
+    }
+
+    /**
+     * Supplies the schema of a given {@code keyClass}.
+     */
+    static <K extends Enum<K> & Key> KeySchema<K> of(final Class<K> keyClass) {
+        // The schema was created by the key class it is associated with ...
+        // noinspection unchecked
+        return (KeySchema<K>) SCHEMAS.get(keyClass);
+    }
+
+    /**
+     * Indicates weather or not a given {@code key} is {@linkplain Key.Derivable derived}.
+     */
+    static boolean isDerivedKey(final Object key) {
+        return (key instanceof Key.Derivable) && (null != ((Key.Derivable) key).getDerivation());
+    }
+
+    /**
+     * Supplies the initial value of a given {@code key}, which is resolved only once if the {@code key} is
+     * {@linkplain Key.Lazy lazy}.
+     */
+    static Object initial(final Key key) {
+        if ((key instanceof Key.Lazy) && (key instanceof Enum<?>)) {
+            return SCHEMAS.get(((Enum<?>) key).getDeclaringClass()).lazyInitial(key, ((Enum<?>) key).ordinal());
+        } else {
+            return key.getInitial();
+        }
+    }
+
+    private Object lazyInitial(final Key key, final int ordinal) {
+        final Object stored = initials.get(ordinal);
+        if (null == stored) {
+            final Object result = key.getInitial();
+            // Concurrent threads may compute the value more than once, but will share the first one stored ...
+            initials.compareAndSet(ordinal, null, (null == result) ? NULL : result);
+            return lazyInitial(key, ordinal);
+        } else {
+            return (NULL == stored) ? null : stored;
+        }
+    }
+
+    /**
+     * Supplies the {@linkplain Validation validation policy} of this schema.
+     */
+    Validation validation() {
+        return validation;
+    }
+
+    /**
+     * Sets the {@linkplain Validation validation policy} of this schema.
+     *
+     * @throws NullPointerException if {@code validation} is {@code null}.
+     */
+    void setValidation(final Validation validation) {
+        if (null == validation) {
+            throw new NullPointerException(NO_VALIDATION);
+        }
+        this.validation = validation;
+    }
+
+    /**
+     * Supplies the {@linkplain Key.Derivable derived} keys, in the order of their ordinals.
+     */
+    K[] derived() {
+        // Package private, the array will not be modified ...
+        // noinspection ReturnOfCollectionOrArrayField
+        return derived;
+    }
+
+    /**
+     * Indicates weather or not a given {@code key} of this schema is {@linkplain Key.Derivable derived}.
+     */
+    boolean isDerived(final K key) {
+        return isDerived[key.ordinal()];
+    }
+
+    /**
+     * Supplies a given set of keys without the {@linkplain Key.Derivable derived} keys.
+     *
+     * @throws NullPointerException     if {@code keys} is or contains {@code null}.
+     * @throws IllegalArgumentException if {@code keys} is empty and not an instance of {@link EnumSet}.
+     */
+    EnumSet<K> base(final Collection<K> keys) {
+        final EnumSet<K> result = EnumSet.copyOf(keys);
+        result.removeAll(Arrays.asList(derived));
+        return result;
+    }
+
+    /**
+     * Supplies the extent of a record that contains a given set of {@code present} keys, none of them
+     * {@linkplain Key.Derivable derived}: the {@code present} keys plus any derived key whose
+     * {@linkplain Key.Derivation#getInputs() inputs} are (directly or indirectly) available.
+     */
+    Extent<K> extent(final Set<K> present) {
+        return (present.size() == base.size()) ? full : newExtent(present);
+    }
+
+    private Extent<K> newExtent(final Set<K> present) {
+        final EnumSet<K> keys = EnumSet.noneOf(keyClass);
+        keys.addAll(present);
+        // Derived keys may depend on other derived keys, so repeat until nothing is added ...
+        for (boolean added = true; added; ) {
+            added = false;
+            for (final K key : derived) {
+                if (!keys.contains(key) && keys.containsAll(((Key.Derivable) key).getDerivation().getInputs())) {
+                    keys.add(key);
+                    added = true;
+                }
+            }
+        }
+        return new Extent<>(keys.toArray(Arrays.copyOf(universe, 0)), universe.length);
+    }
+
+    /**
+     * The keys of a record (in the order of their ordinals) plus a table indicating by ordinal weather or not a key
+     * is part of the record, as needed by an {@link EnumView}.
+     */
+    static final class Extent<K extends Enum<K>> {
+
+        final K[] keys;
+        final boolean[] contained;
+
+        private Extent(final K[] keys, final int universe) {
+            this.keys = keys;
+            this.contained = new boolean[universe];
+            for (final K key : keys) {
+                contained[key.ordinal()] = true;
+            }
+        }
+    }
+}
@@ -38,14 +38,32 @@ public abstract class Mapped<K> {
             final Map<? extends K, ?> origin, final Collection<? extends K> keys,
             final boolean reset, final boolean ignoreOverhead, final M result) {
 
-        if (ignoreOverhead || keys.containsAll(origin.keySet())) {
+        return copy(origin, keys, reset, ignoreOverhead, Validation.FULL, result);
+    }
+
+    /**
+     * Like {@link #copy(Map, Collection, boolean, boolean, Map)}, but validates the values according to a given
+     * {@code validation} policy.
+     */
+    static <K extends Key, M extends Map<K, Object>> M copy(
+            final Map<? extends K, ?> origin, final Collection<? extends K> keys,
+            final boolean reset, final boolean ignoreOverhead, final Validation validation, final M result) {
+
+        if (ignoreOverhead || keys.containsAll(origin.keySet()) || isDerivedOverhead(origin.keySet(), keys)) {
+            int copied = 0;
+            K last = null;
             for (final K key : keys) {
                 final boolean containsKey = origin.containsKey(key);
                 if (reset || containsKey) {
-                    final Object value = containsKey ? origin.get(key) : key.getInitial();
-                    result.put(key, valid(key, value));
+                    final Object value = containsKey ? origin.get(key) : KeySchema.initial(key);
+                    result.put(key, valid(validation, key, value));
+                    copied += 1;
+                    last = key;
                 }
             }
+            if (Metrics.ENABLED && (null != last)) {
+                Metrics.add(last, Metrics.Counter.COPIED_ENTRIES, copied);
+            }
             return result;
 
         } else {
@@ -53,11 +71,45 @@ public abstract class Mapped<K> {
         }
     }
 
+    /**
+     * Indicates weather or not any key of {@code origin} not contained in {@code keys} is
+     * {@linkplain Key.Derivable derived}, so that it can be ignored silently.
+     */
+    private static boolean isDerivedOverhead(final Collection<?> origin, final Collection<?> keys) {
+        for (final Object key : origin) {
+            if (!KeySchema.isDerivedKey(key) && !keys.contains(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * @throws NullPointerException
      * @throws ClassCastException
      */
     protected static Object valid(final Key key, final Object value) {
+        try {
+            return validInner(key, value);
+        } catch (final RuntimeException caught) {
+            if (Metrics.ENABLED) {
+                Metrics.count(key, Metrics.Counter.VALIDATION_FAILURES);
+            }
+            throw caught;
+        }
+    }
+
+    /**
+     * Validates a given {@code value} if due according to a given {@code validation} policy.
+     *
+     * @throws NullPointerException
+     * @throws ClassCastException
+     */
+    static Object valid(final Validation validation, final Key key, final Object value) {
+        return validation.isDue() ? valid(key, value) : value;
+    }
+
+    private static Object validInner(final Key key, final Object value) {
         if ((null != value) || key.isNullable()) {
             // may cause a ClassCastException ...
             return key.getValueClass().cast(value);
@@ -121,11 +173,19 @@ public abstract class Mapped<K> {
     /**
      * {@inheritDoc}
      * <p/>
-     * This implementation retrieves the hash code simply from the {@linkplain #asMap() underlying map}.
+     * This implementation retrieves the hash code simply from the {@linkplain #asMap() underlying map}, or from the
+     * {@linkplain #fingerprint() fingerprint} if enabled by the system property {@value Fingerprint#PROPERTY}.
      */
     @Override
     public final int hashCode() {
-        return asMap().hashCode();
+        return Fingerprint.HASH_CODE ? Fingerprint.fold(fingerprint()) : asMap().hashCode();
+    }
+
+    /**
+     * Supplies a stable (run independent) 64-bit fingerprint of this instance, see {@link Fingerprint}.
+     */
+    public final long fingerprint() {
+        return Fingerprint.of(asMap());
     }
 
     /**
@@ -232,7 +292,7 @@ public abstract class Mapped<K> {
          */
         public final B set(final K key, final Object value, final boolean ignoreOverhead) {
             if (keySet().contains(key)) {
-                asMap().put(key, valid(key, value));
+                asMap().put(key, valid(validation(), key, value));
             } else if (!ignoreOverhead) {
                 throw new IllegalArgumentException(format(ILLEGAL_KEY, key));
             }
@@ -316,12 +376,25 @@ public abstract class Mapped<K> {
         }
 
         private B set(final Map<? extends K, ?> origin, final boolean reset, final boolean ignoreOverhead) {
-            copy(origin, keySet(), reset, ignoreOverhead, asMap());
+            if (Metrics.ENABLED) {
+                Metrics.count(keySet(), Metrics.Counter.BULK_SETS);
+            }
+            copy(origin, keySet(), reset, ignoreOverhead, validation(), asMap());
             // <this> must be an instance of <B> ...
             // noinspection unchecked
             return (B) this;
         }
 
+        /**
+         * Supplies the {@linkplain Validation policy} to validate the values set into this instance.
+         * <p/>
+         * The base implementation supplies {@link Validation#FULL}.
+         */
+        @SuppressWarnings("DesignForExtension")
+        Validation validation() {
+            return Validation.FULL;
+        }
+
         /**
          * Supplies the intended key set.
          * <p/>
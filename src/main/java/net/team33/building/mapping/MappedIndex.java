@@ -0,0 +1,328 @@
+package net.team33.building.mapping;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Indexes a changing collection of records of the same {@linkplain Key schema} by the values of some of their
+ * properties.
+ * <p/>
+ * A <em>hashed</em> index supports point queries in constant time, a <em>sorted</em> index (restricted to keys with a
+ * {@link Comparable} value class) supports point queries in logarithmic time and range queries in logarithmic time
+ * plus the size of the result. The indices are maintained incrementally when records are {@linkplain #add(Mapped)
+ * added} or {@linkplain #remove(Mapped) removed}.
+ * <p/>
+ * Records are distinguished by {@linkplain Mapped#equals(Object) equality}, equal records may be indexed multiple
+ * times. The indexed properties of a record must not change while it is indexed, so typically immutable records
+ * (e.g. {@link EnumMapped} instances or the {@linkplain MappedTable.Row rows} of a {@link MappedTable}) are indexed.
+ * <p/>
+ * An instance is not thread-safe while being modified.
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ * @param <M> The type of the indexed records.
+ */
+public class MappedIndex<K extends Enum<K> & Key, M extends Mapped<K>> {
+
+    private static final String NOT_INDEXED = "<%s> is not indexed";
+    private static final String NOT_SORTED = "<%s> is not indexed in sorted order";
+    private static final String NOT_COMPARABLE = "the value class <%s> of <%s> is not comparable";
+
+    private final Map<M, int[]> occurrences = new LinkedHashMap<>();
+    private final Map<K, Index<M>> indices;
+    private int size = 0;
+
+    /**
+     * Initiates a new, empty instance for a given {@code keyClass}, initially without any index.
+     *
+     * @throws NullPointerException if {@code keyClass} is {@code null}.
+     */
+    public MappedIndex(final Class<K> keyClass) {
+        this.indices = new EnumMap<>(keyClass);
+    }
+
+    /**
+     * Adds a hashed index for a given {@code key}, built from the records indexed so far.
+     * Replaces a sorted index for the same key, if any.
+     *
+     * @return {@code this}.
+     */
+    public final MappedIndex<K, M> hashed(final K key) {
+        return with(key, new Hashed<M>());
+    }
+
+    /**
+     * Adds a sorted index for a given {@code key}, built from the records indexed so far.
+     * Replaces a hashed index for the same key, if any.
+     *
+     * @return {@code this}.
+     * @throws IllegalArgumentException if the {@linkplain Key#getValueClass() value class} of {@code key} is not
+     *                                  {@link Comparable}.
+     */
+    public final MappedIndex<K, M> sorted(final K key) {
+        if (Comparable.class.isAssignableFrom(key.getValueClass())) {
+            return with(key, new Sorted<M>());
+        } else {
+            throw new IllegalArgumentException(format(NOT_COMPARABLE, key.getValueClass().getName(), key));
+        }
+    }
+
+    private MappedIndex<K, M> with(final K key, final Index<M> index) {
+        for (final Map.Entry<M, int[]> entry : occurrences.entrySet()) {
+            final Object value = entry.getKey().get(key);
+            for (int count = entry.getValue()[0]; count > 0; --count) {
+                index.add(value, entry.getKey());
+            }
+        }
+        indices.put(key, index);
+        return this;
+    }
+
+    /**
+     * Supplies the number of indexed records, including multiple occurrences of equal records.
+     */
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * Indexes a record.
+     *
+     * @return {@code this}.
+     * @throws NullPointerException if {@code record} is {@code null}.
+     */
+    public final MappedIndex<K, M> add(final M record) {
+        final int[] count = occurrences.get(record);
+        if (null == count) {
+            occurrences.put(record, new int[]{1});
+        } else {
+            count[0] += 1;
+        }
+        for (final Map.Entry<K, Index<M>> entry : indices.entrySet()) {
+            entry.getValue().add(record.get(entry.getKey()), record);
+        }
+        size += 1;
+        return this;
+    }
+
+    /**
+     * Indexes some records, e.g. all rows of a {@link MappedTable}.
+     *
+     * @return {@code this}.
+     * @see #add(Mapped)
+     */
+    public final MappedIndex<K, M> addAll(final Iterable<? extends M> records) {
+        for (final M record : records) {
+            add(record);
+        }
+        return this;
+    }
+
+    /**
+     * Removes a single occurrence of a record equal to the given {@code record}.
+     *
+     * @return {@code true} if such a record was indexed.
+     */
+    public final boolean remove(final M record) {
+        final int[] count = occurrences.get(record);
+        if (null == count) {
+            return false;
+        } else {
+            count[0] -= 1;
+            if (0 == count[0]) {
+                occurrences.remove(record);
+            }
+            for (final Map.Entry<K, Index<M>> entry : indices.entrySet()) {
+                entry.getValue().remove(record.get(entry.getKey()), record);
+            }
+            size -= 1;
+            return true;
+        }
+    }
+
+    /**
+     * Indicates weather or not a record equal to the given {@code record} is indexed.
+     */
+    public final boolean contains(final M record) {
+        return occurrences.containsKey(record);
+    }
+
+    /**
+     * Retrieves the records whose property associated with {@code key} equals a given {@code value}
+     * (which may be {@code null}).
+     *
+     * @return An unmodifiable list, possibly empty, in the order the records were (first) added, equal records
+     * next to each other. It does not reflect subsequent modifications of this index.
+     * @throws IllegalArgumentException if {@code key} is not indexed.
+     * @throws ClassCastException       if {@code value} is not an instance of the value class of {@code key}.
+     */
+    public final List<M> get(final K key, final Object value) {
+        return index(key).get(key.getValueClass().cast(value));
+    }
+
+    /**
+     * Retrieves the records whose property associated with {@code key} is within a given range, in the order of
+     * that property. Records with a {@code null} value are not part of any range.
+     *
+     * @param from          The lower bound or {@code null} if there is none.
+     * @param fromInclusive Indicates weather or not the lower bound is part of the range.
+     * @param to            The upper bound or {@code null} if there is none.
+     * @param toInclusive   Indicates weather or not the upper bound is part of the range.
+     * @return A new list, possibly empty.
+     * @throws IllegalArgumentException if {@code key} is not indexed in sorted order or if {@code from} is greater
+     *                                  than {@code to}.
+     * @throws ClassCastException       if a bound is not an instance of the value class of {@code key}.
+     */
+    public final List<M> range(final K key,
+                               final Object from, final boolean fromInclusive,
+                               final Object to, final boolean toInclusive) {
+        final Index<M> index = index(key);
+        if (index instanceof Sorted<?>) {
+            final Class<?> valueClass = key.getValueClass();
+            return ((Sorted<M>) index).range(valueClass.cast(from), fromInclusive, valueClass.cast(to), toInclusive);
+        } else {
+            throw new IllegalArgumentException(format(NOT_SORTED, key));
+        }
+    }
+
+    /**
+     * Retrieves the records whose property associated with {@code key} is within {@code [from, to[}.
+     *
+     * @see #range(Enum, Object, boolean, Object, boolean)
+     */
+    public final List<M> range(final K key, final Object from, final Object to) {
+        return range(key, from, true, to, false);
+    }
+
+    private Index<M> index(final K key) {
+        final Index<M> result = indices.get(key);
+        if (null == result) {
+            throw new IllegalArgumentException(format(NOT_INDEXED, key));
+        }
+        return result;
+    }
+
+    /**
+     * The records indexed by a single value, grouped by equality in the order they were first added, so that a
+     * single occurrence is added or removed in constant time.
+     */
+    private static final class Bucket<M> {
+
+        private final Map<M, int[]> counts = new LinkedHashMap<>(2);
+        private int size = 0;
+
+        private void add(final M record) {
+            final int[] count = counts.get(record);
+            if (null == count) {
+                counts.put(record, new int[]{1});
+            } else {
+                count[0] += 1;
+            }
+            size += 1;
+        }
+
+        private void remove(final M record) {
+            final int[] count = counts.get(record);
+            if (null != count) {
+                count[0] -= 1;
+                if (0 == count[0]) {
+                    counts.remove(record);
+                }
+                size -= 1;
+            }
+        }
+
+        private boolean isEmpty() {
+            return 0 == size;
+        }
+
+        private void addTo(final List<M> target) {
+            for (final Map.Entry<M, int[]> entry : counts.entrySet()) {
+                for (int index = 0; index < entry.getValue()[0]; ++index) {
+                    target.add(entry.getKey());
+                }
+            }
+        }
+    }
+
+    private abstract static class Index<M> {
+
+        abstract Map<Object, Bucket<M>> buckets(Object value);
+
+        final void add(final Object value, final M record) {
+            final Map<Object, Bucket<M>> buckets = buckets(value);
+            Bucket<M> bucket = buckets.get(value);
+            if (null == bucket) {
+                bucket = new Bucket<>();
+                buckets.put(value, bucket);
+            }
+            bucket.add(record);
+        }
+
+        final void remove(final Object value, final M record) {
+            final Map<Object, Bucket<M>> buckets = buckets(value);
+            final Bucket<M> bucket = buckets.get(value);
+            bucket.remove(record);
+            if (bucket.isEmpty()) {
+                buckets.remove(value);
+            }
+        }
+
+        final List<M> get(final Object value) {
+            final Bucket<M> bucket = buckets(value).get(value);
+            if (null == bucket) {
+                return Collections.emptyList();
+            } else {
+                final List<M> result = new ArrayList<>(bucket.size);
+                bucket.addTo(result);
+                return unmodifiableList(result);
+            }
+        }
+    }
+
+    private static class Hashed<M> extends Index<M> {
+
+        private final Map<Object, Bucket<M>> buckets = new HashMap<>();
+
+        @Override
+        final Map<Object, Bucket<M>> buckets(final Object value) {
+            return buckets;
+        }
+    }
+
+    private static class Sorted<M> extends Index<M> {
+
+        private final NavigableMap<Object, Bucket<M>> buckets = new TreeMap<>();
+        private final Map<Object, Bucket<M>> nulls = new HashMap<>(1);
+
+        @Override
+        final Map<Object, Bucket<M>> buckets(final Object value) {
+            return (null == value) ? nulls : buckets;
+        }
+
+        final List<M> range(final Object from, final boolean fromInclusive,
+                            final Object to, final boolean toInclusive) {
+            final NavigableMap<Object, Bucket<M>> head = (null == to) ? buckets : buckets.headMap(to, toInclusive);
+            final Collection<Bucket<M>> selected = ((null == from) ? head : head.tailMap(from, fromInclusive)).values();
+            int size = 0;
+            for (final Bucket<M> bucket : selected) {
+                size += bucket.size;
+            }
+            final List<M> result = new ArrayList<>(size);
+            for (final Bucket<M> bucket : selected) {
+                bucket.addTo(result);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,628 @@
+package net.team33.building.mapping;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static java.lang.String.format;
+
+/**
+ * Stores a growing number of records of the same {@linkplain Key schema} column by column, in particular to reduce
+ * the memory needed per record and to allow cache friendly scans of single properties.
+ * <p/>
+ * Any key has its own column. Values of a {@linkplain Key#getValueClass() value class} {@link Integer},
+ * {@link Long} or {@link Double} are stored in primitive arrays. Values of a value class {@link Boolean} or an
+ * {@link Enum} are packed as codes of just as many bits as needed (a single bit for a boolean, e.g. two bits for an
+ * enum of three constants, plus a code for {@code null} if nullable) into one or a few {@code long} words per record,
+ * shared by all those keys. Any other values are stored as references.
+ * <p/>
+ * The packed values of two records can be {@linkplain #isPackedEqual(int, int) compared} and
+ * {@linkplain #packedHashCode(int) hashed} word by word.
+ * <p/>
+ * The records may be accessed as lightweight {@linkplain Row rows}, which are {@link Mapped} views on the
+ * underlying columns.
+ * <p/>
+ * Records can be appended but not modified or removed. An instance is not thread-safe while being modified.
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ */
+public class MappedTable<K extends Enum<K> & Key> implements Iterable<MappedTable.Row<K>> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final String ILLEGAL_INDEX = "index <%d> is not within [0, %d[";
+    private static final String ILLEGAL_ACCESS = "<%s> does not support <%s> values";
+
+    private final K[] keys;
+    private final Column[] columns;
+    private final Packed packed;
+    private int capacity;
+    private int size = 0;
+
+    /**
+     * Initiates a new, empty instance for a given {@code keyClass}.
+     *
+     * @throws NullPointerException if {@code keyClass} is {@code null}.
+     */
+    public MappedTable(final Class<K> keyClass) {
+        this(keyClass, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Initiates a new, empty instance for a given {@code keyClass} and an initial {@code capacity}.
+     *
+     * @throws NullPointerException if {@code keyClass} is {@code null}.
+     */
+    public MappedTable(final Class<K> keyClass, final int capacity) {
+        this.keys = keyClass.getEnumConstants();
+        this.columns = new Column[keys.length];
+        this.capacity = Math.max(1, capacity);
+        // Assigns bit fields to the packable keys, a field must not span two words ...
+        int words = 0;
+        int used = Long.SIZE;
+        final int[] positions = new int[keys.length];
+        for (final K key : keys) {
+            final int bits = PackedColumn.bits(key);
+            if (0 < bits) {
+                if (Long.SIZE < (used + bits)) {
+                    words += 1;
+                    used = 0;
+                }
+                positions[key.ordinal()] = ((words - 1) * Long.SIZE) + used;
+                used += bits;
+            }
+        }
+        this.packed = new Packed(words, this.capacity);
+        for (final K key : keys) {
+            final int bits = PackedColumn.bits(key);
+            columns[key.ordinal()] = (0 < bits)
+                    ? new PackedColumn(key, packed, positions[key.ordinal()], bits)
+                    : Column.of(key, this.capacity);
+        }
+    }
+
+    /**
+     * Supplies the number of records.
+     */
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * Ensures that at least {@code capacity} records can be stored without growing the columns again.
+     */
+    public final void ensureCapacity(final int capacity) {
+        if (this.capacity < capacity) {
+            final int newCapacity = Math.max(capacity, this.capacity + (this.capacity >> 1));
+            for (final Column column : columns) {
+                column.grow(newCapacity);
+            }
+            packed.grow(newCapacity);
+            this.capacity = newCapacity;
+        }
+    }
+
+    /**
+     * Appends a record. Properties not covered by the {@code record} will be set to their
+     * {@linkplain Key#getInitial() defaults}.
+     *
+     * @return The index of the appended record.
+     * @throws NullPointerException if {@code record} is {@code null} or contains {@code null} for a key that is not
+     *                              {@linkplain Key#isNullable() nullable}.
+     * @throws ClassCastException   if a value is not an instance of the value class of its key.
+     */
+    public final int add(final Mapped<K> record) {
+        final Map<K, Object> origin = record.asMap();
+        final Object[] values = new Object[keys.length];
+        // Validate all values first, so a failure will not leave an incomplete record ...
+        for (final K key : keys) {
+            values[key.ordinal()] = Mapped.valid(key, origin.containsKey(key) ? origin.get(key) : KeySchema.initial(key));
+        }
+        ensureCapacity(size + 1);
+        for (final K key : keys) {
+            columns[key.ordinal()].set(size, values[key.ordinal()]);
+        }
+        return size++;
+    }
+
+    /**
+     * Appends some records, e.g. a bulk of builders.
+     *
+     * @return {@code this}.
+     * @see #add(Mapped)
+     */
+    public final MappedTable<K> addAll(final Iterable<? extends Mapped<K>> records) {
+        if (records instanceof Collection<?>) {
+            ensureCapacity(size + ((Collection<?>) records).size());
+        }
+        for (final Mapped<K> record : records) {
+            add(record);
+        }
+        return this;
+    }
+
+    /**
+     * Supplies a view on the record at a given {@code index}.
+     *
+     * @throws IndexOutOfBoundsException if there is no such record.
+     */
+    public final Row<K> get(final int index) {
+        return new Row<>(this, checked(index));
+    }
+
+    /**
+     * Supplies the column associated with a given {@code key}.
+     * Intended to scan a single property of all records.
+     */
+    public final Column column(final K key) {
+        return columns[key.ordinal()];
+    }
+
+    /**
+     * Indicates weather or not the records at two given indices have the same values for all
+     * {@linkplain Boolean boolean} and {@linkplain Enum enum} keys, by comparing their packed words.
+     *
+     * @throws IndexOutOfBoundsException if there is no such record.
+     */
+    public final boolean isPackedEqual(final int left, final int right) {
+        final int leftStart = checked(left) * packed.words;
+        final int rightStart = checked(right) * packed.words;
+        for (int word = 0; word < packed.words; ++word) {
+            if (packed.values[leftStart + word] != packed.values[rightStart + word]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Supplies a hash code of the values of all {@linkplain Boolean boolean} and {@linkplain Enum enum} keys of the
+     * record at a given {@code index}, derived from its packed words.
+     *
+     * @throws IndexOutOfBoundsException if there is no such record.
+     */
+    public final int packedHashCode(final int index) {
+        final int start = checked(index) * packed.words;
+        long result = Hash64.SEED;
+        for (int word = 0; word < packed.words; ++word) {
+            result = Hash64.of(result, packed.values[start + word]);
+        }
+        return (int) (result ^ (result >>> 32));
+    }
+
+    private int checked(final int index) {
+        if ((0 <= index) && (index < size)) {
+            return index;
+        } else {
+            throw new IndexOutOfBoundsException(format(ILLEGAL_INDEX, index, size));
+        }
+    }
+
+    @Override
+    public final Iterator<Row<K>> iterator() {
+        return new Iterator<Row<K>>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Row<K> next() {
+                if (hasNext()) {
+                    return new Row<>(MappedTable.this, index++);
+                } else {
+                    throw new NoSuchElementException("There is no next element available");
+                }
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Unsupported operation");
+            }
+        };
+    }
+
+    /**
+     * Represents the values of a single property of all records of a {@link MappedTable}.
+     * <p/>
+     * Any column supports {@link #get(int)}, the primitive accessors are supported by the columns of the
+     * corresponding value class only. Indices are not checked against the size of the table.
+     */
+    @SuppressWarnings({"PublicInnerClass", "DesignForExtension"})
+    public abstract static class Column {
+
+        private Column() {
+        }
+
+        private static Column of(final Key key, final int capacity) {
+            final Class<?> valueClass = key.getValueClass();
+            if (Integer.class.equals(valueClass)) {
+                return new IntColumn(key.isNullable(), capacity);
+            } else if (Long.class.equals(valueClass)) {
+                return new LongColumn(key.isNullable(), capacity);
+            } else if (Double.class.equals(valueClass)) {
+                return new DoubleColumn(key.isNullable(), capacity);
+            } else {
+                return new ObjectColumn(capacity);
+            }
+        }
+
+        /**
+         * Retrieves the (possibly boxed) value of the record at a given {@code index}.
+         */
+        public abstract Object get(int index);
+
+        /**
+         * Indicates weather or not the value of the record at a given {@code index} is {@code null}.
+         */
+        public boolean isNull(final int index) {
+            return null == get(index);
+        }
+
+        /**
+         * Retrieves the value of the record at a given {@code index}, if the column contains {@link Integer} values.
+         *
+         * @throws UnsupportedOperationException if the column does not contain {@link Integer} values.
+         * @throws NullPointerException          if the value is {@code null}.
+         */
+        public int getInt(final int index) {
+            throw new UnsupportedOperationException(format(ILLEGAL_ACCESS, getClass().getSimpleName(), "int"));
+        }
+
+        /**
+         * Retrieves the value of the record at a given {@code index}, if the column contains {@link Long} values.
+         *
+         * @throws UnsupportedOperationException if the column does not contain {@link Long} values.
+         * @throws NullPointerException          if the value is {@code null}.
+         */
+        public long getLong(final int index) {
+            throw new UnsupportedOperationException(format(ILLEGAL_ACCESS, getClass().getSimpleName(), "long"));
+        }
+
+        /**
+         * Retrieves the value of the record at a given {@code index}, if the column contains {@link Double} values.
+         *
+         * @throws UnsupportedOperationException if the column does not contain {@link Double} values.
+         * @throws NullPointerException          if the value is {@code null}.
+         */
+        public double getDouble(final int index) {
+            throw new UnsupportedOperationException(format(ILLEGAL_ACCESS, getClass().getSimpleName(), "double"));
+        }
+
+        /**
+         * Retrieves the value of the record at a given {@code index}, if the column contains {@link Boolean} values.
+         *
+         * @throws UnsupportedOperationException if the column does not contain {@link Boolean} values.
+         * @throws NullPointerException          if the value is {@code null}.
+         */
+        public boolean getBoolean(final int index) {
+            throw new UnsupportedOperationException(format(ILLEGAL_ACCESS, getClass().getSimpleName(), "boolean"));
+        }
+
+        abstract void set(int index, Object value);
+
+        abstract void grow(int capacity);
+    }
+
+    /**
+     * Base of columns containing primitive values that keep track of {@code null} values, if necessary.
+     */
+    private abstract static class PrimitiveColumn extends Column {
+
+        private long[] nulls;
+
+        private PrimitiveColumn(final boolean nullable, final int capacity) {
+            nulls = nullable ? new long[words(capacity)] : null;
+        }
+
+        static int words(final int bits) {
+            return (bits + 63) >>> 6;
+        }
+
+        @Override
+        public final boolean isNull(final int index) {
+            return (null != nulls) && (0 != (nulls[index >>> 6] & (1L << index)));
+        }
+
+        final void checkNotNull(final int index) {
+            if (isNull(index)) {
+                throw new NullPointerException(format("value at index <%d> is <null>", index));
+            }
+        }
+
+        @Override
+        final void set(final int index, final Object value) {
+            if (null == value) {
+                nulls[index >>> 6] |= (1L << index);
+            } else {
+                if (null != nulls) {
+                    nulls[index >>> 6] &= ~(1L << index);
+                }
+                setValue(index, value);
+            }
+        }
+
+        @Override
+        final void grow(final int capacity) {
+            if (null != nulls) {
+                nulls = Arrays.copyOf(nulls, words(capacity));
+            }
+            growValues(capacity);
+        }
+
+        abstract void setValue(int index, Object value);
+
+        abstract void growValues(int capacity);
+    }
+
+    private static class IntColumn extends PrimitiveColumn {
+
+        private int[] values;
+
+        private IntColumn(final boolean nullable, final int capacity) {
+            super(nullable, capacity);
+            values = new int[capacity];
+        }
+
+        @Override
+        public final Object get(final int index) {
+            return isNull(index) ? null : values[index];
+        }
+
+        @Override
+        public final int getInt(final int index) {
+            checkNotNull(index);
+            return values[index];
+        }
+
+        @Override
+        final void setValue(final int index, final Object value) {
+            values[index] = (Integer) value;
+        }
+
+        @Override
+        final void growValues(final int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class LongColumn extends PrimitiveColumn {
+
+        private long[] values;
+
+        private LongColumn(final boolean nullable, final int capacity) {
+            super(nullable, capacity);
+            values = new long[capacity];
+        }
+
+        @Override
+        public final Object get(final int index) {
+            return isNull(index) ? null : values[index];
+        }
+
+        @Override
+        public final long getLong(final int index) {
+            checkNotNull(index);
+            return values[index];
+        }
+
+        @Override
+        final void setValue(final int index, final Object value) {
+            values[index] = (Long) value;
+        }
+
+        @Override
+        final void growValues(final int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class DoubleColumn extends PrimitiveColumn {
+
+        private double[] values;
+
+        private DoubleColumn(final boolean nullable, final int capacity) {
+            super(nullable, capacity);
+            values = new double[capacity];
+        }
+
+        @Override
+        public final Object get(final int index) {
+            return isNull(index) ? null : values[index];
+        }
+
+        @Override
+        public final double getDouble(final int index) {
+            checkNotNull(index);
+            return values[index];
+        }
+
+        @Override
+        final void setValue(final int index, final Object value) {
+            values[index] = (Double) value;
+        }
+
+        @Override
+        final void growValues(final int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    /**
+     * The words of the packed values, {@code words} per record.
+     */
+    private static final class Packed {
+
+        private final int words;
+        private long[] values;
+
+        private Packed(final int words, final int capacity) {
+            this.words = words;
+            this.values = new long[words * capacity];
+        }
+
+        private void grow(final int capacity) {
+            values = Arrays.copyOf(values, words * capacity);
+        }
+    }
+
+    /**
+     * A column of {@link Boolean} or {@link Enum} values, represented by codes within the packed words of the
+     * records: {@code 0} for {@code null} if nullable, followed by the ordinals (with {@code false} and {@code true}
+     * taken as {@code 0} and {@code 1}).
+     */
+    private static class PackedColumn extends Column {
+
+        private final Packed packed;
+        private final Object[] constants;
+        private final boolean isBoolean;
+        private final boolean nullable;
+        private final int word;
+        private final int shift;
+        private final long mask;
+
+        private PackedColumn(final Key key, final Packed packed, final int position, final int bits) {
+            this.packed = packed;
+            this.constants = constants(key.getValueClass());
+            this.isBoolean = Boolean.class.equals(key.getValueClass());
+            this.nullable = key.isNullable();
+            this.word = position / Long.SIZE;
+            this.shift = position % Long.SIZE;
+            this.mask = (Long.SIZE == bits) ? -1L : ((1L << bits) - 1);
+        }
+
+        private static Object[] constants(final Class<?> valueClass) {
+            return Boolean.class.equals(valueClass)
+                    ? new Object[]{Boolean.FALSE, Boolean.TRUE}
+                    : valueClass.getEnumConstants();
+        }
+
+        /**
+         * Supplies the number of bits needed per value of a given {@code key} or {@code 0} if its values are not
+         * packable.
+         */
+        private static int bits(final Key key) {
+            final Class<?> valueClass = key.getValueClass();
+            if (Boolean.class.equals(valueClass) || valueClass.isEnum()) {
+                final int codes = Math.max(1, constants(valueClass).length + (key.isNullable() ? 1 : 0));
+                return Math.max(1, Long.SIZE - Long.numberOfLeadingZeros(codes - 1));
+            } else {
+                return 0;
+            }
+        }
+
+        private int code(final int index) {
+            return (int) ((packed.values[(index * packed.words) + word] >>> shift) & mask);
+        }
+
+        @Override
+        public final Object get(final int index) {
+            final int code = code(index);
+            return nullable ? ((0 == code) ? null : constants[code - 1]) : constants[code];
+        }
+
+        @Override
+        public final boolean isNull(final int index) {
+            return nullable && (0 == code(index));
+        }
+
+        @Override
+        public final boolean getBoolean(final int index) {
+            if (!isBoolean) {
+                return super.getBoolean(index);
+            }
+            final Object result = get(index);
+            if (null == result) {
+                throw new NullPointerException(format("value at index <%d> is <null>", index));
+            }
+            return (Boolean) result;
+        }
+
+        @Override
+        final void set(final int index, final Object value) {
+            final int ordinal = (null == value) ? -1
+                    : ((value instanceof Boolean) ? (((Boolean) value) ? 1 : 0) : ((Enum<?>) value).ordinal());
+            final long code = nullable ? (ordinal + 1) : ordinal;
+            final int at = (index * packed.words) + word;
+            packed.values[at] = (packed.values[at] & ~(mask << shift)) | (code << shift);
+        }
+
+        @Override
+        final void grow(final int capacity) {
+            // The packed words are grown by the table ...
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+
+        private Object[] values;
+
+        private ObjectColumn(final int capacity) {
+            values = new Object[capacity];
+        }
+
+        @Override
+        public final Object get(final int index) {
+            return values[index];
+        }
+
+        @Override
+        final void set(final int index, final Object value) {
+            values[index] = value;
+        }
+
+        @Override
+        final void grow(final int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    /**
+     * A lightweight, immutable {@link Mapped} view on a single record of a {@link MappedTable}.
+     *
+     * @param <K> The specific type of the keys representing the properties.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    public static final class Row<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
+
+        private final MappedTable<K> table;
+        private final int index;
+        private Map<K, Object> map = null;
+
+        private Row(final MappedTable<K> table, final int index) {
+            this.table = table;
+            this.index = index;
+        }
+
+        /**
+         * Supplies the index of the represented record within its table.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public Map<K, Object> asMap() {
+            if (null == map) {
+                map = new RowMap();
+            }
+            return map;
+        }
+
+        @SuppressWarnings("NonStaticInnerClassInSecureContext")
+        private class RowMap extends EnumView<K> {
+
+            private RowMap() {
+                super(table.keys);
+            }
+
+            @Override
+            final Object value(final K key) {
+                return table.columns[key.ordinal()].get(index);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package net.team33.building.mapping;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Provides optional, low-overhead counters of the activity around {@link Mapped} derivatives, separated by their
+ * schema (the {@linkplain Class class representation} of the relating {@link Key}s).
+ * <p/>
+ * Disabled by default. To enable, start the JVM with the system property {@value #PROPERTY} set to {@code true}.
+ * The setting is evaluated once, so the instrumentation costs (practically) nothing when disabled.
+ * <p/>
+ * When enabled, the counters are striped per thread, so that concurrent updates don't contend.
+ */
+public final class Metrics {
+
+    /**
+     * The name of the system property that enables the metrics.
+     */
+    public static final String PROPERTY = "net.team33.building.metrics";
+
+    static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final ConcurrentMap<Class<?>, Counters> REGISTRY = new ConcurrentHashMap<>(0);
+    private static final ClassValue<Counters> COUNTERS = new ClassValue<Counters>() {
+        @Override
+        protected Counters computeValue(final Class<?> schema) {
+            final Counters result = new Counters();
+            final Counters former = REGISTRY.putIfAbsent(schema, result);
+            return (null == former) ? result : former;
+        }
+    };
+
+    private Metrics() {
+    }
+
+    /**
+     * Indicates weather or not the metrics are enabled.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Supplies the schemas that have been counted so far.
+     */
+    public static Set<Class<?>> schemas() {
+        return unmodifiableSet(REGISTRY.keySet());
+    }
+
+    /**
+     * Retrieves the current value of a specific {@code counter} for a specific {@code schema}.
+     *
+     * @return {@code 0} if the {@code schema} has not been counted so far.
+     */
+    public static long get(final Class<?> schema, final Counter counter) {
+        final Counters counters = REGISTRY.get(schema);
+        return (null == counters) ? 0 : counters.get(counter);
+    }
+
+    /**
+     * Retrieves the current values of all counters for a specific {@code schema}.
+     */
+    public static Map<Counter, Long> get(final Class<?> schema) {
+        final Map<Counter, Long> result = new EnumMap<>(Counter.class);
+        for (final Counter counter : Counter.values()) {
+            result.put(counter, get(schema, counter));
+        }
+        return unmodifiableMap(result);
+    }
+
+    /**
+     * Resets all counters of all schemas to {@code 0}.
+     */
+    public static void reset() {
+        for (final Counters counters : REGISTRY.values()) {
+            counters.reset();
+        }
+    }
+
+    /**
+     * Supplies the schema of a given {@code key}.
+     */
+    static Class<?> schemaOf(final Key key) {
+        return (key instanceof Enum<?>) ? ((Enum<?>) key).getDeclaringClass() : key.getClass();
+    }
+
+    /**
+     * Counts a single event for a given {@code schema}.
+     * Intended to be called only if {@link #ENABLED}.
+     */
+    static void count(final Class<?> schema, final Counter counter) {
+        COUNTERS.get(schema).add(counter, 1);
+    }
+
+    /**
+     * Counts a single event for the schema of a given {@code key}.
+     * Intended to be called only if {@link #ENABLED}.
+     */
+    static void count(final Key key, final Counter counter) {
+        add(key, counter, 1);
+    }
+
+    /**
+     * Counts a single event for the schema of some given {@code keys}, if any.
+     * Intended to be called only if {@link #ENABLED}.
+     */
+    static void count(final Iterable<? extends Key> keys, final Counter counter) {
+        final Iterator<? extends Key> iterator = keys.iterator();
+        if (iterator.hasNext()) {
+            count(iterator.next(), counter);
+        }
+    }
+
+    /**
+     * Adds a {@code delta} to a counter for the schema of a given {@code key}.
+     * Intended to be called only if {@link #ENABLED}.
+     */
+    static void add(final Key key, final Counter counter, final long delta) {
+        COUNTERS.get(schemaOf(key)).add(counter, delta);
+    }
+
+    /**
+     * Specifies the counted events.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    public enum Counter {
+
+        /**
+         * Counts the instantiations of {@link EnumMapped.Mapper}s (builders).
+         */
+        BUILDERS,
+
+        /**
+         * Counts the instantiations of {@link EnumMapped}s (built instances).
+         */
+        BUILDS,
+
+        /**
+         * Counts the builders that were branched from an existing {@link EnumMapped}.
+         */
+        BRANCHES,
+
+        /**
+         * Counts the bulk updates of a {@link Mapped.Mutable} by a map.
+         */
+        BULK_SETS,
+
+        /**
+         * Counts the values that were rejected by the validation.
+         */
+        VALIDATION_FAILURES,
+
+        /**
+         * Counts the entries that were copied into a map backing a {@link Mapped} or a relating builder.
+         */
+        COPIED_ENTRIES,
+
+        /**
+         * Counts the results that were skipped by a {@linkplain Combiner#distinct(long) distinct} {@link Combiner}.
+         */
+        DUPLICATES
+    }
+
+    private static class Counters {
+
+        private final StripedCounter[] counters = new StripedCounter[Counter.values().length];
+
+        private Counters() {
+            for (int index = 0; index < counters.length; ++index) {
+                counters[index] = new StripedCounter();
+            }
+        }
+
+        private void add(final Counter counter, final long delta) {
+            counters[counter.ordinal()].add(delta);
+        }
+
+        private long get(final Counter counter) {
+            return counters[counter.ordinal()].sum();
+        }
+
+        private void reset() {
+            for (final StripedCounter counter : counters) {
+                counter.reset();
+            }
+        }
+    }
+}
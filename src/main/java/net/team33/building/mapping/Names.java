@@ -0,0 +1,33 @@
+package net.team33.building.mapping;
+
+/**
+ * Provides conversions of key names.
+ */
+final class Names {
+
+    private static final char SEPARATOR = '_';
+
+    private Names() {
+    }
+
+    /**
+     * Converts a constant-like name (e.g. {@code FIRST_NAME}) into a lower camel case name (e.g. {@code firstName}),
+     * as commonly used for bean properties or XML elements.
+     */
+    static String camelCase(final String name) {
+        final StringBuilder result = new StringBuilder(name.length());
+        boolean upper = false;
+        for (int index = 0; index < name.length(); ++index) {
+            final char c = name.charAt(index);
+            if (SEPARATOR == c) {
+                upper = (0 < result.length());
+            } else if (upper) {
+                result.append(Character.toUpperCase(c));
+                upper = false;
+            } else {
+                result.append(Character.toLowerCase(c));
+            }
+        }
+        return result.toString();
+    }
+}
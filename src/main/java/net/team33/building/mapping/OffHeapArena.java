@@ -0,0 +1,231 @@
+package net.team33.building.mapping;
+
+import java.io.Closeable;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+
+/**
+ * Stores records of the same {@linkplain Key schema} outside of the Java heap, in direct {@link ByteBuffer}s, and
+ * supplies them as lightweight {@linkplain Record views}. Intended to keep large amounts of rarely modified
+ * records out of the view of the garbage collector.
+ * <p/>
+ * Any record takes a slot of fixed width derived from the schema: a bitmap marking {@code null} values followed by
+ * the values of fixed width (primitive wrappers, enums as ordinals, {@link java.util.Date}s as milliseconds) and a
+ * reference to any value of variable width (strings), which is stored in a separate string area. Values are decoded
+ * on each access, so primitives are boxed and strings are instantiated only when retrieved.
+ * <p/>
+ * Any record is stored completely, properties not covered by a stored record are set to their
+ * {@linkplain Key#getInitial() defaults}.
+ * <p/>
+ * The memory is allocated in chunks and released all at once by {@link #close()}, which invalidates all
+ * records retrieved from this arena. The native memory of a chunk is actually freed when the garbage collector
+ * reclaims the (few) buffer objects.
+ * <p/>
+ * Storing records is synchronized, records may be read concurrently.
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ */
+public class OffHeapArena<K extends Enum<K> & Key> implements Closeable {
+
+    static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    // A reference to a value of variable width: the index of its string chunk and its index within that chunk ...
+    private static final int REFERENCE_WIDTH = 8;
+
+    private static final String CLOSED = "arena is closed";
+    private static final String CHUNK_TOO_SMALL = "chunk size <%d> is less than the record width <%d>";
+
+    private final Class<K> keyClass;
+    private final List<K> keys;
+    private final FixedLayout<K> layout;
+    private final int chunkSize;
+    private final int recordsPerChunk;
+
+    private volatile ByteBuffer[] recordChunks = new ByteBuffer[0];
+    private volatile ByteBuffer[] stringChunks = new ByteBuffer[0];
+    private volatile boolean closed = false;
+    private int size = 0;
+    private int stringEnd = 0;
+    private long allocated = 0;
+
+    /**
+     * Initiates a new, empty arena for a given {@code keyClass}.
+     *
+     * @throws NullPointerException     if {@code keyClass} is {@code null}.
+     * @throws IllegalArgumentException if a value class is not supported.
+     */
+    public OffHeapArena(final Class<K> keyClass) {
+        this(keyClass, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Initiates a new, empty arena for a given {@code keyClass}, allocating memory in chunks of a given size.
+     *
+     * @throws NullPointerException     if {@code keyClass} is {@code null}.
+     * @throws IllegalArgumentException if a value class is not supported or if {@code chunkSize} is too small.
+     */
+    public OffHeapArena(final Class<K> keyClass, final int chunkSize) {
+        this.keyClass = keyClass;
+        this.keys = asList(keyClass.getEnumConstants());
+        this.layout = FixedLayout.of(keyClass, REFERENCE_WIDTH);
+        if (chunkSize < layout.width()) {
+            throw new IllegalArgumentException(format(CHUNK_TOO_SMALL, chunkSize, layout.width()));
+        }
+        this.chunkSize = chunkSize;
+        this.recordsPerChunk = chunkSize / layout.width();
+    }
+
+    /**
+     * Supplies the number of stored records.
+     */
+    public final synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Supplies the number of bytes of native memory allocated so far.
+     */
+    public final synchronized long allocated() {
+        return allocated;
+    }
+
+    /**
+     * Stores a copy of a given {@code record}. Properties not covered by the {@code record} will be set to their
+     * {@linkplain Key#getInitial() defaults}.
+     *
+     * @return A view on the stored record.
+     * @throws NullPointerException  if {@code record} is {@code null} or contains {@code null} for a key that is not
+     *                               {@linkplain Key#isNullable() nullable}.
+     * @throws ClassCastException    if a value is not an instance of the value class of its key.
+     * @throws IllegalStateException if this arena is {@linkplain #close() closed}.
+     */
+    public final synchronized Record<K> store(final Mapped<K> record) {
+        final Map<K, Object> values = Mapped.copy(record.asMap(), keys, true, false, new EnumMap<K, Object>(keyClass));
+        checkOpen();
+        final int chunk = size / recordsPerChunk;
+        if (chunk == recordChunks.length) {
+            recordChunks = appended(recordChunks, chunkSize);
+        }
+        final ByteBuffer target = recordChunks[chunk];
+        final int start = (size % recordsPerChunk) * layout.width();
+        layout.put(target, start, values);
+        for (final K key : keys) {
+            final ValueType type = layout.type(key);
+            final Object value = values.get(key);
+            if ((ValueType.VARIABLE == type.width()) && (null != value)) {
+                putReference(target, layout.index(start, key), type, value);
+            }
+        }
+        size += 1;
+        return new Record<>(this, chunk, start);
+    }
+
+    private void putReference(final ByteBuffer target, final int index, final ValueType type, final Object value) {
+        final int length = type.sizeOf(value);
+        int chunk = stringChunks.length - 1;
+        if ((0 > chunk) || (length > (stringChunks[chunk].capacity() - stringEnd))) {
+            // a value exceeding the chunk size gets a chunk of its own ...
+            stringChunks = appended(stringChunks, Math.max(chunkSize, length));
+            stringEnd = 0;
+            chunk += 1;
+        }
+        final ByteBuffer area = stringChunks[chunk].duplicate();
+        ((Buffer) area).position(stringEnd);
+        type.write(area, value);
+        target.putInt(index, chunk);
+        target.putInt(index + 4, stringEnd);
+        stringEnd += length;
+    }
+
+    private ByteBuffer[] appended(final ByteBuffer[] chunks, final int capacity) {
+        final ByteBuffer[] result = Arrays.copyOf(chunks, chunks.length + 1);
+        result[chunks.length] = ByteBuffer.allocateDirect(capacity);
+        allocated += capacity;
+        return result;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException(CLOSED);
+        }
+    }
+
+    private Object value(final int chunk, final int start, final K key) {
+        // Read the chunks before checking, close() replaces them after marking this as closed ...
+        final ByteBuffer[] chunks = recordChunks;
+        final ByteBuffer[] strings = stringChunks;
+        checkOpen();
+        final ByteBuffer source = chunks[chunk];
+        final ValueType type = layout.type(key);
+        if (ValueType.VARIABLE != type.width()) {
+            return layout.get(source, start, key);
+        } else if (layout.isNull(source, start, key)) {
+            return null;
+        } else {
+            final int index = layout.index(start, key);
+            final ByteBuffer area = strings[source.getInt(index)].duplicate();
+            ((Buffer) area).position(source.getInt(index + 4));
+            return type.read(area, null);
+        }
+    }
+
+    /**
+     * Releases the memory of all records and invalidates them. Any subsequent access to a record of this arena
+     * will cause an {@link IllegalStateException}.
+     */
+    @Override
+    public final synchronized void close() {
+        closed = true;
+        recordChunks = new ByteBuffer[0];
+        stringChunks = new ByteBuffer[0];
+        size = 0;
+        stringEnd = 0;
+    }
+
+    /**
+     * A view on a record stored in an {@link OffHeapArena}. An instance itself only takes a few bytes of the heap.
+     *
+     * @param <K> The specific type of the keys representing the properties.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    public static final class Record<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
+
+        private final OffHeapArena<K> arena;
+        private final int chunk;
+        private final int start;
+        private Map<K, Object> map = null;
+
+        private Record(final OffHeapArena<K> arena, final int chunk, final int start) {
+            this.arena = arena;
+            this.chunk = chunk;
+            this.start = start;
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p/>
+         * Supplies a view that retrieves the values from the arena on each access.
+         * Any access will cause an {@link IllegalStateException} if the arena is {@linkplain OffHeapArena#close()
+         * closed}.
+         */
+        @Override
+        public Map<K, Object> asMap() {
+            if (null == map) {
+                map = new EnumView<K>(arena.layout.keys()) {
+                    @Override
+                    Object value(final K key) {
+                        return arena.value(chunk, start, key);
+                    }
+                };
+            }
+            return map;
+        }
+    }
+}
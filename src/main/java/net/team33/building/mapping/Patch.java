@@ -0,0 +1,161 @@
+package net.team33.building.mapping;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * A compact, immutable set of changes to a record of a specific {@linkplain Key schema}: a bitmask of the changed
+ * keys (by ordinal) plus their new values.
+ * <p/>
+ * A patch is the {@linkplain #diff(Mapped, Mapped) difference} between two records or the
+ * {@linkplain EnumMapped.Mapper#patch() modifications} of a builder. It may be
+ * {@linkplain EnumMapped.Mapper#apply(Patch) applied} to a builder at a cost that scales with the number of changes.
+ * <p/>
+ * As a {@link Mapped}, a patch contains the changed entries only, so e.g. a {@link BinaryCodec} encodes nothing but
+ * the changes.
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ */
+public final class Patch<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
+
+    private final K[] universe;
+    private final long[] mask;
+    private final K[] keys;
+    private final Object[] values;
+    private Map<K, Object> map = null;
+
+    private Patch(final K[] universe, final long[] mask, final K[] keys, final Object[] values) {
+        this.universe = universe;
+        this.mask = mask;
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Determines the changes from an {@code origin} to a {@code target} record of the same schema: any entry of the
+     * {@code target} whose key is missing in the {@code origin} or whose value differs from the value of the
+     * {@code origin}. Entries missing in the {@code target} are not part of the patch.
+     *
+     * @throws NullPointerException if {@code origin} or {@code target} is {@code null}.
+     */
+    public static <K extends Enum<K> & Key> Patch<K> diff(final Mapped<K> origin, final Mapped<K> target) {
+        final Map<K, Object> before = origin.asMap();
+        final Map<K, Object> after = target.asMap();
+        if (after.isEmpty()) {
+            // The erasure of <K> is Enum, and an empty array will never store anything ...
+            // noinspection unchecked
+            final K[] none = (K[]) new Enum<?>[0];
+            return new Patch<>(none, new long[0], none, new Object[0]);
+        }
+        final K[] universe = after.keySet().iterator().next().getDeclaringClass().getEnumConstants();
+        final long[] mask = new long[(universe.length + 63) >>> 6];
+        final K[] keys = Arrays.copyOf(universe, after.size());
+        final Object[] values = new Object[keys.length];
+        int size = 0;
+        for (final K key : universe) {
+            if (after.containsKey(key)) {
+                final Object value = after.get(key);
+                if (!before.containsKey(key) || !equal(value, before.get(key))) {
+                    mask[key.ordinal() >>> 6] |= 1L << key.ordinal();
+                    keys[size] = key;
+                    values[size] = value;
+                    size += 1;
+                }
+            }
+        }
+        return new Patch<>(universe, mask, Arrays.copyOf(keys, size), Arrays.copyOf(values, size));
+    }
+
+    /**
+     * Supplies a patch containing the entries of given {@code values} whose keys' ordinals are marked in a given
+     * {@code modified} bit set.
+     */
+    static <K extends Enum<K> & Key> Patch<K> of(final K[] universe, final Map<K, Object> values,
+                                                 final BitSet modified) {
+        final long[] mask = Arrays.copyOf(modified.toLongArray(), (universe.length + 63) >>> 6);
+        final K[] keys = Arrays.copyOf(universe, modified.cardinality());
+        final Object[] result = new Object[keys.length];
+        int size = 0;
+        for (int ordinal = modified.nextSetBit(0); 0 <= ordinal; ordinal = modified.nextSetBit(ordinal + 1)) {
+            keys[size] = universe[ordinal];
+            result[size] = values.get(universe[ordinal]);
+            size += 1;
+        }
+        return new Patch<>(universe, mask, keys, result);
+    }
+
+    private static boolean equal(final Object left, final Object right) {
+        return (null == left) ? (null == right) : left.equals(right);
+    }
+
+    /**
+     * Supplies the number of changes.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Indicates weather or not this patch contains any change.
+     */
+    public boolean isEmpty() {
+        return 0 == values.length;
+    }
+
+    /**
+     * Indicates weather or not this patch contains a change of the value associated with a given {@code key}.
+     */
+    public boolean isChanged(final K key) {
+        final int word = key.ordinal() >>> 6;
+        return (word < mask.length) && (0 != (mask[word] & (1L << key.ordinal())));
+    }
+
+    /**
+     * Supplies the changed key at a given position {@code index}, with respect to the order of the ordinals.
+     */
+    K key(final int index) {
+        return keys[index];
+    }
+
+    /**
+     * Supplies the new value at a given position {@code index}, with respect to the order of the ordinals.
+     */
+    Object value(final int index) {
+        return values[index];
+    }
+
+    /**
+     * Determines the position of a changed {@code key} by counting the changed keys of lower ordinals.
+     */
+    private int rank(final K key) {
+        final int word = key.ordinal() >>> 6;
+        int result = Long.bitCount(mask[word] & ((1L << key.ordinal()) - 1));
+        for (int index = 0; index < word; ++index) {
+            result += Long.bitCount(mask[index]);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Supplies a view that contains the changed entries only.
+     */
+    @Override
+    public Map<K, Object> asMap() {
+        if (null == map) {
+            final boolean[] contained = new boolean[universe.length];
+            for (final K key : keys) {
+                contained[key.ordinal()] = true;
+            }
+            map = new EnumView<K>(keys, contained) {
+                @Override
+                Object value(final K key) {
+                    return values[rank(key)];
+                }
+            };
+        }
+        return map;
+    }
+}
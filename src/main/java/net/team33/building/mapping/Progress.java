@@ -0,0 +1,270 @@
+package net.team33.building.mapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Tracks the progress of a long running iteration (a 'run'), e.g. of a {@link Combiner}, and notifies a
+ * {@link Listener} at its start and end, on failures and periodically after each batch of steps.
+ * <p/>
+ * In addition, the progress is recorded as Java Flight Recorder events if the JVM is started with the system
+ * property {@value #PROPERTY} set to {@code true} and provides the Flight Recorder API ({@code jdk.jfr}). The setting
+ * is evaluated once. Runs are only tracked at all if there is a listener or the recording is enabled, so the
+ * telemetry costs (practically) nothing when not in use.
+ * <p/>
+ * An instance is intended to be used by a single thread, the one running the iteration.
+ */
+public final class Progress {
+
+    /**
+     * The name of the system property that enables the Flight Recorder events.
+     */
+    public static final String PROPERTY = "net.team33.building.jfr";
+
+    /**
+     * The default number of steps of a batch.
+     */
+    public static final int DEFAULT_BATCH = 1024;
+
+    private static final String ILLEGAL_BATCH = "batch must be positive but was %d";
+    private static final Listener NONE = new Listener() {
+        @Override
+        public void started(final Progress progress) {
+        }
+
+        @Override
+        public void progressed(final Progress progress) {
+        }
+
+        @Override
+        public void failed(final Progress progress, final Object cause) {
+        }
+
+        @Override
+        public void finished(final Progress progress) {
+        }
+    };
+    private static final Listener RECORDER = FlightRecorder.create(Boolean.getBoolean(PROPERTY));
+
+    private final String name;
+    private final long size;
+    private final int batch;
+    private final Listener listener;
+    private final long startNanos = System.nanoTime();
+    private long index = 0;
+    private long failures = 0;
+    private long batchNanos = 0;
+    private long batchLatency = 0;
+    private long endNanos = 0;
+    private boolean finished = false;
+
+    private Progress(final String name, final long size, final int batch, final Listener listener) {
+        if (0 >= batch) {
+            throw new IllegalArgumentException(format(ILLEGAL_BATCH, batch));
+        }
+        this.name = name;
+        this.size = size;
+        this.batch = batch;
+        this.listener = listener;
+    }
+
+    /**
+     * Indicates weather or not the progress is recorded as Flight Recorder events.
+     */
+    public static boolean isRecording() {
+        return null != RECORDER;
+    }
+
+    /**
+     * Indicates weather or not a run would be tracked given a specific {@code listener}, which may be {@code null}.
+     */
+    public static boolean isTracked(final Listener listener) {
+        return (null != listener) || (null != RECORDER);
+    }
+
+    /**
+     * Starts tracking a run named {@code name} of an expected number of steps ({@code size}, negative if unknown)
+     * and notifies a {@code listener} (may be {@code null}) and the Flight Recorder (if {@linkplain #isRecording()
+     * enabled}) after each {@code batch} of steps.
+     *
+     * @throws IllegalArgumentException if {@code batch} is not positive.
+     */
+    public static Progress start(final String name, final long size, final int batch, final Listener listener) {
+        final Progress result = new Progress(name, size, batch, combined(listener, RECORDER));
+        result.listener.started(result);
+        return result;
+    }
+
+    private static Listener combined(final Listener first, final Listener second) {
+        if (null == first) {
+            return (null == second) ? NONE : second;
+        } else if (null == second) {
+            return first;
+        } else {
+            return new Listener() {
+                @Override
+                public void started(final Progress progress) {
+                    first.started(progress);
+                    second.started(progress);
+                }
+
+                @Override
+                public void progressed(final Progress progress) {
+                    first.progressed(progress);
+                    second.progressed(progress);
+                }
+
+                @Override
+                public void failed(final Progress progress, final Object cause) {
+                    first.failed(progress, cause);
+                    second.failed(progress, cause);
+                }
+
+                @Override
+                public void finished(final Progress progress) {
+                    first.finished(progress);
+                    second.finished(progress);
+                }
+            };
+        }
+    }
+
+    /**
+     * Registers a completed step that took a given number of nanoseconds and notifies the listener if a batch is
+     * complete.
+     */
+    public void step(final long nanos) {
+        index += 1;
+        batchNanos += nanos;
+        if (0 == (index % batch)) {
+            batchLatency = batchNanos / batch;
+            batchNanos = 0;
+            listener.progressed(this);
+        }
+    }
+
+    /**
+     * Registers a failure of the current step and notifies the listener.
+     *
+     * @param cause The cause of the failure, e.g. an exception, may be {@code null}.
+     */
+    public void fail(final Object cause) {
+        failures += 1;
+        listener.failed(this, cause);
+    }
+
+    /**
+     * Registers the end of the run and notifies the listener. Has no effect if the run is already finished.
+     */
+    public void finish() {
+        if (!finished) {
+            endNanos = System.nanoTime();
+            finished = true;
+            listener.finished(this);
+        }
+    }
+
+    /**
+     * Supplies the name of the run.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Supplies the number of steps completed so far.
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * Supplies the expected number of steps or a negative value if unknown.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Supplies the number of failures registered so far.
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * Supplies the nanoseconds elapsed since the start (until the end, if finished).
+     */
+    public long getElapsedNanos() {
+        return (finished ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * Supplies the average number of steps per second so far.
+     */
+    public double getThroughput() {
+        final long elapsed = getElapsedNanos();
+        return (0 == elapsed) ? 0.0 : ((index * (double) TimeUnit.SECONDS.toNanos(1)) / elapsed);
+    }
+
+    /**
+     * Supplies the average nanoseconds per step within the last completed batch or {@code 0} if no batch is
+     * completed so far.
+     */
+    public long getBatchLatency() {
+        return batchLatency;
+    }
+
+    /**
+     * Supplies the estimated nanoseconds until the end, based on the throughput so far, or a negative value if
+     * the {@linkplain #getSize() size} is unknown or nothing is completed so far.
+     */
+    public long getRemainingNanos() {
+        if ((0 > size) || (0 == index)) {
+            return -1;
+        } else {
+            return (long) ((Math.max(0, size - index) * (double) getElapsedNanos()) / index);
+        }
+    }
+
+    /**
+     * Indicates weather or not the run is finished.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public String toString() {
+        return format("Progress(%s: %d of %d, %d failures)", name, index, size, failures);
+    }
+
+    /**
+     * Is notified about the progress of a run. Intended to be cheap, as it is called by the thread running the
+     * iteration.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    public interface Listener {
+
+        /**
+         * Is called once at the start of a run.
+         */
+        void started(Progress progress);
+
+        /**
+         * Is called after each completed batch of steps.
+         */
+        void progressed(Progress progress);
+
+        /**
+         * Is called on each failure, the {@code cause} may be {@code null}.
+         */
+        void failed(Progress progress, Object cause);
+
+        /**
+         * Is called once at the end of a run, if the run is iterated to its end.
+         */
+        void finished(Progress progress);
+    }
+}
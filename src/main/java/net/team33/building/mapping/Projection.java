@@ -0,0 +1,121 @@
+package net.team33.building.mapping;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.EnumSet.copyOf;
+
+/**
+ * Specifies a subset of the keys of a {@linkplain Key schema} and supplies read-only {@linkplain #view(Mapped) views}
+ * of records onto that subset without copying any values.
+ * <p/>
+ * A view contains exactly the keys of the projection. It retrieves the values from the origin on each access, so it
+ * reflects subsequent modifications of a mutable origin. A key of the projection that is missing in the origin is
+ * associated with its {@linkplain Key#getInitial() default value}, so a projection onto a larger set of keys widens
+ * a record.
+ * <p/>
+ * A projection precomputes everything that depends on its keys only and is intended to be created once (e.g. as a
+ * constant) and used for many records. It is immutable and thread-safe.
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ */
+public final class Projection<K extends Enum<K> & Key> {
+
+    private static final String NO_KEYS = "a projection needs at least one key";
+
+    private final Set<K> keySet;
+    private final K[] keys;
+    private final boolean[] contained;
+
+    private Projection(final Set<K> keySet) {
+        if (keySet.isEmpty()) {
+            throw new IllegalArgumentException(NO_KEYS);
+        }
+        final K[] universe = keySet.iterator().next().getDeclaringClass().getEnumConstants();
+        this.keySet = unmodifiableSet(keySet);
+        this.contained = new boolean[universe.length];
+        this.keys = keySet.toArray(Arrays.copyOf(universe, 0));
+        for (final K key : keys) {
+            contained[key.ordinal()] = true;
+        }
+    }
+
+    /**
+     * Supplies a projection onto a given set of {@code keys}.
+     *
+     * @throws NullPointerException     if {@code keys} is or contains {@code null}.
+     * @throws IllegalArgumentException if {@code keys} is empty.
+     */
+    public static <K extends Enum<K> & Key> Projection<K> of(final Collection<K> keys) {
+        return new Projection<>(copyOf(keys));
+    }
+
+    /**
+     * Supplies a projection onto the given keys.
+     *
+     * @throws NullPointerException if a key is {@code null}.
+     */
+    @SafeVarargs
+    public static <K extends Enum<K> & Key> Projection<K> of(final K first, final K... more) {
+        return new Projection<>(EnumSet.of(first, more));
+    }
+
+    /**
+     * Supplies the keys of this projection.
+     */
+    public Set<K> keySet() {
+        // Already is immutable ...
+        // noinspection ReturnOfCollectionOrArrayField
+        return keySet;
+    }
+
+    /**
+     * Supplies a view of a given {@code origin} onto the keys of this projection.
+     *
+     * @throws NullPointerException if {@code origin} is {@code null}.
+     */
+    public View<K> view(final Mapped<K> origin) {
+        return new View<>(this, origin.asMap());
+    }
+
+    /**
+     * A read-only view of a record onto the keys of a {@link Projection}.
+     *
+     * @param <K> The specific type of the keys representing the properties.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    public static final class View<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
+
+        private final Projection<K> projection;
+        private final Map<K, Object> origin;
+        private Map<K, Object> map = null;
+
+        private View(final Projection<K> projection, final Map<K, Object> origin) {
+            this.projection = projection;
+            this.origin = origin;
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p/>
+         * Supplies a view that retrieves the values from the origin on each access.
+         */
+        @Override
+        public Map<K, Object> asMap() {
+            if (null == map) {
+                map = new EnumView<K>(projection.keys, projection.contained) {
+                    @Override
+                    Object value(final K key) {
+                        final Object result = origin.get(key);
+                        return ((null != result) || origin.containsKey(key)) ? result : KeySchema.initial(key);
+                    }
+                };
+            }
+            return map;
+        }
+    }
+}
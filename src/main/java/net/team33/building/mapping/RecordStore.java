@@ -0,0 +1,407 @@
+package net.team33.building.mapping;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * A file based, append-only store of records of the same {@linkplain Key schema}.
+ * <p/>
+ * Records are appended through a {@link FileChannel} and read through {@link MappedByteBuffer}s as lazily decoded
+ * {@link Mapped} views, so that (re)opening a store does not need to decode any record.
+ * <p/>
+ * If the {@linkplain Key#getValueClass() value class} of any key has a fixed width (primitive wrappers, enums and
+ * {@link java.util.Date}), records are stored in a fixed width layout and located by their index. The views of such
+ * records decode a single value each time it is retrieved. Otherwise records are stored in the form of a
+ * {@link BinaryCodec} and located by an index of offsets, which is restored on opening by skipping from record to
+ * record. The views of such records decode the whole record when first accessed.
+ * <p/>
+ * Any record is stored completely, properties not covered by an appended record are set to their
+ * {@linkplain Key#getInitial() defaults}.
+ * <p/>
+ * An incomplete record at the end of the file (e.g. after a crash) is discarded on opening, just like anything
+ * following a length that can't be valid (e.g. a zero-filled or otherwise corrupt tail).
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ */
+public class RecordStore<K extends Enum<K> & Key> implements Closeable {
+
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private static final int MAGIC = 0x54333352; // "T33R"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int VARIABLE_LAYOUT = 0;
+    private static final int FIXED_LAYOUT = 1;
+    private static final int PADDING = -1;
+    private static final int LENGTH_SIZE = 4;
+
+    private static final String ILLEGAL_FILE = "<%s> is not a record store";
+    private static final String ILLEGAL_VERSION = "unsupported version <%d> of <%s>";
+    private static final String ILLEGAL_SCHEMA = "<%s> does not match the schema <%s>";
+    private static final String TOO_LARGE = "record of <%d> bytes exceeds the segment size <%d>";
+    private static final String ILLEGAL_INDEX = "index <%d> is not within [0, %d[";
+
+    private final Class<K> keyClass;
+    private final List<K> keys;
+    private final BinaryCodec<K> codec;
+    private final FixedLayout<K> layout;
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<>(1);
+
+    private long[] offsets = new long[16];
+    private int size = 0;
+    private long end = HEADER_SIZE;
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+    private RecordStore(final FileChannel channel, final Class<K> keyClass, final int segmentSize)
+            throws IOException {
+
+        this.keyClass = keyClass;
+        this.keys = asList(keyClass.getEnumConstants());
+        this.codec = new BinaryCodec<>(keyClass);
+        this.layout = FixedLayout.of(keyClass);
+        this.channel = channel;
+        if (0 == channel.size()) {
+            this.segmentSize = segmentSize;
+            writeHeader();
+        } else {
+            this.segmentSize = readHeader();
+            recover();
+        }
+    }
+
+    /**
+     * Opens (or creates) the store located by a given {@code path} for a given {@code keyClass}.
+     *
+     * @throws IOException              if the file can't be accessed.
+     * @throws IllegalArgumentException if the file is not a store or does not match the schema.
+     */
+    public static <K extends Enum<K> & Key> RecordStore<K> open(final Path path, final Class<K> keyClass)
+            throws IOException {
+        return open(path, keyClass, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens (or creates) a store using a specific segment size (the size of a single memory mapping) if created.
+     */
+    static <K extends Enum<K> & Key> RecordStore<K> open(
+            final Path path, final Class<K> keyClass, final int segmentSize) throws IOException {
+
+        final FileChannel channel = FileChannel.open(path, READ, WRITE, CREATE);
+        try {
+            return new RecordStore<>(channel, keyClass, segmentSize);
+        } catch (final IOException | RuntimeException caught) {
+            channel.close();
+            throw caught;
+        }
+    }
+
+    private int layoutType() {
+        return (null == layout) ? VARIABLE_LAYOUT : FIXED_LAYOUT;
+    }
+
+    private void writeHeader() throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC)
+              .putInt(VERSION)
+              .putLong(codec.getFingerprint())
+              .putInt(layoutType())
+              .putInt((null == layout) ? 0 : layout.width())
+              .putInt(segmentSize);
+        // Buffer methods are called via Buffer, as the covariant overrides of later JDKs don't exist in Java 7/8 ...
+        ((Buffer) header).clear();
+        write(header, 0);
+    }
+
+    private int readHeader() throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && (0 <= channel.read(header, header.position()))) {
+            // keep on reading ...
+        }
+        ((Buffer) header).flip();
+        if ((HEADER_SIZE != header.remaining()) || (MAGIC != header.getInt())) {
+            throw new IllegalArgumentException(format(ILLEGAL_FILE, channel));
+        }
+        final int version = header.getInt();
+        if (VERSION != version) {
+            throw new IllegalArgumentException(format(ILLEGAL_VERSION, version, channel));
+        }
+        if ((codec.getFingerprint() != header.getLong()) || (layoutType() != header.getInt())
+                || (((null == layout) ? 0 : layout.width()) != header.getInt())) {
+            throw new IllegalArgumentException(format(ILLEGAL_SCHEMA, channel, keyClass.getName()));
+        }
+        return header.getInt();
+    }
+
+    private void recover() throws IOException {
+        final long fileSize = channel.size();
+        end = HEADER_SIZE;
+        if (null == layout) {
+            while (true) {
+                final long segmentEnd = segmentEnd(end);
+                if ((segmentEnd - end) < LENGTH_SIZE) {
+                    end = segmentEnd;
+                } else if ((fileSize - end) < LENGTH_SIZE) {
+                    break;
+                } else {
+                    final int length = segment(end, end + LENGTH_SIZE).getInt(local(end));
+                    if (PADDING == length) {
+                        end = segmentEnd;
+                    } else if ((codec.minSize() <= length) && (length <= (fileSize - end - LENGTH_SIZE))) {
+                        addOffset(end);
+                        end += LENGTH_SIZE + length;
+                    } else {
+                        break;
+                    }
+                }
+            }
+        } else {
+            final long data = fileSize - HEADER_SIZE;
+            final int perSegment = segmentSize / layout.width();
+            final long full = data / segmentSize;
+            final long rest = (data % segmentSize) / layout.width();
+            size = (int) ((full * perSegment) + rest);
+            end = HEADER_SIZE + (full * segmentSize) + (rest * layout.width());
+        }
+        if (end < fileSize) {
+            channel.truncate(end);
+        }
+    }
+
+    private void addOffset(final long offset) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size + (size >> 1));
+        }
+        offsets[size++] = offset;
+    }
+
+    private long segmentStart(final long position) {
+        return HEADER_SIZE + (((position - HEADER_SIZE) / segmentSize) * segmentSize);
+    }
+
+    private long segmentEnd(final long position) {
+        return segmentStart(position) + segmentSize;
+    }
+
+    private int local(final long position) {
+        return (int) ((position - HEADER_SIZE) % segmentSize);
+    }
+
+    /**
+     * Supplies a mapping of the segment containing {@code position} that covers at least up to {@code limit}.
+     */
+    private MappedByteBuffer segment(final long position, final long limit) throws IOException {
+        final int index = (int) ((position - HEADER_SIZE) / segmentSize);
+        while (segments.size() <= index) {
+            segments.add(null);
+        }
+        final long start = segmentStart(position);
+        MappedByteBuffer result = segments.get(index);
+        if ((null == result) || (result.capacity() < (limit - start))) {
+            final long length = Math.min(segmentSize, Math.max(limit, Math.min(channel.size(), start + segmentSize))
+                    - start);
+            result = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            segments.set(index, result);
+        }
+        return result;
+    }
+
+    /**
+     * Supplies the number of records.
+     */
+    public final synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Indicates weather or not the records are stored in a fixed width layout.
+     */
+    public final boolean isFixedWidth() {
+        return null != layout;
+    }
+
+    /**
+     * Appends a record. Properties not covered by the {@code record} will be set to their
+     * {@linkplain Key#getInitial() defaults}.
+     *
+     * @return The index of the appended record.
+     * @throws IOException              if the file can't be written.
+     * @throws NullPointerException     if {@code record} is {@code null} or contains {@code null} for a key that is
+     *                                  not {@linkplain Key#isNullable() nullable}.
+     * @throws ClassCastException       if a value is not an instance of the value class of its key.
+     * @throws IllegalArgumentException if the encoded record exceeds the segment size.
+     */
+    public final synchronized int append(final Mapped<K> record) throws IOException {
+        final Map<K, Object> values = Mapped.copy(record.asMap(), keys, true, false, new EnumMap<K, Object>(keyClass));
+        if (null == layout) {
+            final int length = codec.sizeOf(values);
+            final long position = reserve(LENGTH_SIZE + length);
+            prepare(LENGTH_SIZE + length).putInt(length);
+            codec.encode(values, buffer);
+            ((Buffer) buffer).flip();
+            write(buffer, position);
+            addOffset(position);
+            return size - 1;
+        } else {
+            final long position = reserve(layout.width());
+            layout.put(prepare(layout.width()), 0, values);
+            ((Buffer) buffer).limit(layout.width());
+            write(buffer, position);
+            return size++;
+        }
+    }
+
+    private ByteBuffer prepare(final int length) {
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(Math.max(length, 2 * buffer.capacity()));
+        }
+        ((Buffer) buffer).clear();
+        return buffer;
+    }
+
+    /**
+     * Reserves space for {@code length} bytes at the end of the file, so that they will not cross a segment
+     * boundary.
+     *
+     * @return The position of the reserved space.
+     */
+    private long reserve(final int length) throws IOException {
+        if (length > segmentSize) {
+            throw new IllegalArgumentException(format(TOO_LARGE, length, segmentSize));
+        }
+        final long segmentEnd = segmentEnd(end);
+        if ((end + length) > segmentEnd) {
+            if ((null == layout) && ((segmentEnd - end) >= LENGTH_SIZE)) {
+                final ByteBuffer padding = ByteBuffer.allocate(LENGTH_SIZE).putInt(PADDING);
+                ((Buffer) padding).flip();
+                write(padding, end);
+            }
+            end = segmentEnd;
+        }
+        final long result = end;
+        end += length;
+        return result;
+    }
+
+    private void write(final ByteBuffer source, final long position) throws IOException {
+        long next = position;
+        while (source.hasRemaining()) {
+            next += channel.write(source, next);
+        }
+    }
+
+    /**
+     * Supplies a lazily decoded view on the record at a given {@code index}.
+     *
+     * @throws IOException               if the file can't be mapped.
+     * @throws IndexOutOfBoundsException if there is no such record.
+     */
+    public final synchronized Mapped.Immutable<K> get(final int index) throws IOException {
+        if ((index < 0) || (size <= index)) {
+            throw new IndexOutOfBoundsException(format(ILLEGAL_INDEX, index, size));
+        }
+        if (null == layout) {
+            final long position = offsets[index];
+            final MappedByteBuffer segment = segment(position, position + LENGTH_SIZE);
+            final int length = segment.getInt(local(position));
+            return new VariableRecord<>(codec, keyClass,
+                                        segment(position, position + LENGTH_SIZE + length),
+                                        local(position) + LENGTH_SIZE);
+        } else {
+            final int perSegment = segmentSize / layout.width();
+            final long position = HEADER_SIZE + ((long) (index / perSegment) * segmentSize)
+                    + ((long) (index % perSegment) * layout.width());
+            return new FixedRecord<>(layout, segment(position, position + layout.width()), local(position));
+        }
+    }
+
+    /**
+     * Forces any appended records to be written to the storage device.
+     */
+    public final synchronized void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Closes the underlying file channel.
+     * <p/>
+     * Views retrieved before remain readable as long as they are referenced, as the memory mappings are released
+     * by the garbage collector.
+     */
+    @Override
+    public final synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private static class FixedRecord<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
+
+        private final FixedLayout<K> layout;
+        private final ByteBuffer segment;
+        private final int start;
+        private Map<K, Object> map = null;
+
+        private FixedRecord(final FixedLayout<K> layout, final ByteBuffer segment, final int start) {
+            this.layout = layout;
+            this.segment = segment;
+            this.start = start;
+        }
+
+        @Override
+        public final Map<K, Object> asMap() {
+            if (null == map) {
+                map = new EnumView<K>(layout.keys()) {
+                    @Override
+                    Object value(final K key) {
+                        return layout.get(segment, start, key);
+                    }
+                };
+            }
+            return map;
+        }
+    }
+
+    private static class VariableRecord<K extends Enum<K> & Key> extends Mapped.Immutable<K> {
+
+        private final BinaryCodec<K> codec;
+        private final Class<K> keyClass;
+        private final ByteBuffer segment;
+        private final int start;
+        private volatile Map<K, Object> map = null;
+
+        private VariableRecord(final BinaryCodec<K> codec, final Class<K> keyClass,
+                               final ByteBuffer segment, final int start) {
+            this.codec = codec;
+            this.keyClass = keyClass;
+            this.segment = segment;
+            this.start = start;
+        }
+
+        @Override
+        public final Map<K, Object> asMap() {
+            if (null == map) {
+                final ByteBuffer source = segment.duplicate();
+                ((Buffer) source).position(start);
+                map = unmodifiableMap(codec.decode(source, new EnumMap<K, Object>(keyClass)));
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package net.team33.building.mapping;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that spreads its updates over several padded stripes selected by the updating thread, so that
+ * concurrent updates from different threads usually neither contend nor share a cache line.
+ */
+class StripedCounter {
+
+    private static final int PADDING = 8; // longs -> 64 bytes per stripe
+    private static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+
+    private final AtomicLongArray cells = new AtomicLongArray((STRIPES + 1) * PADDING);
+
+    private static int stripes(final int processors) {
+        int result = 1;
+        while ((result < (2 * processors)) && (result < 64)) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    private static int cell() {
+        long id = Thread.currentThread().getId();
+        id ^= (id >>> 17);
+        id *= 0x9E3779B97F4A7C15L;
+        // The first stripe is left unused as padding to whatever precedes the array ...
+        return (((int) (id >>> 32) & (STRIPES - 1)) + 1) * PADDING;
+    }
+
+    final void add(final long delta) {
+        cells.addAndGet(cell(), delta);
+    }
+
+    final long sum() {
+        long result = 0;
+        for (int stripe = 1; stripe <= STRIPES; ++stripe) {
+            result += cells.get(stripe * PADDING);
+        }
+        return result;
+    }
+
+    final void reset() {
+        for (int stripe = 1; stripe <= STRIPES; ++stripe) {
+            cells.set(stripe * PADDING, 0);
+        }
+    }
+}
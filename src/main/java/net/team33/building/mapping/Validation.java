@@ -0,0 +1,91 @@
+package net.team33.building.mapping;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Specifies how thoroughly values are {@linkplain Mapped#valid(Key, Object) validated} (checked against
+ * {@code null} and the {@linkplain Key#getValueClass() value class}) when set into an {@link EnumMapped.Mapper}
+ * (builder) or decoded by a {@link BinaryCodec} into a new instance.
+ * <p/>
+ * The policy may be chosen per schema by {@link #setDefault(Class, Validation)}, which affects builders initiated
+ * afterwards, or per builder by {@link EnumMapped.Mapper#setValidation(Validation)}.
+ * <p/>
+ * Anything but {@link #FULL} is intended for internal fast paths handling values that are known to be valid, e.g.
+ * because they were produced by the same service. Invalid values that pass unchecked will cause failures later on,
+ * typically {@link ClassCastException}s when retrieved.
+ */
+public enum Validation {
+
+    /**
+     * Validates any value (the default).
+     */
+    FULL {
+        @Override
+        boolean isDue() {
+            return true;
+        }
+    },
+
+    /**
+     * Validates about one of {@value #SAMPLE_RATE} values, chosen at random. Intended to detect systematic errors
+     * at a fraction of the cost.
+     */
+    SAMPLED {
+        @Override
+        boolean isDue() {
+            return 0 == ThreadLocalRandom.current().nextInt(SAMPLE_RATE);
+        }
+    },
+
+    /**
+     * Validates any value if assertions are enabled for this package, otherwise none.
+     */
+    ASSERTED {
+        @Override
+        boolean isDue() {
+            return ASSERTIONS;
+        }
+    },
+
+    /**
+     * Does not validate any value.
+     */
+    TRUSTED {
+        @Override
+        boolean isDue() {
+            return false;
+        }
+    };
+
+    /**
+     * The (average) number of values per validated value in {@link #SAMPLED} mode.
+     */
+    public static final int SAMPLE_RATE = 64;
+
+    private static final boolean ASSERTIONS = Validation.class.desiredAssertionStatus();
+
+    /**
+     * Supplies the policy for a given {@code keyClass}, which is {@link #FULL} unless
+     * {@linkplain #setDefault(Class, Validation) set} otherwise.
+     *
+     * @throws NullPointerException if {@code keyClass} is {@code null}.
+     */
+    public static <K extends Enum<K> & Key> Validation getDefault(final Class<K> keyClass) {
+        return KeySchema.of(keyClass).validation();
+    }
+
+    /**
+     * Sets the policy for a given {@code keyClass}, affecting builders initiated afterwards and any decoding of
+     * new instances by a {@link BinaryCodec}.
+     *
+     * @throws NullPointerException if {@code keyClass} or {@code validation} is {@code null}.
+     */
+    public static <K extends Enum<K> & Key> void setDefault(final Class<K> keyClass, final Validation validation) {
+        KeySchema.of(keyClass).setValidation(validation);
+    }
+
+    /**
+     * Indicates weather or not the next value is to be validated.
+     */
+    abstract boolean isDue();
+}
@@ -0,0 +1,535 @@
+package net.team33.building.mapping;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+import static java.lang.String.format;
+
+/**
+ * Specifies the value types that may be stored in a binary form and how to do so.
+ */
+enum ValueType {
+
+    BOOLEAN(Boolean.class, 1) {
+        @Override
+        int sizeOf(final Object value) {
+            return 1;
+        }
+
+        @Override
+        void write(final ByteBuffer target, final Object value) {
+            target.put((byte) (((Boolean) value) ? 1 : 0));
+        }
+
+        @Override
+        Object read(final ByteBuffer source, final Object[] constants) {
+            return 0 != source.get();
+        }
+
+        @Override
+        void put(final ByteBuffer target, final int index, final Object value) {
+            target.put(index, (byte) (((Boolean) value) ? 1 : 0));
+        }
+
+        @Override
+        Object get(final ByteBuffer source, final int index, final Object[] constants) {
+            return 0 != source.get(index);
+        }
+    },
+
+    BYTE(Byte.class, 1) {
+        @Override
+        int sizeOf(final Object value) {
+            return 1;
+        }
+
+        @Override
+        void write(final ByteBuffer target, final Object value) {
+            target.put((Byte) value);
+        }
+
+        @Override
+        Object read(final ByteBuffer source, final Object[] constants) {
+            return source.get();
+        }
+
+        @Override
+        void put(final ByteBuffer target, final int index, final Object value) {
+            target.put(index, (Byte) value);
+        }
+
+        @Override
+        Object get(final ByteBuffer source, final int index, final Object[] constants) {
+            return source.get(index);
+        }
+    },
+
+    SHORT(Short.class, 2) {
+        @Override
+        int sizeOf(final Object value) {
+            return signedLength((Short) value);
+        }
+
+        @Override
+        void write(final ByteBuffer target, final Object value) {
+            writeSigned(target, (Short) value);
+        }
+
+        @Override
+        Object read(final ByteBuffer source, final Object[] constants) {
+            return (short) readSigned(source);
+        }
+
+        @Override
+        void put(final ByteBuffer target, final int index, final Object value) {
+            target.putShort(index, (Short) value);
+        }
+
+        @Override
+        Object get(final ByteBuffer source, final int index, final Object[] constants) {
+            return source.getShort(index);
+        }
+    },
+
+    CHARACTER(Character.class, 2) {
+        @Override
+        int sizeOf(final Object value) {
+            return unsignedLength((Character) value);
+        }
+
+        @Override
+        void write(final ByteBuffer target, final Object value) {
+            writeUnsigned(target, (Character) value);
+        }
+
+        @Override
+        Object read(final ByteBuffer source, final Object[] constants) {
+            return (char) readUnsigned(source);
+        }
+
+        @Override
+        void put(final ByteBuffer target, final int index, final Object value) {
+            target.putChar(index, (Character) value);
+        }
+
+        @Override
+        Object get(final ByteBuffer source, final int index, final Object[] constants) {
+            return source.getChar(index);
+        }
+    },
+
+    INTEGER(Integer.class, 4) {
+        @Override
+        int sizeOf(final Object value) {
+            return signedLength((Integer) value);
+        }
+
+        @Override
+        void write(final ByteBuffer target, final Object value) {
+            writeSigned(target, (Integer) value);
+        }
+
+        @Override
+        Object read(final ByteBuffer source, final Object[] constants) {
+            return (int) readSigned(source);
+        }
+
+        @Override
+        void put(final ByteBuffer target, final int index, final Object value) {
+            target.putInt(index, (Integer) value);
+        }
+
+        @Override
+        Object get(final ByteBuffer source, final int index, final Object[] constants) {
+            return source.getInt(index);
+        }
+    },
+
+    LONG(Long.class, 8) {
+        @Override
+        int sizeOf(final Object value) {
+            return signedLength((Long) value);
+        }
+
+        @Override
+        void write(final ByteBuffer target, final Object value) {
+            writeSigned(target, (Long) value);
+        }
+
+        @Override
+        Object read(final ByteBuffer source, final Object[] constants) {
+            return readSigned(source);
+        }
+
+        @Override
+        void put(final ByteBuffer target, final int index, final Object value) {
+            target.putLong(index, (Long) value);
+        }
+
+        @Override
+        Object get(final ByteBuffer source, final int index, final Object[] constants) {
+            return source.getLong(index);
+        }
+    },
+
+    FLOAT(Float.class, 4) {
+        @Override
+        int sizeOf(final Object value) {
+            return 4;
+        }
+
+        @Override
+        void write(final ByteBuffer target, final Object value) {
+            target.putFloat((Float) value);
+        }
+
+        @Override
+        Object read(final ByteBuffer source, final Object[] constants) {
+            return source.getFloat();
+        }
+
+        @Override
+        void put(final ByteBuffer target, final int index, final Object value) {
+            target.putFloat(index, (Float) value);
+        }
+
+        @Override
+        Object get(final ByteBuffer source, final int index, final Object[] constants) {
+            return source.getFloat(index);
+        }
+    },
+
+    DOUBLE(Double.class, 8) {
+        @Override
+        int sizeOf(final Object value) {
+            return 8;
+        }
+
+        @Override
+        void write(final ByteBuffer target, final Object value) {
+            target.putDouble((Double) value);
+        }
+
+        @Override
+        Object read(final ByteBuffer source, final Object[] constants) {
+            return source.getDouble();
+        }
+
+        @Override
+        void put(final ByteBuffer target, final int index, final Object value) {
+            target.putDouble(index, (Double) value);
+        }
+
+        @Override
+        Object get(final ByteBuffer source, final int index, final Object[] constants) {
+            return source.getDouble(index);
+        }
+    },
+
+    STRING(String.class, ValueType.VARIABLE) {
+        @Override
+        int sizeOf(final Object value) {
+            final int length = utf8Length((String) value);
+            return unsignedLength(length) + length;
+        }
+
+        @Override
+        void write(final ByteBuffer target, final Object value) {
+            writeString(target, (String) value);
+        }
+
+        @Override
+        Object read(final ByteBuffer source, final Object[] constants) {
+            return readString(source);
+        }
+    },
+
+    ENUM(Enum.class, 4) {
+        @Override
+        int sizeOf(final Object value) {
+            return unsignedLength(((Enum<?>) value).ordinal());
+        }
+
+        @Override
+        void write(final ByteBuffer target, final Object value) {
+            writeUnsigned(target, ((Enum<?>) value).ordinal());
+        }
+
+        @Override
+        Object read(final ByteBuffer source, final Object[] constants) {
+            return constant(constants, readUnsigned(source));
+        }
+
+        @Override
+        void put(final ByteBuffer target, final int index, final Object value) {
+            target.putInt(index, ((Enum<?>) value).ordinal());
+        }
+
+        @Override
+        Object get(final ByteBuffer source, final int index, final Object[] constants) {
+            return constant(constants, source.getInt(index));
+        }
+    },
+
+    DATE(Date.class, 8) {
+        @Override
+        int sizeOf(final Object value) {
+            return signedLength(((Date) value).getTime());
+        }
+
+        @Override
+        void write(final ByteBuffer target, final Object value) {
+            writeSigned(target, ((Date) value).getTime());
+        }
+
+        @Override
+        Object read(final ByteBuffer source, final Object[] constants) {
+            return new Date(readSigned(source));
+        }
+
+        @Override
+        void put(final ByteBuffer target, final int index, final Object value) {
+            target.putLong(index, ((Date) value).getTime());
+        }
+
+        @Override
+        Object get(final ByteBuffer source, final int index, final Object[] constants) {
+            return new Date(source.getLong(index));
+        }
+    };
+
+    /**
+     * Indicates a value type without a fixed width.
+     */
+    static final int VARIABLE = -1;
+
+    private static final String ILLEGAL_ORDINAL = "illegal ordinal <%d> (there are %d constants)";
+    private static final String MALFORMED_VARINT = "malformed variable length integer";
+    private static final String UNSUPPORTED = "unsupported value class <%s>";
+    private static final String NOT_FIXED = "<%s> has no fixed width";
+
+    private final Class<?> valueClass;
+    private final int width;
+
+    ValueType(final Class<?> valueClass, final int width) {
+        this.valueClass = valueClass;
+        this.width = width;
+    }
+
+    private static Object constant(final Object[] constants, final long ordinal) {
+        if ((0 <= ordinal) && (ordinal < constants.length)) {
+            return constants[(int) ordinal];
+        } else {
+            throw new IllegalArgumentException(format(ILLEGAL_ORDINAL, ordinal, constants.length));
+        }
+    }
+
+    /**
+     * Supplies the number of bytes of the fixed width representation or {@link #VARIABLE}.
+     */
+    final int width() {
+        return width;
+    }
+
+    /**
+     * Determines the type that corresponds to a given value class.
+     *
+     * @return {@code null} if there is no corresponding type.
+     */
+    static ValueType of(final Class<?> valueClass) {
+        if (valueClass.isEnum()) {
+            return ENUM;
+        } else {
+            for (final ValueType type : values()) {
+                if ((ENUM != type) && type.valueClass.equals(valueClass)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Determines the type that corresponds to the value class of a given key.
+     *
+     * @throws IllegalArgumentException if there is no corresponding type.
+     */
+    static ValueType of(final Key key) {
+        final ValueType result = of(key.getValueClass());
+        if (null == result) {
+            throw new IllegalArgumentException(format(UNSUPPORTED, key.getValueClass()));
+        } else {
+            return result;
+        }
+    }
+
+    /**
+     * Supplies the constants of an enum value class or an empty array.
+     */
+    static Object[] constants(final Key key) {
+        final Object[] result = key.getValueClass().getEnumConstants();
+        return (null == result) ? new Object[0] : result;
+    }
+
+    static void writeUnsigned(final ByteBuffer target, final long value) {
+        long rest = value;
+        while (0 != (rest & ~0x7FL)) {
+            target.put((byte) ((rest & 0x7F) | 0x80));
+            rest >>>= 7;
+        }
+        target.put((byte) rest);
+    }
+
+    static long readUnsigned(final ByteBuffer source) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte next = source.get();
+            result |= (long) (next & 0x7F) << shift;
+            if (0 == (next & 0x80)) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException(MALFORMED_VARINT);
+    }
+
+    static int unsignedLength(final long value) {
+        int result = 1;
+        long rest = value >>> 7;
+        while (0 != rest) {
+            result += 1;
+            rest >>>= 7;
+        }
+        return result;
+    }
+
+    static int signedLength(final long value) {
+        return unsignedLength((value << 1) ^ (value >> 63));
+    }
+
+    static void writeSigned(final ByteBuffer target, final long value) {
+        writeUnsigned(target, (value << 1) ^ (value >> 63));
+    }
+
+    static long readSigned(final ByteBuffer source) {
+        final long raw = readUnsigned(source);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    /**
+     * Writes a string as its UTF-8 byte length followed by its UTF-8 bytes, without an intermediate byte array.
+     */
+    static void writeString(final ByteBuffer target, final String value) {
+        final int length = value.length();
+        writeUnsigned(target, utf8Length(value));
+        for (int index = 0; index < length; ++index) {
+            final char c = value.charAt(index);
+            if (c < 0x80) {
+                target.put((byte) c);
+            } else if (c < 0x800) {
+                target.put((byte) (0xC0 | (c >>> 6)));
+                target.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && ((index + 1) < length)
+                    && Character.isLowSurrogate(value.charAt(index + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++index));
+                target.put((byte) (0xF0 | (codePoint >>> 18)));
+                target.put((byte) (0x80 | ((codePoint >>> 12) & 0x3F)));
+                target.put((byte) (0x80 | ((codePoint >>> 6) & 0x3F)));
+                target.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                target.put((byte) (0xE0 | (c >>> 12)));
+                target.put((byte) (0x80 | ((c >>> 6) & 0x3F)));
+                target.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(ByteBuffer, String)}.
+     */
+    static String readString(final ByteBuffer source) {
+        final long byteLength = readUnsigned(source);
+        if (byteLength > source.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        final int limit = source.position() + (int) byteLength;
+        final char[] chars = new char[(int) byteLength];
+        int count = 0;
+        while (source.position() < limit) {
+            final int b = source.get() & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if (b < 0xE0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (source.get() & 0x3F));
+            } else if (b < 0xF0) {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((source.get() & 0x3F) << 6) | (source.get() & 0x3F));
+            } else {
+                final int codePoint = ((b & 0x07) << 18) | ((source.get() & 0x3F) << 12)
+                        | ((source.get() & 0x3F) << 6) | (source.get() & 0x3F);
+                chars[count++] = Character.highSurrogate(codePoint);
+                chars[count++] = Character.lowSurrogate(codePoint);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Determines the number of bytes of the UTF-8 representation of a given {@code value}.
+     */
+    static int utf8Length(final String value) {
+        final int length = value.length();
+        int result = 0;
+        for (int index = 0; index < length; ++index) {
+            final char c = value.charAt(index);
+            if (c < 0x80) {
+                result += 1;
+            } else if (c < 0x800) {
+                result += 2;
+            } else if (Character.isHighSurrogate(c) && ((index + 1) < length)
+                    && Character.isLowSurrogate(value.charAt(index + 1))) {
+                result += 4;
+                index += 1;
+            } else {
+                result += 3;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determines the number of bytes {@link #write(ByteBuffer, Object)} will write for a given {@code value}.
+     */
+    abstract int sizeOf(Object value);
+
+    /**
+     * Writes a given (non-null) {@code value} that is an instance of the corresponding value class.
+     */
+    abstract void write(ByteBuffer target, Object value);
+
+    /**
+     * Reads a value written by {@link #write(ByteBuffer, Object)}.
+     *
+     * @param constants The constants of the value class, if it is an enum, otherwise ignored.
+     */
+    abstract Object read(ByteBuffer source, Object[] constants);
+
+    /**
+     * Puts a given (non-null) {@code value} in its fixed width representation at a given (absolute)
+     * {@code index}.
+     *
+     * @throws UnsupportedOperationException if this type has no fixed {@link #width()}.
+     */
+    void put(final ByteBuffer target, final int index, final Object value) {
+        throw new UnsupportedOperationException(format(NOT_FIXED, this));
+    }
+
+    /**
+     * Gets a value put by {@link #put(ByteBuffer, int, Object)} from a given (absolute) {@code index}.
+     *
+     * @param constants The constants of the value class, if it is an enum, otherwise ignored.
+     * @throws UnsupportedOperationException if this type has no fixed {@link #width()}.
+     */
+    Object get(final ByteBuffer source, final int index, final Object[] constants) {
+        throw new UnsupportedOperationException(format(NOT_FIXED, this));
+    }
+}
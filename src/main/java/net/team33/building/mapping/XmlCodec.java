@@ -0,0 +1,391 @@
+package net.team33.building.mapping;
+
+import net.team33.building.Builder;
+
+import javax.xml.XMLConstants;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Reads and writes {@link Mapped} instances as XML by means of StAX, driven by the {@linkplain Key schema} of their
+ * keys and without any reflection.
+ * <p/>
+ * A record is represented by an element containing one child element per key. The name of a child element is the
+ * {@linkplain Enum#name() name} of the key in lower camel case (e.g. {@code FIRST_NAME} -> {@code firstName}),
+ * its text is the value converted by a {@link Converter} associated with the
+ * {@linkplain Key#getValueClass() value class} of the key. {@code null} is represented by {@code xsi:nil="true"}.
+ * {@linkplain Key.Derivable Derived} keys are not represented, their elements are skipped when read.
+ * <p/>
+ * Default converters are provided for the primitive wrappers, {@link String}, any {@link Enum} and {@link Date}.
+ *
+ * @param <K> The specific type of the keys representing the properties.
+ */
+public class XmlCodec<K extends Enum<K> & Key> {
+
+    private static final String NIL = "nil";
+    private static final String XSI = "xsi";
+    private static final String TRUE = "true";
+    private static final String UNSUPPORTED = "no converter for value class <%s> of key <%s>";
+    private static final String NO_CHARACTER = "<%s> is not a single character";
+    private static final Map<Class<?>, Converter> DEFAULTS = defaults();
+
+    private final K[] keys;
+    private final String[] elementNames;
+    private final Converter[] converters;
+    private final Map<String, K> byElementName;
+    private final KeySchema<K> schema;
+
+    /**
+     * Initiates a new instance for a given {@code keyClass}, using the default converters.
+     *
+     * @throws NullPointerException     if {@code keyClass} is {@code null}.
+     * @throws IllegalArgumentException if there is no converter for the value class of a key.
+     */
+    public XmlCodec(final Class<K> keyClass) {
+        this(keyClass, Collections.<Class<?>, Converter>emptyMap());
+    }
+
+    /**
+     * Initiates a new instance for a given {@code keyClass}, using the given {@code converters} in addition to
+     * (or instead of) the default converters.
+     *
+     * @throws NullPointerException     if {@code keyClass} or {@code converters} is {@code null}.
+     * @throws IllegalArgumentException if there is no converter for the value class of a key.
+     */
+    public XmlCodec(final Class<K> keyClass, final Map<Class<?>, ? extends Converter> converters) {
+        this.keys = keyClass.getEnumConstants();
+        this.elementNames = new String[keys.length];
+        this.converters = new Converter[keys.length];
+        this.schema = KeySchema.of(keyClass);
+        final Map<String, K> byElementName = new HashMap<>(keys.length);
+        for (final K key : keys) {
+            final String elementName = Names.camelCase(key.name());
+            elementNames[key.ordinal()] = elementName;
+            // Derived keys are neither written nor read, they will be derived anew when needed ...
+            if (!schema.isDerived(key)) {
+                this.converters[key.ordinal()] = converter(key, converters);
+                byElementName.put(elementName, key);
+            }
+        }
+        this.byElementName = unmodifiableMap(byElementName);
+    }
+
+    private static Converter converter(final Key key, final Map<Class<?>, ? extends Converter> converters) {
+        final Class<?> valueClass = key.getValueClass();
+        if (converters.containsKey(valueClass)) {
+            return converters.get(valueClass);
+        } else if (DEFAULTS.containsKey(valueClass)) {
+            return DEFAULTS.get(valueClass);
+        } else if (valueClass.isEnum()) {
+            return new EnumConverter(valueClass.asSubclass(Enum.class));
+        } else {
+            throw new IllegalArgumentException(format(UNSUPPORTED, valueClass, key));
+        }
+    }
+
+    /**
+     * Writes a given {@code origin} as an element named {@code elementName} to a given {@code writer}.
+     *
+     * @throws NullPointerException if {@code writer}, {@code elementName} or {@code origin} is {@code null}.
+     */
+    public final void write(final XMLStreamWriter writer, final String elementName, final Mapped<K> origin)
+            throws XMLStreamException {
+
+        final Map<K, Object> map = origin.asMap();
+        writer.writeStartElement(elementName);
+        for (final K key : keys) {
+            if (map.containsKey(key) && !schema.isDerived(key)) {
+                final Object value = map.get(key);
+                if (null == value) {
+                    writer.writeEmptyElement(elementNames[key.ordinal()]);
+                    writer.writeNamespace(XSI, XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
+                    writer.writeAttribute(XSI, XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, NIL, TRUE);
+                } else {
+                    writer.writeStartElement(elementNames[key.ordinal()]);
+                    writer.writeCharacters(converters[key.ordinal()].format(value));
+                    writer.writeEndElement();
+                }
+            }
+        }
+        writer.writeEndElement();
+    }
+
+    /**
+     * Reads the child elements of the current element of a given {@code reader} directly into a given
+     * {@code target}.
+     * <p/>
+     * The {@code reader} is expected to be positioned at the start of the record element and will be positioned at
+     * its end afterwards. Child elements that don't correspond to a key will be skipped. Values associated with keys
+     * not present in the record will remain as is.
+     *
+     * @return The {@code target}.
+     * @throws NullPointerException     if {@code reader} or {@code target} is {@code null} or the record contains
+     *                                  {@code null} for a key that is not {@linkplain Key#isNullable() nullable}.
+     * @throws IllegalArgumentException if a value can't be converted or a key is not part of the {@code target}.
+     * @throws IllegalStateException    if the {@code reader} is not positioned at the start of an element.
+     */
+    public final <B extends Mapped.Mutable<K, B>> B read(final XMLStreamReader reader, final B target)
+            throws XMLStreamException {
+
+        reader.require(XMLStreamConstants.START_ELEMENT, null, null);
+        int event = reader.nextTag();
+        while (XMLStreamConstants.START_ELEMENT == event) {
+            final K key = byElementName.get(reader.getLocalName());
+            if (null == key) {
+                skip(reader);
+            } else {
+                final boolean nil = TRUE.equals(
+                        reader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, NIL));
+                final String text = reader.getElementText();
+                target.set(key, nil ? null : converters[key.ordinal()].parse(text));
+            }
+            event = reader.nextTag();
+        }
+        return target;
+    }
+
+    private static void skip(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (0 < depth) {
+            final int event = reader.next();
+            if (XMLStreamConstants.START_ELEMENT == event) {
+                depth += 1;
+            } else if (XMLStreamConstants.END_ELEMENT == event) {
+                depth -= 1;
+            }
+        }
+    }
+
+    /**
+     * Supplies an {@link Iterator} that streams the records represented by any element named {@code elementName}
+     * that is found by a given {@code reader}. Each record is read into a new builder supplied by
+     * {@code builders} and finally {@linkplain Builder#build() built}.
+     * <p/>
+     * As no more than one record is held at a time, arbitrary large documents may be processed in constant memory.
+     * <p/>
+     * The iterator throws an {@link IllegalStateException} if the underlying reader fails.
+     *
+     * @param builders A {@link Builder} used as a factory for an (initial) builder per record.
+     */
+    public final <B extends Mapped.Mutable<K, B> & Builder<R>, R> Iterator<R> iterate(
+            final XMLStreamReader reader, final String elementName, final Builder<? extends B> builders) {
+        return new Records<>(reader, elementName, builders);
+    }
+
+    private static Map<Class<?>, Converter> defaults() {
+        final Map<Class<?>, Converter> result = new HashMap<>(0);
+        result.put(String.class, new Converter() {
+            @Override
+            public Object parse(final String text) {
+                return text;
+            }
+        });
+        result.put(Boolean.class, new Converter() {
+            @Override
+            public Object parse(final String text) {
+                return Boolean.valueOf(text.trim());
+            }
+        });
+        result.put(Byte.class, new Converter() {
+            @Override
+            public Object parse(final String text) {
+                return Byte.valueOf(text.trim());
+            }
+        });
+        result.put(Short.class, new Converter() {
+            @Override
+            public Object parse(final String text) {
+                return Short.valueOf(text.trim());
+            }
+        });
+        result.put(Character.class, new Converter() {
+            @Override
+            public Object parse(final String text) {
+                if (1 == text.length()) {
+                    return text.charAt(0);
+                } else {
+                    throw new IllegalArgumentException(String.format(NO_CHARACTER, text));
+                }
+            }
+        });
+        result.put(Integer.class, new Converter() {
+            @Override
+            public Object parse(final String text) {
+                return Integer.valueOf(text.trim());
+            }
+        });
+        result.put(Long.class, new Converter() {
+            @Override
+            public Object parse(final String text) {
+                return Long.valueOf(text.trim());
+            }
+        });
+        result.put(Float.class, new Converter() {
+            @Override
+            public Object parse(final String text) {
+                return Float.valueOf(text.trim());
+            }
+        });
+        result.put(Double.class, new Converter() {
+            @Override
+            public Object parse(final String text) {
+                return Double.valueOf(text.trim());
+            }
+        });
+        result.put(Date.class, new DateConverter());
+        return unmodifiableMap(result);
+    }
+
+    /**
+     * Abstracts the conversion between values of a specific value class and their textual XML representation.
+     */
+    @SuppressWarnings("PublicInnerClass")
+    public abstract static class Converter {
+
+        /**
+         * Converts a given (non-null) text into a value.
+         *
+         * @throws IllegalArgumentException if the {@code text} can't be converted.
+         */
+        public abstract Object parse(String text);
+
+        /**
+         * Converts a given (non-null) value into a text.
+         * <p/>
+         * The default implementation simply supplies the {@linkplain Object#toString() string representation}.
+         */
+        @SuppressWarnings("DesignForExtension")
+        public String format(final Object value) {
+            return value.toString();
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static class EnumConverter extends Converter {
+
+        private final Class<? extends Enum> valueClass;
+
+        private EnumConverter(final Class<? extends Enum> valueClass) {
+            this.valueClass = valueClass;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public final Object parse(final String text) {
+            return Enum.valueOf(valueClass, text.trim());
+        }
+
+        @Override
+        public final String format(final Object value) {
+            return ((Enum<?>) value).name();
+        }
+    }
+
+    /**
+     * Shared by all codecs (as part of the {@link #DEFAULTS}), so it keeps a {@link DatatypeFactory} per thread:
+     * a factory is not specified to be thread-safe.
+     */
+    private static class DateConverter extends Converter {
+
+        private final ThreadLocal<DatatypeFactory> factory = new ThreadLocal<DatatypeFactory>() {
+            @Override
+            protected DatatypeFactory initialValue() {
+                try {
+                    return DatatypeFactory.newInstance();
+                } catch (final DatatypeConfigurationException caught) {
+                    throw new IllegalStateException(caught.getMessage(), caught);
+                }
+            }
+        };
+
+        @Override
+        public final Object parse(final String text) {
+            return factory.get().newXMLGregorianCalendar(text.trim()).toGregorianCalendar().getTime();
+        }
+
+        @Override
+        public final String format(final Object value) {
+            final GregorianCalendar calendar = new GregorianCalendar();
+            calendar.setTime((Date) value);
+            return factory.get().newXMLGregorianCalendar(calendar).toXMLFormat();
+        }
+    }
+
+    private class Records<B extends Mapped.Mutable<K, B> & Builder<R>, R> implements Iterator<R> {
+
+        private final XMLStreamReader reader;
+        private final String elementName;
+        private final Builder<? extends B> builders;
+
+        private boolean ahead = false;
+
+        private Records(final XMLStreamReader reader, final String elementName,
+                        final Builder<? extends B> builders) {
+            this.reader = reader;
+            this.elementName = elementName;
+            this.builders = builders;
+        }
+
+        @Override
+        public final boolean hasNext() {
+            try {
+                if (!ahead) {
+                    ahead = seek();
+                }
+                return ahead;
+            } catch (final XMLStreamException caught) {
+                throw new IllegalStateException(caught.getMessage(), caught);
+            }
+        }
+
+        private boolean seek() throws XMLStreamException {
+            if (isRecordStart()) {
+                return true;
+            }
+            while (reader.hasNext()) {
+                reader.next();
+                if (isRecordStart()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isRecordStart() {
+            return reader.isStartElement() && elementName.equals(reader.getLocalName());
+        }
+
+        @Override
+        public final R next() {
+            if (hasNext()) {
+                ahead = false;
+                try {
+                    return read(reader, builders.build()).build();
+                } catch (final XMLStreamException caught) {
+                    throw new IllegalStateException(caught.getMessage(), caught);
+                }
+            } else {
+                throw new NoSuchElementException("There is no next element available");
+            }
+        }
+
+        @Override
+        public final void remove() {
+            throw new UnsupportedOperationException("Unsupported operation");
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package net.team33.building.mapping;
+
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData;
+import net.team33.building.mapping.jaxb.PlainData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+
+public class BeanBinderTest {
+
+    private static final BeanBinder<MappedData.Property, PlainData> PLAIN =
+            BeanBinder.of(MappedData.Property.class, PlainData.class);
+    private static final BeanBinder<KEY, Bean> BEAN = BeanBinder.of(KEY.class, Bean.class);
+
+    private static final MappedData MAPPED = MappedData.builder()
+            .setName("a name")
+            .setFirstName("a first name")
+            .setCountry(Country.AUT)
+            .build();
+    private static final PlainData BEAN_DATA = new PlainData("a name", "a first name", Country.AUT);
+
+    @Test
+    public final void testKeySet() {
+        Assert.assertEquals(EnumSet.allOf(MappedData.Property.class), PLAIN.keySet());
+        Assert.assertEquals(EnumSet.of(KEY.TEXT, KEY.COUNT, KEY.ACTIVE, KEY.HIDDEN), BEAN.keySet());
+    }
+
+    @Test
+    public final void testToBean() {
+        Assert.assertEquals(BEAN_DATA, PLAIN.toBean(MAPPED));
+    }
+
+    @Test
+    public final void testToMapped() {
+        Assert.assertEquals(MAPPED, PLAIN.toMapped(BEAN_DATA, MappedData.builder()).build());
+    }
+
+    @Test
+    public final void testBatch() {
+        final Bean first = new Bean();
+        first.setText("first");
+        first.setCount(278);
+        final Bean second = new Bean();
+        second.setText("second");
+        second.setActive(true);
+        final List<Data> records = BEAN.toMapped(Arrays.asList(first, second), new Builder(EnumSet.allOf(KEY.class)));
+        Assert.assertEquals(2, records.size());
+        // Built by the buffer, so they equal records built the usual way ...
+        Assert.assertEquals(new Builder(EnumSet.allOf(KEY.class)).set(KEY.TEXT, "first").set(KEY.COUNT, 278).build(),
+                            records.get(0));
+        Assert.assertEquals(new Builder(EnumSet.allOf(KEY.class)).set(KEY.TEXT, "second").set(KEY.ACTIVE, true).build(),
+                            records.get(1));
+        final List<Bean> beans = BEAN.toBeans(records);
+        Assert.assertEquals("first", beans.get(0).getText());
+        Assert.assertEquals(278, beans.get(0).getCount());
+        Assert.assertTrue(beans.get(1).isActive());
+    }
+
+    @Test
+    public final void testPartial() {
+        final Bean bean = new Bean();
+        bean.setText("untouched");
+        final EnumMapped<KEY> record = new EnumMapped<>(
+                new Builder(EnumSet.of(KEY.COUNT, KEY.HIDDEN)).set(KEY.COUNT, 278).set(KEY.HIDDEN, 2.78));
+        BEAN.toBean(record, bean);
+        Assert.assertEquals("untouched", bean.getText());
+        Assert.assertEquals(278, bean.getCount());
+        Assert.assertEquals(2.78, bean.hidden, 0.0);
+    }
+
+    @Test
+    public final void testPrimitiveNull() {
+        final Bean bean = new Bean();
+        bean.setCount(5);
+        BEAN.toBean(new EnumMapped<>(new Builder(EnumSet.of(KEY.COUNT)).set(KEY.COUNT, null)), bean);
+        Assert.assertEquals(5, bean.getCount());
+    }
+
+    @Test
+    public final void testFromBean() {
+        final Bean bean = new Bean();
+        bean.setText("a text");
+        bean.setCount(278);
+        bean.setActive(true);
+        bean.hidden = 0.5;
+        final Builder result = BEAN.toMapped(bean, new Builder(EnumSet.allOf(KEY.class)));
+        Assert.assertEquals("a text", result.get(KEY.TEXT));
+        Assert.assertEquals(Integer.valueOf(278), result.get(KEY.COUNT));
+        Assert.assertEquals(Boolean.TRUE, result.get(KEY.ACTIVE));
+        Assert.assertEquals(Double.valueOf(0.5), result.get(KEY.HIDDEN));
+        Assert.assertEquals(KEY.UNBOUND.getInitial(), result.get(KEY.UNBOUND));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public final void testFromBeanInvalid() {
+        final Bean bean = new Bean();
+        bean.setText(null);
+        Assert.assertNull("Should not happen :-o", BEAN.toMapped(bean, new Builder(EnumSet.of(KEY.TEXT))));
+    }
+
+    private enum KEY implements Key {
+        TEXT(String.class, false, ""),
+        COUNT(Integer.class, true, 0),
+        ACTIVE(Boolean.class, false, false),
+        HIDDEN(Double.class, false, 0.0),
+        UNBOUND(Date.class, true, null);
+
+        private final Class<?> valueClass;
+        private final boolean nullable;
+        private final Object initial;
+
+        KEY(final Class<?> valueClass, final boolean nullable, final Object initial) {
+            this.valueClass = valueClass;
+            this.nullable = nullable;
+            this.initial = initial;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        @Override
+        public Object getInitial() {
+            return initial;
+        }
+    }
+
+    @SuppressWarnings({"PublicField", "UnusedDeclaration"})
+    public static class Bean {
+
+        private String text = "";
+        private int count = 0;
+        private boolean active = false;
+        private double hidden = 0.0;
+
+        public final String getText() {
+            return text;
+        }
+
+        public final void setText(final String text) {
+            this.text = text;
+        }
+
+        public final int getCount() {
+            return count;
+        }
+
+        public final void setCount(final int count) {
+            this.count = count;
+        }
+
+        public final boolean isActive() {
+            return active;
+        }
+
+        public final void setActive(final boolean active) {
+            this.active = active;
+        }
+    }
+
+    private static class Data extends EnumMapped<KEY> {
+
+        private Data(final Mapper<KEY, ?> mapper) {
+            super(mapper);
+        }
+    }
+
+    private static class Builder extends EnumMapped.Mapper<KEY, Builder> implements net.team33.building.Builder<Data> {
+
+        private Builder(final EnumSet<KEY> keys) {
+            super(keys);
+        }
+
+        @Override
+        public final Data build() {
+            return new Data(this);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package net.team33.building.mapping;
+
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+
+public class BinaryCodecTest {
+
+    private static final BinaryCodec<KEY> CODEC = new BinaryCodec<>(KEY.class);
+
+    private static ByteBuffer encode(final Mapped<KEY> origin) {
+        final ByteBuffer result = ByteBuffer.allocate(CODEC.sizeOf(origin));
+        CODEC.encode(origin, result);
+        Assert.assertEquals("sizeOf() should match the encoded length", 0, result.remaining());
+        result.flip();
+        return result;
+    }
+
+    @Test
+    public final void testRoundTrip() {
+        final Builder origin = new Builder(asList(KEY.values()))
+                .set(KEY.BOOLEAN, true)
+                .set(KEY.BYTE, (byte) -7)
+                .set(KEY.SHORT, Short.MIN_VALUE)
+                .set(KEY.CHARACTER, '€')
+                .set(KEY.INTEGER, -278)
+                .set(KEY.LONG, Long.MAX_VALUE)
+                .set(KEY.FLOAT, 2.78f)
+                .set(KEY.DOUBLE, -0.278)
+                .set(KEY.STRING, "a string ä€😀")
+                .set(KEY.COUNTRY, Country.CHE)
+                .set(KEY.DATE, new Date(278278278278L));
+        Assert.assertEquals(
+                origin.asMap(),
+                CODEC.decode(encode(origin), new Builder(asList(KEY.values()))).asMap()
+        );
+    }
+
+    @Test
+    public final void testRoundTripNull() {
+        final Builder origin = new Builder(asList(KEY.values()))
+                .set(KEY.STRING, null)
+                .set(KEY.DATE, null);
+        Assert.assertEquals(
+                origin.asMap(),
+                CODEC.decode(encode(origin), new Builder(asList(KEY.values()))).asMap()
+        );
+    }
+
+    @Test
+    public final void testRoundTripSubset() {
+        final Builder origin = new Builder(asList(KEY.INTEGER, KEY.STRING))
+                .set(KEY.INTEGER, 278)
+                .set(KEY.STRING, "a string");
+        final Builder expected = new Builder(asList(KEY.values()))
+                .set(origin.asMap());
+        Assert.assertEquals(
+                expected.asMap(),
+                CODEC.decode(encode(origin), new Builder(asList(KEY.values()))).asMap()
+        );
+    }
+
+    @Test
+    public final void testRoundTripMappedData() {
+        final BinaryCodec<MappedData.Property> codec = new BinaryCodec<>(MappedData.Property.class);
+        final MappedData origin = MappedData.builder()
+                .setName("a name")
+                .setFirstName("a first name")
+                .setCountry(Country.AUT)
+                .build();
+        final ByteBuffer buffer = codec.encode(origin, ByteBuffer.allocate(codec.sizeOf(origin)));
+        buffer.flip();
+        Assert.assertEquals(
+                origin,
+                codec.decode(buffer, MappedData.builder()).build()
+        );
+    }
+
+    @Test
+    public final void testRoundTripDerived() {
+        final BinaryCodec<SUMMED> codec = new BinaryCodec<>(SUMMED.class);
+        final Summed origin = new SummedBuilder().set(SUMMED.LEFT, 2).set(SUMMED.RIGHT, 76).build();
+        Assert.assertEquals(78, origin.get(SUMMED.SUM));
+        final ByteBuffer buffer = ByteBuffer.allocate(codec.sizeOf(origin));
+        codec.encode(origin, buffer);
+        Assert.assertEquals(0, buffer.remaining());
+        buffer.flip();
+        final Summed result = codec.decode(buffer, new SummedBuilder()).build();
+        Assert.assertEquals(origin, result);
+        Assert.assertEquals(78, result.get(SUMMED.SUM));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testDecodeForeignSchema() {
+        final BinaryCodec<MappedData.Property> codec = new BinaryCodec<>(MappedData.Property.class);
+        codec.decode(encode(new Builder(asList(KEY.values()))), MappedData.builder());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testUnsupported() {
+        // noinspection ResultOfObjectAllocationIgnored
+        new BinaryCodec<>(UNSUPPORTED.class);
+    }
+
+    @Test
+    public final void testFingerprint() {
+        Assert.assertEquals(CODEC.getFingerprint(), new BinaryCodec<>(KEY.class).getFingerprint());
+        Assert.assertNotEquals(
+                CODEC.getFingerprint(),
+                new BinaryCodec<>(MappedData.Property.class).getFingerprint()
+        );
+    }
+
+    private enum KEY implements Key {
+
+        BOOLEAN(Boolean.class, false, false),
+        BYTE(Byte.class, false, (byte) 0),
+        SHORT(Short.class, false, (short) 0),
+        CHARACTER(Character.class, false, ' '),
+        INTEGER(Integer.class, false, 0),
+        LONG(Long.class, false, 0L),
+        FLOAT(Float.class, false, 0.0f),
+        DOUBLE(Double.class, false, 0.0),
+        STRING(String.class, true, ""),
+        COUNTRY(Country.class, false, Country.ZZZ),
+        DATE(Date.class, true, new Date(0));
+
+        private final Class<?> valueClass;
+        private final boolean nullable;
+        private final Object initial;
+
+        KEY(final Class<?> valueClass, final boolean nullable, final Object initial) {
+            this.valueClass = valueClass;
+            this.nullable = nullable;
+            this.initial = initial;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        @Override
+        public Object getInitial() {
+            return initial;
+        }
+    }
+
+    private enum UNSUPPORTED implements Key {
+
+        OBJECT;
+
+        @Override
+        public Class<?> getValueClass() {
+            return Object.class;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return true;
+        }
+
+        @Override
+        public Object getInitial() {
+            return null;
+        }
+    }
+
+    private static class Builder extends EnumMapped.Mapper<KEY, Builder> {
+        private Builder(final Collection<KEY> keys) {
+            super(keys);
+        }
+    }
+
+    private enum SUMMED implements Key.Derivable {
+
+        LEFT(null),
+        RIGHT(null),
+        SUM(new Derivation() {
+            @Override
+            public Collection<? extends Key> getInputs() {
+                return asList(LEFT, RIGHT);
+            }
+
+            @Override
+            public Object derive(final Map<?, ?> values) {
+                return ((Integer) values.get(LEFT)) + ((Integer) values.get(RIGHT));
+            }
+        });
+
+        private final Derivation derivation;
+
+        SUMMED(final Derivation derivation) {
+            this.derivation = derivation;
+        }
+
+        @Override
+        public Derivation getDerivation() {
+            return derivation;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return Integer.class;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return false;
+        }
+
+        @Override
+        public Object getInitial() {
+            return 0;
+        }
+    }
+
+    private static class Summed extends EnumMapped<SUMMED> {
+        private Summed(final Mapper<SUMMED, ?> mapper) {
+            super(mapper);
+        }
+    }
+
+    private static class SummedBuilder extends EnumMapped.Mapper<SUMMED, SummedBuilder>
+            implements net.team33.building.Builder<Summed> {
+
+        private SummedBuilder() {
+            super(SUMMED.class);
+        }
+
+        @Override
+        public final Summed build() {
+            return new Summed(this);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package net.team33.building.mapping;
+
+import net.team33.building.Builder;
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BuilderPoolTest {
+
+    private static final MappedData INITIAL = MappedData.builder().build();
+
+    private static BuilderPool<MappedData.Builder> newPool(final int capacity) {
+        return new BuilderPool<>(new Builder<MappedData.Builder>() {
+            @Override
+            public MappedData.Builder build() {
+                return MappedData.builder();
+            }
+        }, capacity);
+    }
+
+    @Test
+    public final void testReuse() {
+        final BuilderPool<MappedData.Builder> subject = newPool(BuilderPool.DEFAULT_CAPACITY);
+        final MappedData.Builder first;
+        final MappedData result;
+        try (final BuilderPool.Lease<MappedData.Builder> lease = subject.acquire()) {
+            first = lease.get();
+            result = first.setName("a name").setCountry(Country.CHE).build();
+        }
+        try (final BuilderPool.Lease<MappedData.Builder> lease = subject.acquire()) {
+            Assert.assertSame(first, lease.get());
+            Assert.assertEquals(INITIAL, lease.get().build());
+            Assert.assertEquals(EnumSet.noneOf(MappedData.Property.class), lease.get().modified());
+        }
+        Assert.assertEquals("a name", result.getName());
+        Assert.assertEquals(Country.CHE, result.getCountry());
+    }
+
+    @Test
+    public final void testNested() {
+        final BuilderPool<MappedData.Builder> subject = newPool(BuilderPool.DEFAULT_CAPACITY);
+        try (final BuilderPool.Lease<MappedData.Builder> outer = subject.acquire();
+             final BuilderPool.Lease<MappedData.Builder> inner = subject.acquire()) {
+            Assert.assertNotSame(outer.get(), inner.get());
+        }
+    }
+
+    @Test
+    public final void testModifiedAfterRelease() {
+        final BuilderPool<MappedData.Builder> subject = newPool(BuilderPool.DEFAULT_CAPACITY);
+        final MappedData.Builder leaked;
+        try (final BuilderPool.Lease<MappedData.Builder> lease = subject.acquire()) {
+            leaked = lease.get();
+        }
+        leaked.setFirstName("a first name");
+        try (final BuilderPool.Lease<MappedData.Builder> lease = subject.acquire()) {
+            Assert.assertEquals(INITIAL, lease.get().build());
+        }
+    }
+
+    @Test
+    public final void testCapacity() {
+        final BuilderPool<MappedData.Builder> subject = newPool(1);
+        final BuilderPool.Lease<MappedData.Builder> first = subject.acquire();
+        final BuilderPool.Lease<MappedData.Builder> second = subject.acquire();
+        final MappedData.Builder kept = first.get();
+        first.close();
+        second.close();
+        try (final BuilderPool.Lease<MappedData.Builder> lease = subject.acquire()) {
+            Assert.assertSame(kept, lease.get());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public final void testCloseTwice() {
+        final BuilderPool.Lease<MappedData.Builder> lease = newPool(BuilderPool.DEFAULT_CAPACITY).acquire();
+        lease.close();
+        lease.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public final void testGetAfterClose() {
+        final BuilderPool.Lease<MappedData.Builder> lease = newPool(BuilderPool.DEFAULT_CAPACITY).acquire();
+        lease.close();
+        Assert.assertNull("Should not happen :-o", lease.get());
+    }
+
+    @Test
+    public final void testStaleLease() {
+        final BuilderPool<MappedData.Builder> subject = newPool(BuilderPool.DEFAULT_CAPACITY);
+        final BuilderPool.Lease<MappedData.Builder> stale = subject.acquire();
+        stale.close();
+        try (final BuilderPool.Lease<MappedData.Builder> lease = subject.acquire()) {
+            Assert.assertNotSame(stale, lease);
+            lease.get().setName("a name");
+            try {
+                stale.get();
+                Assert.fail("Should not happen :-o");
+            } catch (final IllegalStateException ignored) {
+                // as expected
+            }
+            try {
+                stale.close();
+                Assert.fail("Should not happen :-o");
+            } catch (final IllegalStateException ignored) {
+                // as expected
+            }
+            Assert.assertEquals("a name", lease.get().build().getName());
+        }
+    }
+
+    @Test
+    public final void testValidationReset() {
+        final BuilderPool<MappedData.Builder> subject = newPool(BuilderPool.DEFAULT_CAPACITY);
+        try (final BuilderPool.Lease<MappedData.Builder> lease = subject.acquire()) {
+            lease.get().setValidation(Validation.TRUSTED);
+        }
+        try (final BuilderPool.Lease<MappedData.Builder> lease = subject.acquire()) {
+            Assert.assertEquals(Validation.getDefault(MappedData.Property.class), lease.get().getValidation());
+            try {
+                lease.get().set(MappedData.Property.NAME, 278);
+                Assert.fail("Should not happen :-o");
+            } catch (final ClassCastException ignored) {
+                // as expected
+            }
+        }
+    }
+
+    @Test
+    public final void testThreadConfined() throws InterruptedException {
+        final BuilderPool<MappedData.Builder> subject = newPool(BuilderPool.DEFAULT_CAPACITY);
+        final MappedData.Builder local;
+        try (final BuilderPool.Lease<MappedData.Builder> lease = subject.acquire()) {
+            local = lease.get();
+        }
+        final AtomicReference<MappedData.Builder> other = new AtomicReference<>();
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try (final BuilderPool.Lease<MappedData.Builder> lease = subject.acquire()) {
+                    other.set(lease.get());
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+        Assert.assertNotNull(other.get());
+        Assert.assertNotSame(local, other.get());
+    }
+}
@@ -1,10 +1,13 @@
 package net.team33.building.mapping;
 
+import net.team33.building.test.Allocation;
 import net.team33.building.test.Report;
 import net.team33.building.test.Reporter;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -28,6 +31,12 @@ public class CombIteratorTest {
 
     private static final List<Integer> EMPTY_INTEGER_LIST = Collections.emptyList();
 
+    /**
+     * Bytes that may be allocated by {@link CombIterator#next()} for a result with three entries
+     * (the result map itself and the iterator used to advance).
+     */
+    private static final long NEXT_BUDGET = 384;
+
     static {
         final Map<Integer, List<Integer>> origin01 = new TreeMap<>();
         origin01.put(1, asList(1, 2, 3));
@@ -112,6 +121,26 @@ public class CombIteratorTest {
         );
     }
 
+    @Test
+    public final void testNextAllocation() {
+        Assume.assumeTrue(Allocation.isSupported());
+        final List<Integer> values = new ArrayList<>(100);
+        for (int value = 0; value < 100; ++value) {
+            values.add(value);
+        }
+        final Map<Integer, List<Integer>> origin = new TreeMap<>();
+        origin.put(1, values);
+        origin.put(2, values);
+        origin.put(3, values);
+        final Iterator<Map<Integer, Integer>> subject = new CombIterator<>(origin);
+        Allocation.assertWithin(NEXT_BUDGET, new Runnable() {
+            @Override
+            public void run() {
+                subject.next();
+            }
+        });
+    }
+
     @Test
     public final void testOriginContainsEmpty() {
         Assert.assertEquals(
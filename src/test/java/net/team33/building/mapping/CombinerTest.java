@@ -5,8 +5,12 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static java.util.Arrays.asList;
@@ -14,6 +18,14 @@ import static java.util.Collections.unmodifiableSet;
 
 public class CombinerTest {
 
+    private static final net.team33.building.mapping.Combiner.Weigher WEIGHT =
+            new net.team33.building.mapping.Combiner.Weigher() {
+                @Override
+                public double weigh(final Object value) {
+                    return (value instanceof Number) ? ((Number) value).doubleValue() : 0.0;
+                }
+            };
+
     private static net.team33.building.Builder<? extends Set<?>> builder(final Object... values) {
         return new SetBuilder(values);
     }
@@ -35,6 +47,344 @@ public class CombinerTest {
         Assert.assertEquals(result.toString(), 27, result.size());
     }
 
+    @Test
+    public final void testDistinct() {
+        final Collection<Data> result = new LinkedList<>();
+        // numbers are normalized to integers when built, so e.g. 1 and 1L result in the same value ...
+        for (final Data entry : combiner()
+                .set(Key.ABC, builder(1, 1L, 2))
+                .set(Key.DEF, builder(3, 3L))
+                .distinct(1 << 20)) {
+            result.add(entry);
+        }
+        Assert.assertEquals(result.toString(), 2, result.size());
+        Assert.assertEquals(result.toString(), 2, new HashSet<>(result).size());
+    }
+
+    @Test
+    public final void testProgress() {
+        final ProgressTest.Log log = new ProgressTest.Log();
+        final Combiner subject = combiner()
+                .set(Key.ABC, builder(1, 2, 3))
+                .set(Key.DEF, builder(4, 5))
+                .progress(log);
+        int count = 0;
+        for (final Data ignored : subject) {
+            count += 1;
+        }
+        Assert.assertEquals(6, count);
+        Assert.assertEquals(asList("started Key", "finished 6 failures 0"), log.entries);
+    }
+
+    @Test
+    public final void testProgressDistinct() {
+        final Object[] values = new Object[Progress.DEFAULT_BATCH + 1];
+        for (int index = 0; index < values.length; ++index) {
+            values[index] = new Slow(index);
+        }
+        final ProgressTest.Log log = new ProgressTest.Log();
+        final Combiner subject = combiner()
+                .set(Key.ABC, builder(values))
+                .distinct(1 << 20)
+                .progress(log);
+        int count = 0;
+        for (final Data ignored : subject) {
+            count += 1;
+        }
+        Assert.assertEquals(values.length, count);
+        Assert.assertEquals(log.entries.toString(), 3, log.entries.size());
+        // The candidates are built and deduplicated by hasNext(), which must be part of the latency ...
+        final String progressed = log.entries.get(1);
+        final long latency = Long.parseLong(progressed.substring(progressed.lastIndexOf(' ') + 1));
+        Assert.assertTrue(progressed, Slow.NANOS <= latency);
+    }
+
+    @Test
+    public final void testProgressFailure() {
+        final ProgressTest.Log log = new ProgressTest.Log();
+        final Failing failing = new Failing();
+        final Combiner subject = combiner()
+                .set(Key.ABC, builder(failing))
+                .distinct(1 << 20)
+                .progress(log);
+        failing.armed = true;
+        try {
+            subject.iterator().hasNext();
+            Assert.fail("Should not happen :-o");
+        } catch (final IllegalStateException caught) {
+            Assert.assertEquals(asList("started Key", "failed 0 " + caught), log.entries);
+        }
+    }
+
+    @Test
+    public final void testDistinctNone() {
+        final Collection<Data> result = new LinkedList<>();
+        for (final Data entry : combiner()
+                .set(Key.ABC, builder(1, 1L, 2))
+                .set(Key.DEF, builder(3, 3L))
+                .distinct(0)) {
+            result.add(entry);
+        }
+        Assert.assertEquals(result.toString(), 2, result.size());
+    }
+
+    @Test
+    public final void testDistinctApproximate() {
+        final Object[] values = new Object[40];
+        for (int index = 0; index < values.length; ++index) {
+            values[index] = index;
+        }
+        final Combiner subject = combiner()
+                .set(Key.ABC, builder(values))
+                .set(Key.DEF, builder(values))
+                .set(Key.GHI, builder(values))
+                .distinct(1 << 16);
+        int count = 0;
+        for (final Data ignored : subject) {
+            count += 1;
+        }
+        // all 64000 results differ, some are skipped as false positives (about 1% expected) ...
+        Assert.assertTrue(String.valueOf(count), count <= 64000);
+        Assert.assertTrue(String.valueOf(count), count > 62000);
+    }
+
+    @Test
+    public final void testBestFirst() {
+        final Combiner subject = combiner()
+                .set(Key.ABC, builder(1, 5, 3), WEIGHT)
+                .set(Key.DEF, builder(10, 0, 20), WEIGHT)
+                .set(Key.GHI, builder("x", "y"));
+        final List<Data> result = new LinkedList<>();
+        for (final Data entry : subject.bestFirst()) {
+            result.add(entry);
+        }
+        Assert.assertEquals(18, result.size());
+        Assert.assertEquals(18, new HashSet<>(result).size());
+        Assert.assertEquals(Integer.valueOf(5), result.get(0).get(Key.ABC));
+        Assert.assertEquals(Integer.valueOf(20), result.get(0).get(Key.DEF));
+        double last = Double.POSITIVE_INFINITY;
+        for (final Data entry : result) {
+            final double score = score(entry);
+            Assert.assertTrue(result.toString(), score <= last);
+            last = score;
+        }
+    }
+
+    @Test
+    public final void testBestFirstTop() {
+        final Object[] values = new Object[1000];
+        for (int index = 0; index < values.length; ++index) {
+            values[index] = index;
+        }
+        final Combiner subject = combiner()
+                .set(Key.ABC, builder(values), WEIGHT)
+                .set(Key.DEF, builder(values), WEIGHT)
+                .set(Key.GHI, builder(values), WEIGHT);
+        final List<Double> scores = new LinkedList<>();
+        for (final Data entry : subject.bestFirst()) {
+            scores.add(score(entry));
+            if (4 == scores.size()) {
+                break;
+            }
+        }
+        Assert.assertEquals(asList(2997.0, 2996.0, 2996.0, 2996.0), scores);
+    }
+
+    @Test
+    public final void testBestFirstWeigherReplaced() {
+        final Combiner subject = combiner()
+                .set(Key.ABC, builder(1, 50, 3), WEIGHT)
+                .set(Key.DEF, builder(10, 0, 20), WEIGHT)
+                .set(Key.ABC, builder(1, 50, 3));
+        final List<Data> result = new LinkedList<>();
+        for (final Data entry : subject.bestFirst()) {
+            result.add(entry);
+        }
+        Assert.assertEquals(9, result.size());
+        // the values of ABC are no longer weighed, so DEF alone determines the order ...
+        for (int index = 0; index < 3; ++index) {
+            Assert.assertEquals(result.toString(), Integer.valueOf(20), result.get(index).get(Key.DEF));
+        }
+    }
+
+    @Test
+    public final void testBestFirstEmpty() {
+        final Combiner subject = combiner()
+                .set(Key.ABC, builder(1, 2), WEIGHT)
+                .set(Key.DEF, builder());
+        Assert.assertFalse(subject.bestFirst().iterator().hasNext());
+        Assert.assertFalse(combiner().bestFirst().iterator().hasNext());
+    }
+
+    private static double score(final Data entry) {
+        return WEIGHT.weigh(entry.get(Key.ABC)) + WEIGHT.weigh(entry.get(Key.DEF)) + WEIGHT.weigh(entry.get(Key.GHI));
+    }
+
+    @Test
+    public final void testNested() {
+        final Combiner inner = combiner()
+                .set(Key.ABC, builder(1, 2))
+                .set(Key.DEF, builder(3, 4));
+        final Combiner subject = combiner()
+                .set(Key.ABC, inner)
+                .set(Key.DEF, builder(5, 6, 7));
+        Assert.assertEquals(12, subject.size());
+        final List<Data> result = new LinkedList<>();
+        for (final Data entry : subject) {
+            result.add(entry);
+        }
+        Assert.assertEquals(12, result.size());
+        Assert.assertEquals(12, new HashSet<>(result).size());
+        // Any inner result is built once and shared by the outer results ...
+        final Set<Object> inners = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        for (final Data entry : result) {
+            Assert.assertTrue(entry.get(Key.ABC) instanceof Data);
+            inners.add(entry.get(Key.ABC));
+        }
+        Assert.assertEquals(4, inners.size());
+    }
+
+    @Test
+    public final void testNestedLarge() {
+        final Object[] values = new Object[40];
+        for (int index = 0; index < values.length; ++index) {
+            values[index] = index;
+        }
+        final Combiner inner = combiner()
+                .set(Key.ABC, builder(values))
+                .set(Key.DEF, builder(values));
+        final Combiner subject = combiner()
+                .set(Key.ABC, inner)
+                .set(Key.DEF, builder(5, 6));
+        final Set<Object> inners = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        final Set<Object> distinct = new HashSet<>();
+        int count = 0;
+        for (final Data entry : subject) {
+            inners.add(entry.get(Key.ABC));
+            distinct.add(entry.get(Key.ABC));
+            count += 1;
+        }
+        Assert.assertEquals(3200, count);
+        Assert.assertEquals(1600, distinct.size());
+        // Too many inner results to be kept, so they are built anew by each pass ...
+        Assert.assertEquals(3200, inners.size());
+    }
+
+    @Test
+    public final void testSize() {
+        Assert.assertEquals(0, combiner().size());
+        Assert.assertEquals(0, combiner().set(Key.ABC, builder(1, 2)).set(Key.DEF, builder()).size());
+        Assert.assertEquals(6, combiner().set(Key.ABC, builder(1, 2)).set(Key.DEF, builder(3, 4, 5)).size());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public final void testSizeOverflow() {
+        final Object[] values = new Object[100000];
+        for (int index = 0; index < values.length; ++index) {
+            values[index] = index;
+        }
+        final Combiner inner = combiner()
+                .set(Key.ABC, builder(values))
+                .set(Key.DEF, builder(values))
+                .set(Key.GHI, builder(values))
+                .set(Key.JKL, builder(values));
+        final Combiner subject = combiner()
+                .set(Key.ABC, inner)
+                .set(Key.DEF, builder(1, 2));
+        Assert.assertEquals(2 * inner.size(), subject.size());
+        Assert.assertNull("Should not happen :-o", subject.set(Key.GHI, inner).size());
+    }
+
+    @Test
+    public final void testDependent() {
+        final int[] evaluations = {0};
+        // ABC depends on DEF, which has a higher ordinal ...
+        final Combiner subject = combiner()
+                .set(Key.ABC, new net.team33.building.mapping.Combiner.Dependent<Key>() {
+                    @Override
+                    public Collection<? extends Key> getInputs() {
+                        return asList(Key.DEF);
+                    }
+
+                    @Override
+                    public Collection<?> getValues(final Map<Key, Object> inputs) {
+                        evaluations[0] += 1;
+                        return "DE".equals(inputs.get(Key.DEF)) ? asList("BY", "NW", "BE") : asList("W", "T");
+                    }
+                })
+                .set(Key.DEF, builder("DE", "AT"))
+                .set(Key.GHI, builder(1, 2));
+        final List<Data> result = new LinkedList<>();
+        for (final Data entry : subject) {
+            result.add(entry);
+        }
+        Assert.assertEquals(10, result.size());
+        Assert.assertEquals(10, new HashSet<>(result).size());
+        Assert.assertEquals(2, evaluations[0]);
+        for (final Data entry : result) {
+            final String region = entry.get(Key.ABC);
+            Assert.assertEquals(entry.toString(), "DE".equals(entry.get(Key.DEF)), region.length() == 2);
+        }
+        Assert.assertEquals(10, subject.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public final void testDependentCyclic() {
+        final Combiner subject = combiner()
+                .set(Key.ABC, dependent(Key.DEF))
+                .set(Key.DEF, dependent(Key.ABC));
+        Assert.assertNull("Should not happen :-o", subject.iterator());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public final void testDependentUndefined() {
+        Assert.assertNull("Should not happen :-o", combiner().set(Key.ABC, dependent(Key.DEF)).iterator());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public final void testDependentBestFirst() {
+        final Combiner subject = combiner()
+                .set(Key.ABC, dependent(Key.DEF))
+                .set(Key.DEF, builder(1, 2));
+        Assert.assertNull("Should not happen :-o", subject.bestFirst());
+    }
+
+    @Test
+    public final void testDependentSize() {
+        final Object[] values = new Object[100000];
+        for (int index = 0; index < values.length; ++index) {
+            values[index] = index;
+        }
+        // Far too many inner results to be built, so the trailing nested domain must be counted by its size ...
+        final Combiner inner = combiner()
+                .set(Key.ABC, builder(values))
+                .set(Key.DEF, builder(values));
+        final Combiner subject = combiner()
+                .set(Key.ABC, dependent(Key.DEF))
+                .set(Key.DEF, builder("a", "b"))
+                .set(Key.GHI, inner);
+        Assert.assertEquals(2 * 100000L * 100000L, subject.size());
+    }
+
+    private static net.team33.building.mapping.Combiner.Dependent<Key> dependent(final Key input) {
+        return new net.team33.building.mapping.Combiner.Dependent<Key>() {
+            @Override
+            public Collection<? extends Key> getInputs() {
+                return asList(input);
+            }
+
+            @Override
+            public Collection<?> getValues(final Map<Key, Object> inputs) {
+                return asList(inputs.get(input));
+            }
+        };
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testDistinctNegative() {
+        Assert.assertNull("Should not happen :-o", combiner().distinct(-1));
+    }
+
     @SuppressWarnings({"ClassNameSameAsAncestorName", "UnusedDeclaration"})
     private enum Key implements net.team33.building.mapping.Key {
 
@@ -75,6 +425,12 @@ public class CombinerTest {
 
         @Override
         public final Data build() {
+            for (final Key key : Key.values()) {
+                final Object value = get(key);
+                if (value instanceof Number) {
+                    set(key, ((Number) value).intValue());
+                }
+            }
             return new Data(this);
         }
     }
@@ -86,6 +442,52 @@ public class CombinerTest {
         }
     }
 
+    /**
+     * A value that takes a while to be hashed.
+     */
+    private static final class Slow {
+
+        private static final long NANOS = 20000;
+
+        private final int value;
+
+        private Slow(final int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return (obj instanceof Slow) && (value == ((Slow) obj).value);
+        }
+
+        @Override
+        public int hashCode() {
+            final long end = System.nanoTime() + NANOS;
+            // noinspection StatementWithEmptyBody
+            while (System.nanoTime() < end) {
+                // Busy waiting ...
+            }
+            return value;
+        }
+    }
+
+    /**
+     * A value that fails to be hashed when armed.
+     */
+    @SuppressWarnings("EqualsAndHashcode")
+    private static final class Failing {
+
+        private boolean armed = false;
+
+        @Override
+        public int hashCode() {
+            if (armed) {
+                throw new IllegalStateException("not hashable");
+            }
+            return 0;
+        }
+    }
+
     private static class SetBuilder implements net.team33.building.Builder<Set<?>> {
         private final HashSet<Object> values;
 
@@ -0,0 +1,148 @@
+package net.team33.building.mapping;
+
+import net.team33.building.mapping.jaxb.Country;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.Arrays.asList;
+
+public class ConcurrentMappedTest {
+
+    private static final int THREADS = 4;
+    private static final int UPDATES = 10000;
+
+    private static final ConcurrentMapped.Update<Integer> INCREMENT = new ConcurrentMapped.Update<Integer>() {
+        @Override
+        public Integer apply(final Integer current) {
+            return current + 1;
+        }
+    };
+
+    @Test
+    public final void testSet() {
+        final ConcurrentMapped<KEY> subject = new ConcurrentMapped<>(KEY.class)
+                .set(KEY.LEFT, 278)
+                .set(KEY.COUNTRY, Country.AUT);
+        Assert.assertEquals(Integer.valueOf(278), subject.get(KEY.LEFT));
+        Assert.assertEquals(Integer.valueOf(0), subject.get(KEY.RIGHT));
+        Assert.assertEquals(Country.AUT, subject.get(KEY.COUNTRY));
+        Assert.assertEquals(subject.asMap(), subject.snapshot().asMap());
+    }
+
+    @Test
+    public final void testCompareAndSet() {
+        final ConcurrentMapped<KEY> subject = new ConcurrentMapped<>(KEY.class);
+        Assert.assertFalse(subject.compareAndSet(KEY.COUNTRY, Country.AUT, Country.CHE));
+        Assert.assertTrue(subject.compareAndSet(KEY.COUNTRY, null, Country.AUT));
+        Assert.assertTrue(subject.compareAndSet(KEY.LEFT, 0, 278));
+        // equality, not identity ...
+        Assert.assertTrue(subject.compareAndSet(KEY.LEFT, new Integer(278), 314));
+        Assert.assertEquals(Integer.valueOf(314), subject.get(KEY.LEFT));
+        Assert.assertEquals(Country.AUT, subject.get(KEY.COUNTRY));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public final void testCompareAndSetInvalid() {
+        new ConcurrentMapped<>(KEY.class).compareAndSet(KEY.LEFT, 0, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testIllegalKey() {
+        new ConcurrentMapped<>(asList(KEY.LEFT, KEY.RIGHT)).updateAndGet(KEY.COUNTRY, INCREMENT);
+    }
+
+    @Test
+    public final void testKeySubset() {
+        final ConcurrentMapped<KEY> subject = new ConcurrentMapped<>(asList(KEY.LEFT, KEY.RIGHT));
+        Assert.assertEquals(2, subject.asMap().size());
+        Assert.assertFalse(subject.asMap().containsKey(KEY.COUNTRY));
+        Assert.assertEquals(2, subject.snapshot().asMap().size());
+    }
+
+    /**
+     * Any thread increments both counters by separate atomic updates, while snapshots must never show LEFT less
+     * than RIGHT, as RIGHT is always incremented after LEFT.
+     */
+    @Test
+    public final void testConcurrentUpdates() throws Exception {
+        final ConcurrentMapped<KEY> subject = new ConcurrentMapped<>(KEY.class);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            final List<Future<Void>> writers = new ArrayList<>(THREADS);
+            for (int thread = 0; thread < THREADS; ++thread) {
+                writers.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int index = 0; index < UPDATES; ++index) {
+                            subject.updateAndGet(KEY.LEFT, INCREMENT);
+                            subject.updateAndGet(KEY.RIGHT, INCREMENT);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            final Future<Integer> reader = executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    int snapshots = 0;
+                    int right = 0;
+                    while (right < (THREADS * UPDATES)) {
+                        final EnumMapped<KEY> snapshot = subject.snapshot();
+                        final int left = snapshot.<Integer>get(KEY.LEFT);
+                        right = snapshot.<Integer>get(KEY.RIGHT);
+                        Assert.assertTrue(left >= right);
+                        snapshots += 1;
+                    }
+                    return snapshots;
+                }
+            });
+            for (final Future<Void> writer : writers) {
+                writer.get();
+            }
+            Assert.assertTrue(0 < reader.get());
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(Integer.valueOf(THREADS * UPDATES), subject.get(KEY.LEFT));
+        Assert.assertEquals(Integer.valueOf(THREADS * UPDATES), subject.get(KEY.RIGHT));
+    }
+
+    private enum KEY implements Key {
+
+        LEFT(Integer.class, false, 0),
+        RIGHT(Integer.class, false, 0),
+        COUNTRY(Country.class, true, null);
+
+        private final Class<?> valueClass;
+        private final boolean nullable;
+        private final Object initial;
+
+        KEY(final Class<?> valueClass, final boolean nullable, final Object initial) {
+            this.valueClass = valueClass;
+            this.nullable = nullable;
+            this.initial = initial;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        @Override
+        public Object getInitial() {
+            return initial;
+        }
+    }
+}
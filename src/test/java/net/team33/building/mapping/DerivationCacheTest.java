@@ -0,0 +1,157 @@
+package net.team33.building.mapping;
+
+import net.team33.building.Branchable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class DerivationCacheTest {
+
+    private static final String A_STRING = "a string";
+    private static final String ANOTHER_STRING = "another string";
+
+    private static Data base() {
+        return new Builder().set(KEY.TEXT, A_STRING).build();
+    }
+
+    @Test
+    public final void testHit() {
+        final DerivationCache<KEY, Builder, Data> subject = new DerivationCache<>(100);
+        final Data base = base();
+        final Data first = subject.derive(base, KEY.COUNT, 278);
+        final Data second = subject.derive(base, KEY.COUNT, 278);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(Integer.valueOf(278), first.get(KEY.COUNT));
+        Assert.assertEquals(A_STRING, first.get(KEY.TEXT));
+        Assert.assertEquals(1, subject.hits());
+        Assert.assertEquals(1, subject.misses());
+        Assert.assertEquals(1, subject.size());
+    }
+
+    @Test
+    public final void testMiss() {
+        final DerivationCache<KEY, Builder, Data> subject = new DerivationCache<>(100);
+        final Data base = base();
+        final Data other = base();
+        Assert.assertEquals(base, other);
+        Assert.assertNotSame(subject.derive(base, KEY.COUNT, 278), subject.derive(base, KEY.COUNT, 279));
+        // Bases are identified by identity ...
+        Assert.assertNotSame(subject.derive(base, KEY.COUNT, 278), subject.derive(other, KEY.COUNT, 278));
+        Assert.assertEquals(3, subject.misses());
+        Assert.assertEquals(1, subject.hits());
+    }
+
+    @Test
+    public final void testChanges() {
+        final DerivationCache<KEY, Builder, Data> subject = new DerivationCache<>(100);
+        final Data base = base();
+        final Map<KEY, Object> changes = new EnumMap<>(KEY.class);
+        changes.put(KEY.TEXT, ANOTHER_STRING);
+        changes.put(KEY.COUNT, 5);
+        final Data first = subject.derive(base, changes);
+        changes.put(KEY.COUNT, 6);
+        final Data second = subject.derive(base, changes);
+        Assert.assertEquals(Integer.valueOf(5), first.get(KEY.COUNT));
+        Assert.assertEquals(Integer.valueOf(6), second.get(KEY.COUNT));
+        changes.put(KEY.COUNT, 5);
+        Assert.assertSame(first, subject.derive(base, changes));
+    }
+
+    @Test
+    public final void testEviction() {
+        final DerivationCache<KEY, Builder, Data> subject = new DerivationCache<>(1);
+        final Data base = base();
+        final Data first = subject.derive(base, KEY.COUNT, 1);
+        subject.derive(base, KEY.COUNT, 2);
+        Assert.assertEquals(1, subject.size());
+        Assert.assertNotSame(first, subject.derive(base, KEY.COUNT, 1));
+        Assert.assertEquals(3, subject.misses());
+    }
+
+    @Test
+    public final void testWeakBase() throws InterruptedException {
+        final DerivationCache<KEY, Builder, Data> subject = new DerivationCache<>(100);
+        final Data kept = base();
+        subject.derive(base(), KEY.COUNT, 1);
+        subject.derive(kept, KEY.COUNT, 1);
+        Assert.assertEquals(2, subject.size());
+        for (int attempt = 0; (attempt < 100) && (1 < subject.size()); ++attempt) {
+            System.gc();
+            Thread.sleep(10);
+            subject.derive(kept, KEY.COUNT, 1);
+        }
+        Assert.assertEquals(1, subject.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testIllegalSize() {
+        Assert.assertNull("Should not happen :-o", new DerivationCache<KEY, Builder, Data>(0));
+    }
+
+    @Test(expected = ClassCastException.class)
+    public final void testInvalid() {
+        Assert.assertNull("Should not happen :-o", new DerivationCache<KEY, Builder, Data>(1)
+                .derive(base(), KEY.COUNT, A_STRING));
+    }
+
+    private enum KEY implements Key {
+        TEXT(String.class, false, ""),
+        COUNT(Integer.class, false, 0);
+
+        private final Class<?> valueClass;
+        private final boolean nullable;
+        private final Object initial;
+
+        KEY(final Class<?> valueClass, final boolean nullable, final Object initial) {
+            this.valueClass = valueClass;
+            this.nullable = nullable;
+            this.initial = initial;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        @Override
+        public Object getInitial() {
+            return initial;
+        }
+    }
+
+    private static class Data extends EnumMapped<KEY> implements Branchable<Data, Builder> {
+
+        private Data(final Builder builder) {
+            super(builder);
+        }
+
+        @Override
+        public final Builder branch() {
+            return new Builder(this);
+        }
+    }
+
+    private static class Builder extends EnumMapped.Mapper<KEY, Builder>
+            implements net.team33.building.Builder<Data> {
+
+        private Builder() {
+            super(KEY.class);
+        }
+
+        private Builder(final Data origin) {
+            super(origin);
+        }
+
+        @Override
+        public final Data build() {
+            return new Data(this);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Test;
 
 import java.util.Collection;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
@@ -117,6 +118,46 @@ public class EnumMappedTest {
         }
     }
 
+    @Test
+    public final void testModified() {
+        final Builder subject = new Builder(KEY.class);
+        Assert.assertEquals(EnumSet.noneOf(KEY.class), subject.modified());
+        subject.set(KEY.STRING, A_STRING).set(KEY.DATE, null);
+        Assert.assertEquals(EnumSet.of(KEY.STRING, KEY.DATE), subject.modified());
+        Assert.assertEquals(EnumSet.noneOf(KEY.class), subject.clearModified().modified());
+    }
+
+    @Test
+    public final void test_Mapper_EnumMapped() {
+        final EnumMapped<KEY> origin = new EnumMapped<>(builder(KEY.STRING, KEY.DATE).set(KEY.STRING, A_STRING));
+        final Builder subject = new Builder(origin);
+        Assert.assertEquals(EnumSet.of(KEY.STRING, KEY.DATE), subject.keySet());
+        Assert.assertEquals(origin.asMap(), subject.asMap());
+        Assert.assertEquals(origin, new EnumMapped<>(subject));
+        subject.set(KEY.DATE, new Date(VALUE_278));
+        Assert.assertEquals(new Date(0), origin.asMap().get(KEY.DATE));
+        Assert.assertEquals(new Date(VALUE_278), subject.asMap().get(KEY.DATE));
+    }
+
+    @Test
+    public final void testModifiedSinceBranch() {
+        final EnumMapped<KEY> origin = new EnumMapped<>(new Builder(KEY.class).set(KEY.INTEGER, VALUE_278));
+        final Builder subject = new Builder(origin);
+        Assert.assertEquals(origin.asMap(), subject.asMap());
+        Assert.assertEquals(EnumSet.noneOf(KEY.class), subject.modified());
+        subject.set(KEY.DOUBLE, 2.78);
+        Assert.assertEquals(EnumSet.of(KEY.DOUBLE), subject.modified());
+        Assert.assertEquals(1, subject.patch().size());
+        Assert.assertEquals(Double.valueOf(2.78), subject.patch().get(KEY.DOUBLE));
+    }
+
+    @Test
+    public final void testReset() {
+        final Builder subject = builder(KEY.STRING, KEY.DATE).set(KEY.STRING, A_STRING).set(KEY.DATE, null);
+        Assert.assertEquals(builder(KEY.STRING, KEY.DATE).asMap(), subject.reset().asMap());
+        Assert.assertEquals(EnumSet.noneOf(KEY.class), subject.modified());
+    }
+
     private enum KEY implements Key {
         //IMPOSSIBLE(Object.class, false, null),
         STRING(String.class, false, ""),
@@ -158,5 +199,9 @@ public class EnumMappedTest {
         private Builder(final Class<KEY> keyClass) {
             super(keyClass);
         }
+
+        private Builder(final EnumMapped<KEY> origin) {
+            super(origin);
+        }
     }
 }
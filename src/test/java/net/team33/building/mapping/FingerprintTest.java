@@ -0,0 +1,99 @@
+package net.team33.building.mapping;
+
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class FingerprintTest {
+
+    // A fingerprint must never change, neither from run to run nor from release to release ...
+    private static final long EXPECTED = -5932135584850878560L;
+
+    private static final MappedData SUBJECT = MappedData.builder()
+            .setName("a name")
+            .setFirstName("a first name")
+            .setCountry(Country.AUT)
+            .build();
+
+    @Test
+    public final void testStable() {
+        Assert.assertEquals(EXPECTED, SUBJECT.fingerprint());
+    }
+
+    @Test
+    public final void testEqual() {
+        final MappedData other = MappedData.builder().set(SUBJECT.asMap()).build();
+        Assert.assertNotSame(SUBJECT, other);
+        Assert.assertEquals(SUBJECT.fingerprint(), other.fingerprint());
+        Assert.assertEquals(SUBJECT.fingerprint(), Fingerprint.of(SUBJECT));
+    }
+
+    @Test
+    public final void testPermuted() {
+        final MappedData permuted = MappedData.builder()
+                .setName("a first name")
+                .setFirstName("a name")
+                .setCountry(Country.AUT)
+                .build();
+        Assert.assertNotEquals(SUBJECT.fingerprint(), permuted.fingerprint());
+    }
+
+    @Test
+    public final void testMapIndependent() {
+        final Map<MappedData.Property, Object> enumMap = new EnumMap<>(SUBJECT.asMap());
+        final Map<MappedData.Property, Object> hashMap = new HashMap<>(SUBJECT.asMap());
+        Assert.assertEquals(Fingerprint.of(enumMap), Fingerprint.of(hashMap));
+    }
+
+    @Test
+    public final void testValues() {
+        Assert.assertEquals(fingerprint(new TreeSet<>(Arrays.asList(1, 2, 3))),
+                            fingerprint(new LinkedHashSet<>(Arrays.asList(3, 2, 1))));
+        Assert.assertNotEquals(fingerprint(Arrays.asList(1, 2, 3)), fingerprint(Arrays.asList(3, 2, 1)));
+        Assert.assertEquals(fingerprint(new int[]{1, 2, 3}), fingerprint(new int[]{1, 2, 3}));
+        Assert.assertNotEquals(fingerprint(null), fingerprint(""));
+        Assert.assertNotEquals(fingerprint(1), fingerprint(2));
+    }
+
+    @Test
+    public final void testStableHook() {
+        Assert.assertEquals(fingerprint(new Fixed(278)), fingerprint(new Fixed(278)));
+        Assert.assertNotEquals(fingerprint(new Fixed(278)), fingerprint(new Fixed(279)));
+    }
+
+    @Test
+    public final void testHashCode() {
+        final int expected = Fingerprint.HASH_CODE
+                ? Fingerprint.fold(SUBJECT.fingerprint())
+                : SUBJECT.asMap().hashCode();
+        Assert.assertEquals(expected, SUBJECT.hashCode());
+    }
+
+    private static long fingerprint(final Object value) {
+        final Map<MappedData.Property, Object> map = new EnumMap<>(MappedData.Property.class);
+        map.put(MappedData.Property.NAME, value);
+        return Fingerprint.of(map);
+    }
+
+    private static class Fixed implements Fingerprint.Stable {
+
+        private final long value;
+
+        private Fixed(final long value) {
+            this.value = value;
+        }
+
+        @Override
+        public final long stableHash() {
+            return value;
+        }
+    }
+}
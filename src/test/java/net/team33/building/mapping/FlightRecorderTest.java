@@ -0,0 +1,69 @@
+package net.team33.building.mapping;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+public class FlightRecorderTest {
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.EventFactory");
+            return true;
+        } catch (final ClassNotFoundException ignored) {
+            return false;
+        }
+    }
+
+    @Test
+    public final void testDisabled() {
+        Assert.assertNull(FlightRecorder.create(false));
+    }
+
+    @Test
+    public final void testRecording() throws Exception {
+        Assume.assumeTrue(isAvailable());
+        final FlightRecorder subject = FlightRecorder.create(true);
+        Assert.assertNotNull(subject);
+
+        // The Flight Recorder API is accessed reflectively, so the tests compile without it as well ...
+        final Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        final Object recording = recordingClass.getConstructor().newInstance();
+        recordingClass.getMethod("enable", String.class).invoke(recording, "net.team33.building.RunProgress");
+        recordingClass.getMethod("enable", String.class).invoke(recording, "net.team33.building.RunFinished");
+        recordingClass.getMethod("start").invoke(recording);
+
+        // If the recording is enabled globally, the subject would record each event twice ...
+        final Progress progress = Progress.start("recorded", 4, 2, Progress.isRecording() ? null : subject);
+        for (int index = 0; index < 4; ++index) {
+            progress.step(1000);
+        }
+        progress.finish();
+
+        recordingClass.getMethod("stop").invoke(recording);
+        final File file = File.createTempFile("FlightRecorderTest", ".jfr");
+        try {
+            recordingClass.getMethod("dump", java.nio.file.Path.class).invoke(recording, file.toPath());
+            recordingClass.getMethod("close").invoke(recording);
+            final List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                                                  .getMethod("readAllEvents", java.nio.file.Path.class)
+                                                  .invoke(null, file.toPath());
+            int progressed = 0;
+            int finished = 0;
+            for (final Object event : events) {
+                final String text = event.toString();
+                if (text.contains("recorded")) {
+                    progressed += text.startsWith("net.team33.building.RunProgress") ? 1 : 0;
+                    finished += text.startsWith("net.team33.building.RunFinished") ? 1 : 0;
+                }
+            }
+            Assert.assertEquals(events.toString(), 2, progressed);
+            Assert.assertEquals(events.toString(), 1, finished);
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package net.team33.building.mapping;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+
+public class KeySchemaTest {
+
+    private static final AtomicInteger INITIALS = new AtomicInteger(0);
+    private static final AtomicInteger DERIVATIONS = new AtomicInteger(0);
+
+    @Test
+    public final void testLazyInitial() {
+        final int before = INITIALS.get();
+        for (int index = 0; index < 10; ++index) {
+            Assert.assertEquals("expensive", new Builder().asMap().get(KEY.EXPENSIVE));
+        }
+        Assert.assertTrue(INITIALS.get() - before <= 1);
+    }
+
+    @Test
+    public final void testDerived() {
+        final EnumMapped<KEY> subject = new EnumMapped<>(new Builder().set(KEY.FIRST, "Jane").set(KEY.LAST, "Doe"));
+        final int before = DERIVATIONS.get();
+        Assert.assertEquals("Jane Doe", subject.get(KEY.FULL));
+        Assert.assertEquals("Jane Doe", subject.get(KEY.FULL));
+        Assert.assertEquals(Integer.valueOf(8), subject.get(KEY.LENGTH));
+        Assert.assertEquals(1, DERIVATIONS.get() - before);
+        Assert.assertEquals(EnumSet.allOf(KEY.class), subject.asMap().keySet());
+    }
+
+    @Test
+    public final void testDerivedAfterModification() {
+        final EnumMapped<KEY> origin = new EnumMapped<>(new Builder().set(KEY.FIRST, "Jane").set(KEY.LAST, "Doe"));
+        Assert.assertEquals("Jane Doe", origin.get(KEY.FULL));
+        final EnumMapped<KEY> subject = new EnumMapped<>(new Builder(origin).set(KEY.FIRST, "John"));
+        Assert.assertEquals("John Doe", subject.get(KEY.FULL));
+        Assert.assertEquals("Jane Doe", origin.get(KEY.FULL));
+        Assert.assertNotEquals(origin, subject);
+    }
+
+    @Test
+    public final void testDerivedIgnoredByBuilder() {
+        final EnumMapped<KEY> origin = new EnumMapped<>(new Builder().set(KEY.FIRST, "Jane"));
+        final Builder subject = new Builder().set(origin.asMap());
+        Assert.assertFalse(subject.asMap().containsKey(KEY.FULL));
+        Assert.assertEquals(origin, new EnumMapped<>(subject));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testDerivedNotSettable() {
+        new Builder().set(KEY.FULL, "Jane Doe");
+    }
+
+    @Test
+    public final void testDerivedMissingInputs() {
+        final EnumMapped<KEY> subject = new EnumMapped<>(new Builder(asList(KEY.FIRST, KEY.FULL)));
+        Assert.assertEquals(EnumSet.of(KEY.FIRST), subject.asMap().keySet());
+    }
+
+    private enum KEY implements Key.Lazy, Key.Derivable {
+
+        FIRST(String.class, "", null),
+        LAST(String.class, "", null),
+        EXPENSIVE(String.class, null, null) {
+            @Override
+            public Object getInitial() {
+                INITIALS.incrementAndGet();
+                return "expensive";
+            }
+        },
+        FULL(String.class, null, new Derivation() {
+            @Override
+            public Collection<? extends Key> getInputs() {
+                return asList(FIRST, LAST);
+            }
+
+            @Override
+            public Object derive(final Map<?, ?> values) {
+                DERIVATIONS.incrementAndGet();
+                return values.get(FIRST) + " " + values.get(LAST);
+            }
+        }),
+        LENGTH(Integer.class, null, new Derivation() {
+            @Override
+            public Collection<? extends Key> getInputs() {
+                return Collections.singleton(FULL);
+            }
+
+            @Override
+            public Object derive(final Map<?, ?> values) {
+                return ((String) values.get(FULL)).length();
+            }
+        });
+
+        private final Class<?> valueClass;
+        private final Object initial;
+        private final Derivation derivation;
+
+        KEY(final Class<?> valueClass, final Object initial, final Derivation derivation) {
+            this.valueClass = valueClass;
+            this.initial = initial;
+            this.derivation = derivation;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return false;
+        }
+
+        @Override
+        public Object getInitial() {
+            return initial;
+        }
+
+        @Override
+        public Derivation getDerivation() {
+            return derivation;
+        }
+    }
+
+    private static class Builder extends EnumMapped.Mapper<KEY, Builder> {
+
+        private Builder() {
+            super(KEY.class);
+        }
+
+        private Builder(final Collection<KEY> keys) {
+            super(keys);
+        }
+
+        private Builder(final EnumMapped<KEY> origin) {
+            super(origin);
+        }
+    }
+}
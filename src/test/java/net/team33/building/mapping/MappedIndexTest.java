@@ -0,0 +1,128 @@
+package net.team33.building.mapping;
+
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+public class MappedIndexTest {
+
+    private static final int COUNT = 1000;
+    private static final Country[] COUNTRIES = Country.values();
+
+    private static MappedData record(final int index) {
+        return MappedData.builder()
+                .setName(String.format("name %04d", index))
+                .setFirstName("first name " + (index % 10))
+                .setCountry(COUNTRIES[index % COUNTRIES.length])
+                .build();
+    }
+
+    private static List<MappedData> records() {
+        final List<MappedData> result = new ArrayList<>(COUNT);
+        for (int index = 0; index < COUNT; ++index) {
+            result.add(record(index));
+        }
+        return result;
+    }
+
+    private static MappedIndex<MappedData.Property, MappedData> index() {
+        return new MappedIndex<MappedData.Property, MappedData>(MappedData.Property.class)
+                .hashed(MappedData.Property.COUNTRY)
+                .sorted(MappedData.Property.NAME)
+                .addAll(records());
+    }
+
+    private static List<MappedData> scan(final MappedData.Property key, final Object value) {
+        final List<MappedData> result = new ArrayList<>(0);
+        for (final MappedData record : records()) {
+            if (value.equals(record.get(key))) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public final void testGet() {
+        final MappedIndex<MappedData.Property, MappedData> subject = index();
+        Assert.assertEquals(COUNT, subject.size());
+        for (final Country country : COUNTRIES) {
+            Assert.assertEquals(scan(MappedData.Property.COUNTRY, country),
+                                subject.get(MappedData.Property.COUNTRY, country));
+        }
+        Assert.assertEquals(asList(record(278)), subject.get(MappedData.Property.NAME, "name 0278"));
+        Assert.assertEquals(asList(), subject.get(MappedData.Property.NAME, "no name"));
+    }
+
+    @Test
+    public final void testRange() {
+        final MappedIndex<MappedData.Property, MappedData> subject = index();
+        Assert.assertEquals(records().subList(278, 314),
+                            subject.range(MappedData.Property.NAME, "name 0278", "name 0314"));
+        Assert.assertEquals(records().subList(279, 315),
+                            subject.range(MappedData.Property.NAME, "name 0278", false, "name 0314", true));
+        Assert.assertEquals(records().subList(0, 10),
+                            subject.range(MappedData.Property.NAME, null, "name 0010"));
+        Assert.assertEquals(records().subList(990, COUNT),
+                            subject.range(MappedData.Property.NAME, "name 0990", null));
+    }
+
+    @Test
+    public final void testAddedLater() {
+        final MappedIndex<MappedData.Property, MappedData> subject = index()
+                .hashed(MappedData.Property.FIRST_NAME)
+                .sorted(MappedData.Property.COUNTRY);
+        Assert.assertEquals(scan(MappedData.Property.FIRST_NAME, "first name 7"),
+                            subject.get(MappedData.Property.FIRST_NAME, "first name 7"));
+        Assert.assertEquals(scan(MappedData.Property.COUNTRY, Country.AUT),
+                            subject.range(MappedData.Property.COUNTRY, Country.AUT, true, Country.AUT, true));
+    }
+
+    @Test
+    public final void testRemove() {
+        final MappedIndex<MappedData.Property, MappedData> subject = index().add(record(278));
+        Assert.assertEquals(2, subject.get(MappedData.Property.NAME, "name 0278").size());
+        Assert.assertTrue(subject.remove(record(278)));
+        Assert.assertTrue(subject.contains(record(278)));
+        Assert.assertTrue(subject.remove(record(278)));
+        Assert.assertFalse(subject.contains(record(278)));
+        Assert.assertFalse(subject.remove(record(278)));
+        Assert.assertEquals(COUNT - 1, subject.size());
+        Assert.assertEquals(asList(), subject.get(MappedData.Property.NAME, "name 0278"));
+        final List<MappedData> expected = scan(MappedData.Property.COUNTRY, record(278).getCountry());
+        expected.remove(record(278));
+        Assert.assertEquals(expected, subject.get(MappedData.Property.COUNTRY, record(278).getCountry()));
+    }
+
+    @Test
+    public final void testTable() {
+        final MappedTable<MappedData.Property> table =
+                new MappedTable<>(MappedData.Property.class).addAll(records());
+        final MappedIndex<MappedData.Property, MappedTable.Row<MappedData.Property>> subject =
+                new MappedIndex<MappedData.Property, MappedTable.Row<MappedData.Property>>(MappedData.Property.class)
+                        .hashed(MappedData.Property.NAME)
+                        .addAll(table);
+        Assert.assertEquals(278, subject.get(MappedData.Property.NAME, "name 0278").get(0).getIndex());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testNotIndexed() {
+        index().get(MappedData.Property.FIRST_NAME, "first name 7");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testNotSorted() {
+        index().range(MappedData.Property.COUNTRY, Country.AUT, Country.CHE);
+    }
+
+    @Test(expected = ClassCastException.class)
+    public final void testIllegalValue() {
+        index().get(MappedData.Property.COUNTRY, "AUT");
+    }
+}
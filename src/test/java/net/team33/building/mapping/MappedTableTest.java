@@ -0,0 +1,171 @@
+package net.team33.building.mapping;
+
+import net.team33.building.mapping.jaxb.Country;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MappedTableTest {
+
+    private static final int COUNT = 1000;
+
+    private static Builder builder(final int index) {
+        return new Builder()
+                .set(KEY.INTEGER, index)
+                .set(KEY.LONG, index * 1000000000000L)
+                .set(KEY.DOUBLE, (0 == (index % 3)) ? null : index / 4.0)
+                .set(KEY.BOOLEAN, 0 == (index % 2))
+                .set(KEY.STRING, "string " + index)
+                .set(KEY.COUNTRY, Country.values()[index % Country.values().length]);
+    }
+
+    private static MappedTable<KEY> table() {
+        final List<Builder> builders = new ArrayList<>(COUNT);
+        for (int index = 0; index < COUNT; ++index) {
+            builders.add(builder(index));
+        }
+        return new MappedTable<>(KEY.class, 1).addAll(builders);
+    }
+
+    @Test
+    public final void testGet() {
+        final MappedTable<KEY> subject = table();
+        Assert.assertEquals(COUNT, subject.size());
+        for (int index = 0; index < COUNT; ++index) {
+            final MappedTable.Row<KEY> row = subject.get(index);
+            Assert.assertEquals(index, row.getIndex());
+            Assert.assertEquals(builder(index).asMap(), row.asMap());
+            Assert.assertEquals("string " + index, row.get(KEY.STRING));
+        }
+    }
+
+    @Test
+    public final void testRowEquals() {
+        final MappedTable<KEY> subject = table();
+        subject.add(builder(278));
+        Assert.assertEquals(subject.get(278), subject.get(COUNT));
+        Assert.assertEquals(subject.get(278).hashCode(), subject.get(COUNT).hashCode());
+        Assert.assertNotEquals(subject.get(277), subject.get(COUNT));
+    }
+
+    @Test
+    public final void testIterator() {
+        int index = 0;
+        for (final MappedTable.Row<KEY> row : table()) {
+            Assert.assertEquals(index, row.getIndex());
+            index += 1;
+        }
+        Assert.assertEquals(COUNT, index);
+    }
+
+    @Test
+    public final void testColumnScan() {
+        final MappedTable<KEY> subject = table();
+        final MappedTable.Column integers = subject.column(KEY.INTEGER);
+        final MappedTable.Column booleans = subject.column(KEY.BOOLEAN);
+        final MappedTable.Column doubles = subject.column(KEY.DOUBLE);
+        long sum = 0;
+        int trues = 0;
+        int nulls = 0;
+        for (int index = 0; index < subject.size(); ++index) {
+            sum += integers.getInt(index);
+            trues += booleans.getBoolean(index) ? 1 : 0;
+            nulls += doubles.isNull(index) ? 1 : 0;
+        }
+        Assert.assertEquals((COUNT * (COUNT - 1)) / 2, sum);
+        Assert.assertEquals(COUNT / 2, trues);
+        Assert.assertEquals((COUNT + 2) / 3, nulls);
+        Assert.assertEquals(3000000000000L, subject.column(KEY.LONG).getLong(3));
+    }
+
+    @Test
+    public final void testAddDefaults() {
+        final MappedTable<KEY> subject = new MappedTable<>(KEY.class);
+        subject.add(new Builder());
+        Assert.assertEquals(new Builder().asMap(), subject.get(0).asMap());
+    }
+
+    @Test
+    public final void testPackedNull() {
+        final MappedTable<KEY> subject = table();
+        subject.add(builder(5).set(KEY.COUNTRY, null));
+        Assert.assertTrue(subject.column(KEY.COUNTRY).isNull(COUNT));
+        Assert.assertNull(subject.get(COUNT).get(KEY.COUNTRY));
+        Assert.assertFalse(subject.column(KEY.COUNTRY).isNull(5));
+        Assert.assertEquals(builder(5).get(KEY.COUNTRY), subject.column(KEY.COUNTRY).get(5));
+    }
+
+    @Test
+    public final void testPackedEqual() {
+        final MappedTable<KEY> subject = table();
+        final int period = 2 * Country.values().length;
+        for (int index = 0; index < (COUNT - period); ++index) {
+            Assert.assertTrue(subject.isPackedEqual(index, index + period));
+            Assert.assertEquals(subject.packedHashCode(index), subject.packedHashCode(index + period));
+            Assert.assertFalse(subject.isPackedEqual(index, index + 1));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public final void testPackedIllegalAccess() {
+        table().column(KEY.COUNTRY).getBoolean(0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public final void testColumnIllegalAccess() {
+        table().column(KEY.STRING).getInt(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public final void testColumnNull() {
+        table().column(KEY.DOUBLE).getDouble(0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testGetOutOfBounds() {
+        table().get(COUNT);
+    }
+
+    private enum KEY implements Key {
+
+        INTEGER(Integer.class, false, 0),
+        LONG(Long.class, false, 0L),
+        DOUBLE(Double.class, true, 0.0),
+        BOOLEAN(Boolean.class, false, false),
+        STRING(String.class, false, ""),
+        COUNTRY(Country.class, true, null);
+
+        private final Class<?> valueClass;
+        private final boolean nullable;
+        private final Object initial;
+
+        KEY(final Class<?> valueClass, final boolean nullable, final Object initial) {
+            this.valueClass = valueClass;
+            this.nullable = nullable;
+            this.initial = initial;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        @Override
+        public Object getInitial() {
+            return initial;
+        }
+    }
+
+    private static class Builder extends EnumMapped.Mapper<KEY, Builder> {
+        private Builder() {
+            super(KEY.class);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package net.team33.building.mapping;
 
 import net.team33.building.Branchable;
+import net.team33.building.test.Allocation;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
 import java.util.Collection;
@@ -81,6 +83,20 @@ public class MappedTest {
         );
     }
 
+    @Test
+    public final void testGet_allocation() {
+        Assume.assumeTrue(Allocation.isSupported());
+        final Subject subject = builder(KEY.STRING, KEY.INTEGER)
+                .set(KEY.STRING, VALUE_01)
+                .build();
+        Allocation.assertWithin(0, new Runnable() {
+            @Override
+            public void run() {
+                subject.get(KEY.STRING);
+            }
+        });
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public final void testGet_foreign_key() {
         final Subject subject = builder(KEY.STRING)
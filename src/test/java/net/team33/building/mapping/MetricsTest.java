@@ -0,0 +1,156 @@
+package net.team33.building.mapping;
+
+import net.team33.building.Branchable;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static net.team33.building.mapping.Metrics.Counter.BRANCHES;
+import static net.team33.building.mapping.Metrics.Counter.BUILDERS;
+import static net.team33.building.mapping.Metrics.Counter.BUILDS;
+import static net.team33.building.mapping.Metrics.Counter.BULK_SETS;
+import static net.team33.building.mapping.Metrics.Counter.COPIED_ENTRIES;
+import static net.team33.building.mapping.Metrics.Counter.VALIDATION_FAILURES;
+
+public class MetricsTest {
+
+    private static final String A_STRING = "a string";
+
+    private Map<Metrics.Counter, Long> before;
+
+    private static long delta(final Map<Metrics.Counter, Long> before, final Metrics.Counter counter) {
+        return Metrics.get(KEY.class, counter) - before.get(counter);
+    }
+
+    @Before
+    public final void before() {
+        before = Metrics.get(KEY.class);
+    }
+
+    @Test
+    public final void testDisabled() {
+        Assume.assumeFalse(Metrics.isEnabled());
+        new Builder().set(KEY.STRING, A_STRING).build().branch().build();
+        for (final Metrics.Counter counter : Metrics.Counter.values()) {
+            Assert.assertEquals(0, delta(before, counter));
+        }
+        Assert.assertFalse(Metrics.schemas().contains(KEY.class));
+    }
+
+    @Test
+    public final void testBuilders() {
+        Assume.assumeTrue(Metrics.isEnabled());
+        new Builder().build();
+        Assert.assertEquals(1, delta(before, BUILDERS));
+        Assert.assertEquals(1, delta(before, BUILDS));
+        Assert.assertEquals(0, delta(before, BRANCHES));
+        Assert.assertEquals(KEY.values().length, delta(before, COPIED_ENTRIES));
+    }
+
+    @Test
+    public final void testBranches() {
+        Assume.assumeTrue(Metrics.isEnabled());
+        final Data origin = new Builder().set(KEY.STRING, A_STRING).build();
+        final Data result = origin.branch().build();
+        Assert.assertEquals(origin, result);
+        Assert.assertEquals(2, delta(before, BUILDERS));
+        Assert.assertEquals(2, delta(before, BUILDS));
+        Assert.assertEquals(1, delta(before, BRANCHES));
+    }
+
+    @Test
+    public final void testBulkSets() {
+        Assume.assumeTrue(Metrics.isEnabled());
+        new Builder().set(Collections.singletonMap(KEY.STRING, A_STRING))
+                     .reset(Collections.<KEY, Object>emptyMap());
+        Assert.assertEquals(2, delta(before, BULK_SETS));
+        Assert.assertEquals(KEY.values().length + 1 + KEY.values().length, delta(before, COPIED_ENTRIES));
+    }
+
+    @Test
+    public final void testValidationFailures() {
+        Assume.assumeTrue(Metrics.isEnabled());
+        final Builder builder = new Builder();
+        try {
+            builder.set(KEY.STRING, null);
+            Assert.fail("should fail");
+        } catch (final NullPointerException ignored) {
+            Assert.assertEquals(1, delta(before, VALIDATION_FAILURES));
+        }
+        try {
+            builder.set(KEY.INTEGER, A_STRING);
+            Assert.fail("should fail");
+        } catch (final ClassCastException ignored) {
+            Assert.assertEquals(2, delta(before, VALIDATION_FAILURES));
+        }
+    }
+
+    @Test
+    public final void testSchemas() {
+        Assume.assumeTrue(Metrics.isEnabled());
+        new Builder();
+        Assert.assertTrue(Metrics.schemas().contains(KEY.class));
+    }
+
+    private enum KEY implements Key {
+
+        STRING(String.class, ""),
+        INTEGER(Integer.class, 0);
+
+        private final Class<?> valueClass;
+        private final Object initial;
+
+        KEY(final Class<?> valueClass, final Object initial) {
+            this.valueClass = valueClass;
+            this.initial = initial;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return false;
+        }
+
+        @Override
+        public Object getInitial() {
+            return initial;
+        }
+    }
+
+    private static class Data extends EnumMapped<KEY> implements Branchable<Data, Builder> {
+
+        private Data(final Mapper<KEY, ?> mapper) {
+            super(mapper);
+        }
+
+        @Override
+        public final Builder branch() {
+            return new Builder(this);
+        }
+    }
+
+    private static class Builder extends EnumMapped.Mapper<KEY, Builder>
+            implements net.team33.building.Builder<Data> {
+
+        private Builder() {
+            super(KEY.class);
+        }
+
+        private Builder(final Data origin) {
+            super(origin);
+        }
+
+        @Override
+        public final Data build() {
+            return new Data(this);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package net.team33.building.mapping;
+
+import net.team33.building.mapping.jaxb.Country;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class OffHeapArenaTest {
+
+    private static final int COUNT = 1000;
+
+    private static Builder builder(final int index) {
+        return new Builder()
+                .set(KEY.INTEGER, index)
+                .set(KEY.LONG, index * 1000000000000L)
+                .set(KEY.DOUBLE, (0 == (index % 3)) ? null : index / 4.0)
+                .set(KEY.BOOLEAN, 0 == (index % 2))
+                .set(KEY.STRING, (0 == (index % 5)) ? null : "string ä€😀 " + index)
+                .set(KEY.COUNTRY, Country.values()[index % Country.values().length])
+                .set(KEY.DATE, new Date(index * 278278L));
+    }
+
+    @Test
+    public final void testStore() {
+        try (final OffHeapArena<KEY> subject = new OffHeapArena<>(KEY.class, 256)) {
+            final List<OffHeapArena.Record<KEY>> records = new ArrayList<>(COUNT);
+            for (int index = 0; index < COUNT; ++index) {
+                records.add(subject.store(builder(index)));
+            }
+            Assert.assertEquals(COUNT, subject.size());
+            for (int index = 0; index < COUNT; ++index) {
+                Assert.assertEquals(builder(index).asMap(), records.get(index).asMap());
+                Assert.assertEquals(Integer.valueOf(index), records.get(index).get(KEY.INTEGER));
+            }
+            Assert.assertEquals(records.get(1), subject.store(builder(1)));
+            Assert.assertNotEquals(records.get(1), records.get(2));
+        }
+    }
+
+    @Test
+    public final void testDefaults() {
+        try (final OffHeapArena<KEY> subject = new OffHeapArena<>(KEY.class)) {
+            Assert.assertEquals(new Builder().asMap(), subject.store(new Builder()).asMap());
+        }
+    }
+
+    @Test
+    public final void testLargeString() {
+        final StringBuilder large = new StringBuilder(1000);
+        for (int index = 0; index < 100; ++index) {
+            large.append("0123456789");
+        }
+        try (final OffHeapArena<KEY> subject = new OffHeapArena<>(KEY.class, 256)) {
+            final OffHeapArena.Record<KEY> small = subject.store(builder(1));
+            final OffHeapArena.Record<KEY> record = subject.store(builder(2).set(KEY.STRING, large.toString()));
+            final OffHeapArena.Record<KEY> next = subject.store(builder(3));
+            Assert.assertEquals(large.toString(), record.get(KEY.STRING));
+            Assert.assertEquals(builder(1).asMap(), small.asMap());
+            Assert.assertEquals(builder(3).asMap(), next.asMap());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public final void testClosed() {
+        final OffHeapArena.Record<KEY> record;
+        try (final OffHeapArena<KEY> subject = new OffHeapArena<>(KEY.class)) {
+            record = subject.store(builder(1));
+        }
+        record.get(KEY.INTEGER);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testChunkTooSmall() {
+        new OffHeapArena<>(KEY.class, 8).close();
+    }
+
+    private enum KEY implements Key {
+
+        INTEGER(Integer.class, false, 0),
+        LONG(Long.class, false, 0L),
+        DOUBLE(Double.class, true, 0.0),
+        BOOLEAN(Boolean.class, false, false),
+        STRING(String.class, true, ""),
+        COUNTRY(Country.class, true, null),
+        DATE(Date.class, true, null);
+
+        private final Class<?> valueClass;
+        private final boolean nullable;
+        private final Object initial;
+
+        KEY(final Class<?> valueClass, final boolean nullable, final Object initial) {
+            this.valueClass = valueClass;
+            this.nullable = nullable;
+            this.initial = initial;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        @Override
+        public Object getInitial() {
+            return initial;
+        }
+    }
+
+    private static class Builder extends EnumMapped.Mapper<KEY, Builder> {
+        private Builder() {
+            super(KEY.class);
+        }
+    }
+}
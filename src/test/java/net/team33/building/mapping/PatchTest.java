@@ -0,0 +1,73 @@
+package net.team33.building.mapping;
+
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+public class PatchTest {
+
+    private static final MappedData ORIGIN = MappedData.builder()
+            .setName("a name")
+            .setFirstName("a first name")
+            .setCountry(Country.AUT)
+            .build();
+    private static final MappedData TARGET = MappedData.builder()
+            .setName("a name")
+            .setFirstName("another first name")
+            .setCountry(Country.CHE)
+            .build();
+
+    private static MappedData.Builder origin() {
+        return MappedData.builder().set(ORIGIN.asMap()).clearModified();
+    }
+
+    @Test
+    public final void testDiff() {
+        final Patch<MappedData.Property> subject = Patch.diff(ORIGIN, TARGET);
+        Assert.assertEquals(2, subject.size());
+        Assert.assertFalse(subject.isChanged(MappedData.Property.NAME));
+        Assert.assertTrue(subject.isChanged(MappedData.Property.FIRST_NAME));
+        Assert.assertTrue(subject.isChanged(MappedData.Property.COUNTRY));
+        final Map<MappedData.Property, Object> expected = new EnumMap<>(MappedData.Property.class);
+        expected.put(MappedData.Property.FIRST_NAME, "another first name");
+        expected.put(MappedData.Property.COUNTRY, Country.CHE);
+        Assert.assertEquals(expected, subject.asMap());
+        Assert.assertTrue(Patch.diff(ORIGIN, ORIGIN).isEmpty());
+    }
+
+    @Test
+    public final void testApply() {
+        final MappedData.Builder subject = origin();
+        Assert.assertEquals(TARGET, subject.apply(Patch.diff(ORIGIN, TARGET)).build());
+        Assert.assertEquals(Patch.diff(ORIGIN, TARGET).asMap(), subject.patch().asMap());
+    }
+
+    @Test
+    public final void testEncoded() {
+        final BinaryCodec<MappedData.Property> codec = new BinaryCodec<>(MappedData.Property.class);
+        final Patch<MappedData.Property> patch = Patch.diff(ORIGIN, TARGET);
+        final ByteBuffer buffer = codec.encode(patch, ByteBuffer.allocate(codec.sizeOf(patch)));
+        buffer.flip();
+        Assert.assertTrue(codec.sizeOf(patch) < codec.sizeOf(TARGET));
+        Assert.assertEquals(TARGET, codec.decode(buffer, origin()).build());
+    }
+
+    @Test
+    public final void testEmpty() {
+        final Patch<MappedData.Property> subject = Patch.diff(ORIGIN, new Mapped.Immutable<MappedData.Property>() {
+            @Override
+            public Map<MappedData.Property, Object> asMap() {
+                return Collections.emptyMap();
+            }
+        });
+        Assert.assertTrue(subject.isEmpty());
+        Assert.assertTrue(subject.asMap().isEmpty());
+        Assert.assertEquals(ORIGIN, origin().apply(subject).build());
+    }
+}
@@ -0,0 +1,79 @@
+package net.team33.building.mapping;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+public class ProgressTest {
+
+    @Test
+    public final void testNotifications() {
+        final Log log = new Log();
+        final Progress subject = Progress.start("test", 5, 2, log);
+        for (int index = 0; index < 5; ++index) {
+            if (3 == index) {
+                subject.fail("failure");
+            }
+            subject.step(10 * (index + 1));
+        }
+        subject.finish();
+        subject.finish();
+        Assert.assertEquals(asList("started test",
+                                   "progressed 2 latency 15",
+                                   "failed 3 failure",
+                                   "progressed 4 latency 35",
+                                   "finished 5 failures 1"), log.entries);
+        Assert.assertTrue(subject.isFinished());
+        Assert.assertEquals(0, subject.getRemainingNanos());
+    }
+
+    @Test
+    public final void testUnknownSize() {
+        final Progress subject = Progress.start("test", -1, 1, null);
+        subject.step(1);
+        Assert.assertEquals(1, subject.getIndex());
+        Assert.assertEquals(-1, subject.getSize());
+        Assert.assertTrue(0 > subject.getRemainingNanos());
+        Assert.assertFalse(subject.isFinished());
+    }
+
+    @Test
+    public final void testNotTracked() {
+        Assert.assertEquals(Progress.isRecording(), Progress.isTracked(null));
+        Assert.assertTrue(Progress.isTracked(new Log()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testIllegalBatch() {
+        Progress.start("test", 1, 0, null);
+    }
+
+    static class Log implements Progress.Listener {
+
+        final List<String> entries = new ArrayList<>(0);
+
+        @Override
+        public final void started(final Progress progress) {
+            entries.add("started " + progress.getName());
+        }
+
+        @Override
+        public final void progressed(final Progress progress) {
+            entries.add("progressed " + progress.getIndex() + " latency " + progress.getBatchLatency());
+        }
+
+        @Override
+        public final void failed(final Progress progress, final Object cause) {
+            entries.add("failed " + progress.getIndex() + " " + cause);
+        }
+
+        @Override
+        public final void finished(final Progress progress) {
+            entries.add("finished " + progress.getIndex() + " failures " + progress.getFailures());
+        }
+    }
+}
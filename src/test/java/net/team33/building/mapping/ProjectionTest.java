@@ -0,0 +1,65 @@
+package net.team33.building.mapping;
+
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+
+public class ProjectionTest {
+
+    private static final Projection<MappedData.Property> NAMES =
+            Projection.of(MappedData.Property.NAME, MappedData.Property.FIRST_NAME);
+    private static final Projection<MappedData.Property> ALL =
+            Projection.of(EnumSet.allOf(MappedData.Property.class));
+
+    private static final MappedData ORIGIN = MappedData.builder()
+            .setName("a name")
+            .setFirstName("a first name")
+            .setCountry(Country.AUT)
+            .build();
+
+    @Test
+    public final void testView() {
+        final Projection.View<MappedData.Property> subject = NAMES.view(ORIGIN);
+        final Map<MappedData.Property, Object> expected = new EnumMap<>(MappedData.Property.class);
+        expected.put(MappedData.Property.NAME, "a name");
+        expected.put(MappedData.Property.FIRST_NAME, "a first name");
+        Assert.assertEquals(expected, subject.asMap());
+        Assert.assertFalse(subject.asMap().containsKey(MappedData.Property.COUNTRY));
+        Assert.assertEquals(NAMES.keySet(), subject.asMap().keySet());
+    }
+
+    @Test
+    public final void testWiden() {
+        final Projection.View<MappedData.Property> subject = ALL.view(NAMES.view(ORIGIN));
+        Assert.assertEquals(Country.ZZZ, subject.get(MappedData.Property.COUNTRY));
+        Assert.assertEquals("a name", subject.get(MappedData.Property.NAME));
+        Assert.assertEquals(3, subject.asMap().size());
+    }
+
+    @Test
+    public final void testReflectsOrigin() {
+        final MappedData.Builder origin = MappedData.builder().setName("a name");
+        final Projection.View<MappedData.Property> subject = NAMES.view(origin);
+        origin.setName("another name");
+        Assert.assertEquals("another name", subject.get(MappedData.Property.NAME));
+    }
+
+    @Test
+    public final void testEquals() {
+        Assert.assertEquals(NAMES.view(ORIGIN), Projection.of(asList(MappedData.Property.FIRST_NAME,
+                                                                     MappedData.Property.NAME)).view(ORIGIN));
+        Assert.assertNotEquals(NAMES.view(ORIGIN), ALL.view(ORIGIN));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testEmpty() {
+        Projection.of(EnumSet.noneOf(MappedData.Property.class));
+    }
+}
@@ -0,0 +1,208 @@
+package net.team33.building.mapping;
+
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+
+public class RecordStoreTest {
+
+    private static final int COUNT = 1000;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static Builder fixed(final int index) {
+        return new Builder()
+                .set(KEY.INTEGER, index)
+                .set(KEY.LONG, index * 1000000000000L)
+                .set(KEY.DOUBLE, (0 == (index % 3)) ? null : index / 4.0)
+                .set(KEY.BOOLEAN, 0 == (index % 2))
+                .set(KEY.COUNTRY, Country.values()[index % Country.values().length])
+                .set(KEY.DATE, (0 == (index % 5)) ? null : new Date(index * 278278L));
+    }
+
+    private static MappedData variable(final int index) {
+        return MappedData.builder()
+                .setName("name " + index)
+                .setFirstName((0 == (index % 7)) ? "" : "first name ä€ " + index)
+                .setCountry(Country.values()[index % Country.values().length])
+                .build();
+    }
+
+    private Path path() throws IOException {
+        return folder.newFile().toPath();
+    }
+
+    @Test
+    public final void testFixed() throws IOException {
+        final Path path = path();
+        try (final RecordStore<KEY> subject = RecordStore.open(path, KEY.class)) {
+            Assert.assertTrue(subject.isFixedWidth());
+            for (int index = 0; index < COUNT; ++index) {
+                Assert.assertEquals(index, subject.append(fixed(index)));
+            }
+            Assert.assertEquals(fixed(278).asMap(), subject.get(278).asMap());
+        }
+        try (final RecordStore<KEY> subject = RecordStore.open(path, KEY.class)) {
+            Assert.assertEquals(COUNT, subject.size());
+            for (int index = 0; index < COUNT; ++index) {
+                Assert.assertEquals(fixed(index).asMap(), subject.get(index).asMap());
+            }
+        }
+    }
+
+    @Test
+    public final void testVariable() throws IOException {
+        final Path path = path();
+        try (final RecordStore<MappedData.Property> subject = RecordStore.open(path, MappedData.Property.class)) {
+            Assert.assertFalse(subject.isFixedWidth());
+            for (int index = 0; index < COUNT; ++index) {
+                Assert.assertEquals(index, subject.append(variable(index)));
+            }
+            Assert.assertEquals(variable(278).asMap(), subject.get(278).asMap());
+        }
+        try (final RecordStore<MappedData.Property> subject = RecordStore.open(path, MappedData.Property.class)) {
+            Assert.assertEquals(COUNT, subject.size());
+            for (int index = 0; index < COUNT; ++index) {
+                Assert.assertEquals(variable(index).asMap(), subject.get(index).asMap());
+            }
+        }
+    }
+
+    @Test
+    public final void testSegments() throws IOException {
+        final Path fixedPath = path();
+        final Path variablePath = path();
+        try (final RecordStore<KEY> fixed = RecordStore.open(fixedPath, KEY.class, 100);
+             final RecordStore<MappedData.Property> variable =
+                     RecordStore.open(variablePath, MappedData.Property.class, 101)) {
+            for (int index = 0; index < COUNT; ++index) {
+                fixed.append(fixed(index));
+                variable.append(variable(index));
+                Assert.assertEquals(fixed(index / 2).asMap(), fixed.get(index / 2).asMap());
+                Assert.assertEquals(variable(index / 2).asMap(), variable.get(index / 2).asMap());
+            }
+        }
+        try (final RecordStore<KEY> fixed = RecordStore.open(fixedPath, KEY.class);
+             final RecordStore<MappedData.Property> variable =
+                     RecordStore.open(variablePath, MappedData.Property.class)) {
+            Assert.assertEquals(COUNT, fixed.size());
+            Assert.assertEquals(COUNT, variable.size());
+            for (int index = 0; index < COUNT; ++index) {
+                Assert.assertEquals(fixed(index).asMap(), fixed.get(index).asMap());
+                Assert.assertEquals(variable(index).asMap(), variable.get(index).asMap());
+            }
+        }
+    }
+
+    @Test
+    public final void testIncompleteTail() throws IOException {
+        final Path path = path();
+        try (final RecordStore<MappedData.Property> subject = RecordStore.open(path, MappedData.Property.class)) {
+            subject.append(variable(0));
+            subject.append(variable(1));
+        }
+        Files.write(path, new byte[]{0, 0, 0, 100, 1, 2}, StandardOpenOption.APPEND);
+        try (final RecordStore<MappedData.Property> subject = RecordStore.open(path, MappedData.Property.class)) {
+            Assert.assertEquals(2, subject.size());
+            Assert.assertEquals(2, subject.append(variable(2)));
+            Assert.assertEquals(variable(2).asMap(), subject.get(2).asMap());
+        }
+    }
+
+    @Test
+    public final void testZeroedTail() throws IOException {
+        assertRecovered(new byte[64]);
+    }
+
+    @Test
+    public final void testNegativeLengthTail() throws IOException {
+        assertRecovered(new byte[]{-1, -1, -1, -100, 1, 2, 3, 4});
+    }
+
+    @Test
+    public final void testTooShortTail() throws IOException {
+        assertRecovered(new byte[]{0, 0, 0, 2, 1, 2, 3, 4});
+    }
+
+    private void assertRecovered(final byte[] tail) throws IOException {
+        final Path path = path();
+        try (final RecordStore<MappedData.Property> subject = RecordStore.open(path, MappedData.Property.class)) {
+            subject.append(variable(0));
+            subject.append(variable(1));
+        }
+        final long size = Files.size(path);
+        Files.write(path, tail, StandardOpenOption.APPEND);
+        try (final RecordStore<MappedData.Property> subject = RecordStore.open(path, MappedData.Property.class)) {
+            Assert.assertEquals(2, subject.size());
+            Assert.assertEquals(size, Files.size(path));
+            Assert.assertEquals(2, subject.append(variable(2)));
+            Assert.assertEquals(variable(2).asMap(), subject.get(2).asMap());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testForeignSchema() throws IOException {
+        final Path path = path();
+        RecordStore.open(path, KEY.class).close();
+        RecordStore.open(path, MappedData.Property.class).close();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testGetOutOfBounds() throws IOException {
+        try (final RecordStore<KEY> subject = RecordStore.open(path(), KEY.class)) {
+            subject.append(fixed(0));
+            subject.get(1);
+        }
+    }
+
+    private enum KEY implements Key {
+
+        INTEGER(Integer.class, false, 0),
+        LONG(Long.class, false, 0L),
+        DOUBLE(Double.class, true, 0.0),
+        BOOLEAN(Boolean.class, false, false),
+        COUNTRY(Country.class, true, null),
+        DATE(Date.class, true, null);
+
+        private final Class<?> valueClass;
+        private final boolean nullable;
+        private final Object initial;
+
+        KEY(final Class<?> valueClass, final boolean nullable, final Object initial) {
+            this.valueClass = valueClass;
+            this.nullable = nullable;
+            this.initial = initial;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        @Override
+        public Object getInitial() {
+            return initial;
+        }
+    }
+
+    private static class Builder extends EnumMapped.Mapper<KEY, Builder> {
+        private Builder() {
+            super(KEY.class);
+        }
+    }
+}
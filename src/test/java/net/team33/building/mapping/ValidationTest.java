@@ -0,0 +1,120 @@
+package net.team33.building.mapping;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ValidationTest {
+
+    private static final String A_STRING = "a string";
+    private static final Object NOT_A_STRING = 278;
+
+    @Test(expected = ClassCastException.class)
+    public final void testFull() {
+        Assert.assertNull("Should not happen :-o", new Builder().set(KEY.TEXT, NOT_A_STRING));
+    }
+
+    @Test
+    public final void testTrusted() {
+        final Builder subject = new Builder().setValidation(Validation.TRUSTED);
+        Assert.assertSame(Validation.TRUSTED, subject.getValidation());
+        Assert.assertSame(NOT_A_STRING, subject.set(KEY.TEXT, NOT_A_STRING).asMap().get(KEY.TEXT));
+        Assert.assertNull(subject.set(KEY.COUNT, null).asMap().get(KEY.COUNT));
+    }
+
+    @Test
+    public final void testSampled() {
+        final Builder subject = new Builder().setValidation(Validation.SAMPLED);
+        int failures = 0;
+        for (int index = 0; index < (100 * Validation.SAMPLE_RATE); ++index) {
+            try {
+                subject.set(KEY.TEXT, NOT_A_STRING);
+            } catch (final ClassCastException ignored) {
+                failures += 1;
+            }
+        }
+        // about 100 expected ...
+        Assert.assertTrue(String.valueOf(failures), 25 < failures);
+        Assert.assertTrue(String.valueOf(failures), 400 > failures);
+    }
+
+    @Test
+    public final void testAsserted() {
+        final Builder subject = new Builder().setValidation(Validation.ASSERTED);
+        boolean checked = false;
+        try {
+            subject.set(KEY.TEXT, NOT_A_STRING);
+        } catch (final ClassCastException ignored) {
+            checked = true;
+        }
+        Assert.assertEquals(Validation.class.desiredAssertionStatus(), checked);
+    }
+
+    @Test
+    public final void testBulk() {
+        final Builder subject = new Builder().setValidation(Validation.TRUSTED);
+        subject.set(new Builder().set(KEY.TEXT, A_STRING).asMap());
+        Assert.assertEquals(A_STRING, subject.asMap().get(KEY.TEXT));
+    }
+
+    @Test
+    public final void testSetValidated() {
+        final Builder origin = new Builder().set(KEY.TEXT, A_STRING).set(KEY.COUNT, 278);
+        final Builder subject = new Builder().setValidated(origin.asMap());
+        Assert.assertSame(Validation.FULL, subject.getValidation());
+        Assert.assertEquals(origin.asMap(), subject.asMap());
+    }
+
+    @Test
+    public final void testDefault() {
+        Assert.assertSame(Validation.FULL, Validation.getDefault(KEY.class));
+        Validation.setDefault(KEY.class, Validation.TRUSTED);
+        try {
+            Assert.assertSame(Validation.TRUSTED, new Builder().getValidation());
+        } finally {
+            Validation.setDefault(KEY.class, Validation.FULL);
+        }
+        Assert.assertSame(Validation.FULL, new Builder().getValidation());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public final void testSetNull() {
+        Assert.assertNull("Should not happen :-o", new Builder().setValidation(null));
+    }
+
+    private enum KEY implements Key {
+        TEXT(String.class, false, ""),
+        COUNT(Integer.class, false, 0);
+
+        private final Class<?> valueClass;
+        private final boolean nullable;
+        private final Object initial;
+
+        KEY(final Class<?> valueClass, final boolean nullable, final Object initial) {
+            this.valueClass = valueClass;
+            this.nullable = nullable;
+            this.initial = initial;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        @Override
+        public Object getInitial() {
+            return initial;
+        }
+    }
+
+    private static class Builder extends EnumMapped.Mapper<KEY, Builder> {
+
+        private Builder() {
+            super(KEY.class);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package net.team33.building.mapping;
+
+import net.team33.building.mapping.jaxb.Country;
+import net.team33.building.mapping.jaxb.MappedData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+
+public class XmlCodecTest {
+
+    private static final String JAXB_FORMAT = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+            "<root>" +
+            "    <address>" +
+            "        <country>AUT</country>" +
+            "        <firstName>a first name</firstName>" +
+            "        <unknown><nested>to be skipped</nested></unknown>" +
+            "        <name>a name</name>" +
+            "    </address>" +
+            "</root>";
+    private static final XmlCodec<MappedData.Property> DATA_CODEC = new XmlCodec<>(MappedData.Property.class);
+    private static final XmlCodec<KEY> CODEC = new XmlCodec<>(KEY.class);
+    private static final String RECORD = "record";
+
+    private static XMLStreamReader reader(final String xml) throws XMLStreamException {
+        return XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+    }
+
+    private static XMLStreamReader readerAtRecord(final String xml) throws XMLStreamException {
+        final XMLStreamReader result = reader(xml);
+        result.nextTag();
+        return result;
+    }
+
+    private static String write(final Mapped<KEY>... origins) throws XMLStreamException {
+        final StringWriter result = new StringWriter();
+        final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(result);
+        writer.writeStartDocument();
+        writer.writeStartElement("records");
+        for (final Mapped<KEY> origin : origins) {
+            CODEC.write(writer, RECORD, origin);
+        }
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.close();
+        return result.toString();
+    }
+
+    @Test
+    public final void testReadJaxbFormat() throws XMLStreamException {
+        final XMLStreamReader reader = readerAtRecord(JAXB_FORMAT);
+        reader.nextTag();
+        Assert.assertEquals(
+                MappedData.builder()
+                        .setName("a name")
+                        .setFirstName("a first name")
+                        .setCountry(Country.AUT)
+                        .build(),
+                DATA_CODEC.read(reader, MappedData.builder()).build()
+        );
+        Assert.assertEquals("address", reader.getLocalName());
+        Assert.assertTrue(reader.isEndElement());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public final void testRoundTrip() throws XMLStreamException {
+        final Builder origin = new Builder()
+                .set(KEY.BOOLEAN, true)
+                .set(KEY.CHARACTER, '€')
+                .set(KEY.INTEGER, -278)
+                .set(KEY.DOUBLE, 2.78)
+                .set(KEY.STRING, "a <string> & more")
+                .set(KEY.COUNTRY, Country.CHE)
+                .set(KEY.DATE, new Date(278278278278L));
+        final XMLStreamReader reader = readerAtRecord(write(origin));
+        reader.nextTag();
+        Assert.assertEquals(
+                origin.asMap(),
+                CODEC.read(reader, new Builder()).asMap()
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public final void testRoundTripNull() throws XMLStreamException {
+        final Builder origin = new Builder()
+                .set(KEY.STRING, null)
+                .set(KEY.DATE, null);
+        final XMLStreamReader reader = readerAtRecord(write(origin));
+        reader.nextTag();
+        Assert.assertEquals(
+                origin.asMap(),
+                CODEC.read(reader, new Builder()).asMap()
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public final void testIterate() throws XMLStreamException {
+        final List<Data> expected = asList(
+                new Builder().set(KEY.INTEGER, 1).build(),
+                new Builder().set(KEY.INTEGER, 2).build(),
+                new Builder().set(KEY.INTEGER, 3).build());
+        final List<Data> result = new ArrayList<>(expected.size());
+        final Iterator<Data> iterator = CODEC.iterate(
+                reader(write(expected.get(0), expected.get(1), expected.get(2))), RECORD,
+                new net.team33.building.Builder<Builder>() {
+                    @Override
+                    public Builder build() {
+                        return new Builder();
+                    }
+                });
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        Assert.assertEquals(expected, result);
+    }
+
+    @Test
+    public final void testRoundTripDerived() throws XMLStreamException {
+        final XmlCodec<SUMMED> codec = new XmlCodec<>(SUMMED.class);
+        final Summed origin = new SummedBuilder().set(SUMMED.LEFT, 2).set(SUMMED.RIGHT, 76).build();
+        final StringWriter xml = new StringWriter();
+        final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(xml);
+        writer.writeStartDocument();
+        writer.writeStartElement("records");
+        codec.write(writer, RECORD, origin);
+        codec.write(writer, RECORD, origin);
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.close();
+        Assert.assertFalse(xml.toString(), xml.toString().contains("<sum>"));
+
+        final XMLStreamReader reader = reader(xml.toString());
+        reader.nextTag();
+        reader.nextTag();
+        final Summed result = codec.read(reader, new SummedBuilder()).build();
+        Assert.assertEquals(origin, result);
+        Assert.assertEquals(78, result.get(SUMMED.SUM));
+
+        final Iterator<Summed> iterator = codec.iterate(
+                reader(xml.toString()), RECORD, new net.team33.building.Builder<SummedBuilder>() {
+                    @Override
+                    public SummedBuilder build() {
+                        return new SummedBuilder();
+                    }
+                });
+        Assert.assertEquals(origin, iterator.next());
+        Assert.assertEquals(origin, iterator.next());
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public final void testReadDerivedSkipped() throws XMLStreamException {
+        final XmlCodec<SUMMED> codec = new XmlCodec<>(SUMMED.class);
+        final Summed result = codec.read(
+                readerAtRecord("<record><left>2</left><sum>0</sum><right>76</right></record>"),
+                new SummedBuilder()).build();
+        Assert.assertEquals(78, result.get(SUMMED.SUM));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testUnsupported() {
+        // noinspection ResultOfObjectAllocationIgnored
+        new XmlCodec<>(UNSUPPORTED.class);
+    }
+
+    private enum KEY implements Key {
+
+        BOOLEAN(Boolean.class, false, false),
+        CHARACTER(Character.class, false, ' '),
+        INTEGER(Integer.class, false, 0),
+        DOUBLE(Double.class, false, 0.0),
+        STRING(String.class, true, ""),
+        COUNTRY(Country.class, false, Country.ZZZ),
+        DATE(Date.class, true, new Date(0));
+
+        private final Class<?> valueClass;
+        private final boolean nullable;
+        private final Object initial;
+
+        KEY(final Class<?> valueClass, final boolean nullable, final Object initial) {
+            this.valueClass = valueClass;
+            this.nullable = nullable;
+            this.initial = initial;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return valueClass;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        @Override
+        public Object getInitial() {
+            return initial;
+        }
+    }
+
+    private enum UNSUPPORTED implements Key {
+
+        OBJECT;
+
+        @Override
+        public Class<?> getValueClass() {
+            return Object.class;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return true;
+        }
+
+        @Override
+        public Object getInitial() {
+            return null;
+        }
+    }
+
+    private static class Data extends EnumMapped<KEY> {
+        private Data(final Mapper<KEY, ?> mapper) {
+            super(mapper);
+        }
+    }
+
+    @SuppressWarnings("ClassNameSameAsAncestorName")
+    private static class Builder extends EnumMapped.Mapper<KEY, Builder>
+            implements net.team33.building.Builder<Data> {
+
+        private Builder() {
+            super(KEY.class);
+        }
+
+        @Override
+        public final Data build() {
+            return new Data(this);
+        }
+    }
+
+    private enum SUMMED implements Key.Derivable {
+
+        LEFT(null),
+        RIGHT(null),
+        SUM(new Derivation() {
+            @Override
+            public Collection<? extends Key> getInputs() {
+                return asList(LEFT, RIGHT);
+            }
+
+            @Override
+            public Object derive(final Map<?, ?> values) {
+                return ((Integer) values.get(LEFT)) + ((Integer) values.get(RIGHT));
+            }
+        });
+
+        private final Derivation derivation;
+
+        SUMMED(final Derivation derivation) {
+            this.derivation = derivation;
+        }
+
+        @Override
+        public Derivation getDerivation() {
+            return derivation;
+        }
+
+        @Override
+        public Class<?> getValueClass() {
+            return Integer.class;
+        }
+
+        @Override
+        public boolean isNullable() {
+            return false;
+        }
+
+        @Override
+        public Object getInitial() {
+            return 0;
+        }
+    }
+
+    private static class Summed extends EnumMapped<SUMMED> {
+        private Summed(final Mapper<SUMMED, ?> mapper) {
+            super(mapper);
+        }
+    }
+
+    private static class SummedBuilder extends EnumMapped.Mapper<SUMMED, SummedBuilder>
+            implements net.team33.building.Builder<Summed> {
+
+        private SummedBuilder() {
+            super(SUMMED.class);
+        }
+
+        @Override
+        public final Summed build() {
+            return new Summed(this);
+        }
+    }
+}
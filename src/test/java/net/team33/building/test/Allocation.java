@@ -0,0 +1,99 @@
+package net.team33.building.test;
+
+import java.lang.management.ManagementFactory;
+
+import static java.lang.String.format;
+
+/**
+ * Measures the heap allocation per operation of the current thread, based on the per-thread allocation counters
+ * of the {@linkplain com.sun.management.ThreadMXBean HotSpot ThreadMXBean}.
+ * <p/>
+ * Intended to pin down allocation budgets of hot paths in unit tests, e.g. "{@code Mapped.get()} allocates
+ * nothing" or "{@code CombIterator.next()} allocates at most N bytes".
+ */
+public class Allocation {
+
+    private static final int DEFAULT_OPERATIONS = 10000;
+    private static final String NOT_SUPPORTED = "thread allocation measurement is not supported by this JVM";
+    private static final String EXCEEDED = "expected at most <%d> bytes per operation but was <%d>";
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+    private static final Runnable NOTHING = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private static com.sun.management.ThreadMXBean threads() {
+        final java.lang.management.ThreadMXBean result = ManagementFactory.getThreadMXBean();
+        if (result instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) result;
+            if (threads.isThreadAllocatedMemorySupported()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+                return threads;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indicates weather or not the current JVM supports the measurement.
+     */
+    public static boolean isSupported() {
+        return null != THREADS;
+    }
+
+    /**
+     * Measures the bytes allocated per execution of a given {@code operation}, averaged over a default number of
+     * executions.
+     *
+     * @throws UnsupportedOperationException if the current JVM does not {@linkplain #isSupported() support}
+     *                                       the measurement.
+     */
+    public static long perOperation(final Runnable operation) {
+        return perOperation(DEFAULT_OPERATIONS, operation);
+    }
+
+    /**
+     * Measures the bytes allocated per execution of a given {@code operation}, averaged over a given number of
+     * {@code operations}.
+     * <p/>
+     * The {@code operation} is executed twice as often as specified: The first half serves as warm-up (so that
+     * e.g. lazy initializations and the JIT compiler don't falsify the result) and is not measured.
+     * The overhead of the measurement itself is determined separately and subtracted.
+     *
+     * @throws UnsupportedOperationException if the current JVM does not {@linkplain #isSupported() support}
+     *                                       the measurement.
+     */
+    public static long perOperation(final int operations, final Runnable operation) {
+        if (isSupported()) {
+            final long overhead = total(operations, NOTHING);
+            total(operations, operation);
+            return Math.max(0, total(operations, operation) - overhead) / operations;
+        } else {
+            throw new UnsupportedOperationException(NOT_SUPPORTED);
+        }
+    }
+
+    /**
+     * Ensures that an {@code operation} allocates at most {@code budget} bytes per execution.
+     *
+     * @throws AssertionError                if the {@code budget} is exceeded.
+     * @throws UnsupportedOperationException if the current JVM does not {@linkplain #isSupported() support}
+     *                                       the measurement.
+     */
+    public static void assertWithin(final long budget, final Runnable operation) {
+        final long actual = perOperation(operation);
+        if (actual > budget) {
+            throw new AssertionError(format(EXCEEDED, budget, actual));
+        }
+    }
+
+    private static long total(final int operations, final Runnable operation) {
+        final long threadId = Thread.currentThread().getId();
+        final long start = THREADS.getThreadAllocatedBytes(threadId);
+        for (int index = 0; index < operations; ++index) {
+            operation.run();
+        }
+        return THREADS.getThreadAllocatedBytes(threadId) - start;
+    }
+}
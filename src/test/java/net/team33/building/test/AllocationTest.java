@@ -0,0 +1,52 @@
+package net.team33.building.test;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AllocationTest {
+
+    private static final int ARRAY_LENGTH = 16;
+    private static final long ARRAY_BYTES = ARRAY_LENGTH * 4L;
+
+    @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
+    private Object escape;
+
+    @Before
+    public final void before() {
+        Assume.assumeTrue(Allocation.isSupported());
+    }
+
+    @Test
+    public final void testPerOperationNothing() {
+        Assert.assertEquals(0, Allocation.perOperation(new Runnable() {
+            @Override
+            public void run() {
+                escape = ARRAY_BYTES;
+            }
+        }));
+    }
+
+    @Test
+    public final void testPerOperationArray() {
+        final long result = Allocation.perOperation(new Runnable() {
+            @Override
+            public void run() {
+                escape = new int[ARRAY_LENGTH];
+            }
+        });
+        Assert.assertTrue(String.format("expected at least <%d> but was <%d>", ARRAY_BYTES, result),
+                          ARRAY_BYTES <= result);
+    }
+
+    @Test(expected = AssertionError.class)
+    public final void testAssertWithinExceeded() {
+        Allocation.assertWithin(ARRAY_BYTES - 1, new Runnable() {
+            @Override
+            public void run() {
+                escape = new int[ARRAY_LENGTH];
+            }
+        });
+    }
+}
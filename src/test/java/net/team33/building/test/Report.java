@@ -26,11 +26,39 @@ public class Report {
     private static final String INDENT = "   ";
     private static final String COMMA = ",";
     private static final String NULL = "<null>";
+    private static final String SUPPRESSED = "%n... %d more suppressed";
+    private static final String STOPPED = "%n... stopped before all subjects were tested";
 
     private final List<Object> entries;
+    private final long suppressed;
+    private final boolean stopped;
 
     public Report(final List<?> entries) throws NullPointerException {
+        this(entries, 0, false);
+    }
+
+    /**
+     * @param suppressed The number of entries that were reported but not kept.
+     * @param stopped    {@code true} if the test was stopped before all subjects were tested.
+     */
+    public Report(final List<?> entries, final long suppressed, final boolean stopped) throws NullPointerException {
         this.entries = unmodifiableList(new ArrayList<>(entries));
+        this.suppressed = suppressed;
+        this.stopped = stopped;
+    }
+
+    /**
+     * Supplies the number of entries that were reported but not kept.
+     */
+    public final long getSuppressed() {
+        return suppressed;
+    }
+
+    /**
+     * Indicates weather or not the test was stopped before all subjects were tested.
+     */
+    public final boolean isStopped() {
+        return stopped;
     }
 
     private static StringBuilder build(final StringBuilder result, final Object subject, final int indent) {
@@ -89,16 +117,23 @@ public class Report {
 
     @Override
     public final int hashCode() {
-        return entries.hashCode();
+        return (31 * ((31 * entries.hashCode()) + Long.valueOf(suppressed).hashCode())) + (stopped ? 1 : 0);
     }
 
     @Override
     public final String toString() {
-        return build(new StringBuilder(0), entries, 0).toString();
+        final StringBuilder result = build(new StringBuilder(0), entries, 0);
+        if (0 < suppressed) {
+            result.append(String.format(SUPPRESSED, suppressed));
+        }
+        if (stopped) {
+            result.append(String.format(STOPPED));
+        }
+        return result.toString();
     }
 
     private boolean equalsInner(final Report other) {
-        return entries.equals(other.entries);
+        return entries.equals(other.entries) && (suppressed == other.suppressed) && (stopped == other.stopped);
     }
 
     private static class ArrayIterator implements Iterator<Object> {
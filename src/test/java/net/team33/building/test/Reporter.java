@@ -1,5 +1,7 @@
 package net.team33.building.test;
 
+import net.team33.building.mapping.Progress;
+
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -8,21 +10,90 @@ import java.util.Objects;
 public class Reporter {
 
     private final List<Object> report = new LinkedList<>();
+    private final Limits limits;
+    private final Progress progress;
+    private int failures = 0;
+    private long suppressed = 0;
+
+    private Reporter(final Limits limits, final Progress progress) {
+        this.limits = limits;
+        this.progress = progress;
+    }
 
     public static <S> Report test(final Iterable<S> subjects, final Tester<? super S> tester) {
         return test(subjects.iterator(), tester);
     }
 
     public static <S> Report test(final Iterator<S> subjects, final Tester<? super S> tester) {
-        final Reporter context = new Reporter();
-        while (subjects.hasNext()) {
-            tester.test(context, subjects.next());
+        return test(subjects, tester, Limits.NONE);
+    }
+
+    public static <S> Report test(final Iterable<S> subjects, final Tester<? super S> tester, final Limits limits) {
+        return test(subjects.iterator(), tester, limits);
+    }
+
+    /**
+     * Tests the {@code subjects} one by one until there are no more subjects or the
+     * {@linkplain Limits#getStopAfter() failure limit} is reached.
+     * At most {@linkplain Limits#getMaxEntries() a limited number} of entries is kept, any further entry is
+     * {@linkplain Report#getSuppressed() counted} only and, if it is a {@link Message}, never resolved.
+     */
+    public static <S> Report test(final Iterator<S> subjects, final Tester<? super S> tester, final Limits limits) {
+        return test(subjects, tester, limits, null);
+    }
+
+    /**
+     * Like {@link #test(Iterator, Tester, Limits)}, notifying a {@code listener} (may be {@code null}) about the
+     * {@link Progress}: each tested subject is a step, each reported entry is a failure.
+     */
+    public static <S> Report test(final Iterator<S> subjects, final Tester<? super S> tester, final Limits limits,
+                                  final Progress.Listener listener) {
+        final Progress progress = Progress.isTracked(listener)
+                ? Progress.start(Reporter.class.getSimpleName(), -1, Progress.DEFAULT_BATCH, listener)
+                : null;
+        final Reporter context = new Reporter(limits, progress);
+        while (subjects.hasNext() && (context.failures < limits.stopAfter)) {
+            if (null == progress) {
+                tester.test(context, subjects.next());
+            } else {
+                final long start = System.nanoTime();
+                tester.test(context, subjects.next());
+                progress.step(System.nanoTime() - start);
+            }
+        }
+        if (null != progress) {
+            progress.finish();
         }
-        return new Report(context.report);
+        return new Report(context.report, context.suppressed, subjects.hasNext());
+    }
+
+    /**
+     * Supplies a {@link Message} that is formatted by {@link String#format(String, Object...)} only if needed.
+     */
+    public static Message format(final String format, final Object... args) {
+        return new Message() {
+            @Override
+            public Object resolve() {
+                return String.format(format, args);
+            }
+        };
     }
 
     public final Reporter report(final Object entry) {
-        report.add(entry);
+        failures += 1;
+        if (report.size() < limits.maxEntries) {
+            final Object resolved = (entry instanceof Message) ? ((Message) entry).resolve() : entry;
+            report.add(resolved);
+            if (null != progress) {
+                progress.fail(resolved);
+            }
+        } else {
+            suppressed += 1;
+            if (null != progress) {
+                // Suppressed entries are never resolved ...
+                progress.fail(null);
+            }
+        }
         return this;
     }
 
@@ -49,4 +120,37 @@ public class Reporter {
     public interface Tester<S> {
         void test(final Reporter context, final S subject);
     }
+
+    /**
+     * An entry to be reported that is resolved only if it is actually kept in a {@link Report}.
+     * Intended to avoid building messages for passed expectations.
+     */
+    public interface Message {
+        Object resolve();
+    }
+
+    /**
+     * Specifies the maximum number of entries kept in a {@link Report} and the number of failures
+     * (reported entries) after which {@link Reporter#test(Iterator, Tester, Limits)} stops testing further subjects.
+     */
+    public static final class Limits {
+
+        public static final Limits NONE = new Limits(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+        private final int maxEntries;
+        private final int stopAfter;
+
+        public Limits(final int maxEntries, final int stopAfter) {
+            this.maxEntries = maxEntries;
+            this.stopAfter = stopAfter;
+        }
+
+        public final int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public final int getStopAfter() {
+            return stopAfter;
+        }
+    }
 }
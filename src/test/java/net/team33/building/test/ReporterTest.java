@@ -1,5 +1,6 @@
 package net.team33.building.test;
 
+import net.team33.building.mapping.Progress;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -67,6 +68,84 @@ public class ReporterTest {
         );
     }
 
+    @Test
+    public void testLazyMessage() throws Exception {
+        final int[] resolved = {0};
+        final Reporter.Message message = new Reporter.Message() {
+            @Override
+            public Object resolve() {
+                resolved[0] += 1;
+                return A_STRING;
+            }
+        };
+        final Report report = Reporter.test(asList(true, false, true), new Reporter.Tester<Boolean>() {
+            @Override
+            public void test(final Reporter context, final Boolean subject) {
+                context.expectTrue(subject, message);
+            }
+        });
+        assertEquals(new Report(asList(A_STRING)), report);
+        assertEquals(1, resolved[0]);
+    }
+
+    @Test
+    public void testMaxEntries() throws Exception {
+        final Report report = Reporter.test(
+                asList(1, 2, 3, 4), new ExpectEqualsTester(2), new Reporter.Limits(2, Integer.MAX_VALUE));
+        assertEquals(
+                new Report(asList(
+                        String.format(EXPECTED_X_BUT_WAS_Y, 2, 1),
+                        String.format(EXPECTED_X_BUT_WAS_Y, 2, 3)), 1, false),
+                report
+        );
+        assertEquals(1, report.getSuppressed());
+    }
+
+    @Test
+    public void testProgress() throws Exception {
+        final List<String> log = new ArrayList<>(0);
+        final Report report = Reporter.test(
+                asList(1, 2, 3, 4).iterator(), new ExpectEqualsTester(2), new Reporter.Limits(1, Integer.MAX_VALUE),
+                new Progress.Listener() {
+                    @Override
+                    public void started(final Progress progress) {
+                        log.add("started");
+                    }
+
+                    @Override
+                    public void progressed(final Progress progress) {
+                        log.add("progressed");
+                    }
+
+                    @Override
+                    public void failed(final Progress progress, final Object cause) {
+                        log.add("failed " + progress.getIndex() + " " + cause);
+                    }
+
+                    @Override
+                    public void finished(final Progress progress) {
+                        log.add("finished " + progress.getIndex() + " " + progress.getFailures());
+                    }
+                });
+        assertEquals(2, report.getSuppressed());
+        assertEquals(asList("started",
+                            "failed 0 " + String.format(EXPECTED_X_BUT_WAS_Y, 2, 1),
+                            "failed 2 null",
+                            "failed 3 null",
+                            "finished 4 3"), log);
+    }
+
+    @Test
+    public void testStopAfter() throws Exception {
+        final Report report = Reporter.test(
+                asList(1, 2, 3, 4, 5), new ExpectEqualsTester(2), new Reporter.Limits(1, 2));
+        assertEquals(
+                new Report(asList(String.format(EXPECTED_X_BUT_WAS_Y, 2, 1)), 1, true),
+                report
+        );
+        assertEquals(true, report.isStopped());
+    }
+
     private static class ExpectTrueTester implements Reporter.Tester<Boolean> {
 
         @Override
@@ -92,7 +171,7 @@ public class ReporterTest {
 
         @Override
         public void test(final Reporter context, final Object subject) {
-            context.expectEquals(expected, subject, String.format(EXPECTED_X_BUT_WAS_Y, expected, subject));
+            context.expectEquals(expected, subject, Reporter.format(EXPECTED_X_BUT_WAS_Y, expected, subject));
         }
     }
 
@@ -105,7 +184,7 @@ public class ReporterTest {
 
         @Override
         public void test(final Reporter context, final Object subject) {
-            context.expectNotEquals(unexpected, subject, String.format(UNEXPECTED_BUT_WAS_X, unexpected, subject));
+            context.expectNotEquals(unexpected, subject, Reporter.format(UNEXPECTED_BUT_WAS_X, unexpected, subject));
         }
     }
 